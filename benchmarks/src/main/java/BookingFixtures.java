@@ -0,0 +1,106 @@
+import java.io.*;
+
+import bench.BookingFixture;
+
+/**
+ * Default-package implementation of {@link BookingFixture}, so that the benchmarks can reach the booking classes.
+ */
+public class BookingFixtures implements BookingFixture {
+    private CommandExecuter commandExecuter;
+    private final CommandParser parser = new CommandParser();
+    private final ReportWriter out = new ReportWriter(Writer.nullWriter());
+    private Voyage layoutVoyage;
+    private Voyage allocationVoyage;
+    private final int[] allocation = new int[4];
+    private BookingEngine engine;
+
+    public BookingFixtures() {
+        reset();
+    }
+
+    public void reset() {
+        commandExecuter = new CommandExecuter(out);
+    }
+
+    public void addStandardVoyages(int count, int rowCount, int soldEvery) {
+        VoyageManager manager = commandExecuter.transportManager;
+        for (int id = 1; id <= count; id++) {
+            manager.addStandardVoyage(id, "Ankara", "İstanbul", rowCount, Money.of(350), 10);
+            if (soldEvery > 0) {
+                for (int seat = 0; seat < rowCount * 4; seat += soldEvery) {
+                    manager.sellTickets(id, new int[]{seat});
+                }
+            }
+        }
+        out.flush();
+    }
+
+    public void executeCommand(String command) {
+        commandExecuter.executeCommand(command);
+    }
+
+    public void sellTickets(int id, int[] seats) {
+        commandExecuter.transportManager.sellTickets(id, seats);
+    }
+
+    public void refundTickets(int id, int[] seats) {
+        commandExecuter.transportManager.refundTickets(id, seats);
+    }
+
+    public void zReport() {
+        commandExecuter.transportManager.zReport();
+    }
+
+    public void prepareLayout(int rowCount, int soldEvery) {
+        layoutVoyage = new StandardBus(1, rowCount, new RouteDictionary().intern("Ankara", "İstanbul"), Money.of(350), 10);
+        if (soldEvery > 0) {
+            for (int seat = 0; seat < rowCount * 4; seat += soldEvery) {
+                layoutVoyage.sellTicket(seat);
+            }
+        }
+    }
+
+    public void printLayout() {
+        layoutVoyage.printLayout(out);
+    }
+
+    public void prepareAllocation(int rowCount) {
+        allocationVoyage = new StandardBus(1, rowCount, new RouteDictionary().intern("Ankara", "İstanbul"), Money.of(350), 10);
+        for (int seat = 0; seat < (rowCount - 1) * 4; seat++) {
+            allocationVoyage.sellTicket(seat);
+        }
+    }
+
+    public int allocateAndRelease(int count) {
+        if (!allocationVoyage.getAllocator().allocate(count, 0, allocation)) return -1;
+        for (int i = 0; i < count; i++) allocationVoyage.sellTicket(allocation[i]);
+        for (int i = 0; i < count; i++) allocationVoyage.refundTicket(allocation[i]);
+        return allocation[0];
+    }
+
+    public void prepareEngine(boolean lockFree, int rowCount) {
+        engine = lockFree ? new LockFreeVoyageManager() : new ConcurrentVoyageManager();
+        engine.addStandardVoyage(1, "Ankara", "İstanbul", rowCount, Money.of(350), 10);
+    }
+
+    public boolean sellAndRefundOnEngine(int[] seats) {
+        return engine.sellTickets(1, seats).isSuccessful() && engine.refundTickets(1, seats).isSuccessful();
+    }
+
+    public long parseTicketCommand(String command) {
+        parser.reset(command);
+        int seatCount = parser.parseSeats(2);
+        int[] seats = parser.getSeatBuffer();
+        long checksum = parser.parseInt(1);
+        for (int i = 0; i < seatCount; i++) checksum += seats[i];
+        return checksum;
+    }
+
+    public void runBookingSystem(String inputPath, String outputPath, String... options) throws Exception {
+        String[] args = new String[options.length + 2];
+        args[0] = inputPath;
+        args[1] = outputPath;
+        System.arraycopy(options, 0, args, 2, options.length);
+        BookingSystem.main(args);
+    }
+}
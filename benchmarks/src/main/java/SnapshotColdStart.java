@@ -0,0 +1,104 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The {@code SnapshotColdStart} class measures how long a fresh JVM needs to restore a large fleet from a
+ * {@link Snapshot} compared with replaying the same history from a {@link Journal}.
+ * <p>
+ * {@code --mode=prepare} builds a mixed fleet, sells a share of the seats through a journaled
+ * {@link VoyageManager} and writes both files. {@code --mode=snapshot} and {@code --mode=journal} then restore the
+ * fleet from one of them and print the time taken; run each in its own JVM so neither benefits from the other's
+ * warm-up or page cache effects beyond what a real restart would see.
+ * <p>
+ * Usage: {@code java -cp benchmarks/target/benchmarks.jar SnapshotColdStart --mode=prepare --voyages=1000000}
+ * <br>
+ * Options: {@code --mode=prepare|snapshot|journal}, {@code --voyages}, {@code --rows}, {@code --sold} (percentage of
+ * seats sold), {@code --dir} (where the files go), {@code --seed}.
+ */
+public class SnapshotColdStart {
+    private String mode = "prepare";
+    private int voyageCount = 1_000_000;
+    private int rowCount = 10;
+    private int soldPercent = 40;
+    private Path directory = Paths.get(System.getProperty("java.io.tmpdir"));
+    private long seed = 104;
+
+    private Path snapshotPath() { return directory.resolve("cold-start.snapshot"); }
+    private Path journalPath() { return directory.resolve("cold-start.journal"); }
+
+    /**
+     * Writes the snapshot and the journal of a freshly built fleet.
+     */
+    private void prepare() throws IOException {
+        Files.deleteIfExists(journalPath());
+        VoyageManager manager = newManager();
+        Journal journal = Journal.open(journalPath(), Journal.FsyncPolicy.NEVER, manager);
+        manager.setJournal(journal);
+
+        Random random = new Random(seed);
+        String[] cities = {"Ankara", "İstanbul", "İzmir", "Antalya", "Bursa", "Eskişehir", "Konya", "Trabzon"};
+        int[] seats = new int[4];
+        for (int id = 1; id <= voyageCount; id++) {
+            String departure = cities[random.nextInt(cities.length)];
+            String arrival = cities[random.nextInt(cities.length)];
+            int seatCount;
+            switch (id % 3) {
+                case 0: manager.addStandardVoyage(id, departure, arrival, rowCount, Money.of(350), 10); seatCount = rowCount * 4; break;
+                case 1: manager.addPremiumVoyage(id, departure, arrival, rowCount, Money.parse("799.99"), 15, 21); seatCount = rowCount * 3; break;
+                default: manager.addMinibusVoyage(id, departure, arrival, rowCount, Money.of(120)); seatCount = rowCount * 2; break;
+            }
+            for (int seat = 0; seat < seatCount; seat += seats.length) {
+                int count = 0;
+                for (int i = seat; i < Math.min(seat + seats.length, seatCount); i++) {
+                    if (random.nextInt(100) < soldPercent) seats[count++] = i;
+                }
+                if (count > 0) manager.sellTickets(id, seats, count);
+            }
+        }
+        Snapshot.capture(manager, journal.getEndOffset()).writeTo(snapshotPath());
+        journal.close();
+        System.out.printf("Prepared %d voyages: snapshot %d bytes, journal %d bytes%n",
+                voyageCount, Files.size(snapshotPath()), Files.size(journalPath()));
+    }
+
+    /**
+     * Restores the fleet from one of the files and reports the time taken.
+     */
+    private void restore() throws IOException {
+        VoyageManager manager = newManager();
+        long began = System.nanoTime();
+        switch (mode) {
+            case "snapshot": Snapshot.load(snapshotPath(), manager); break;
+            case "journal": Journal.open(journalPath(), Journal.FsyncPolicy.NEVER, manager).close(); break;
+            default: throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+        long elapsed = System.nanoTime() - began;
+        System.out.printf("%s: restored %d voyages in %d ms%n", mode, manager.getVoyages().size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private static VoyageManager newManager() {
+        return new VoyageManager(new ReportWriter(Writer.nullWriter()));
+    }
+
+    public static void main(String[] args) throws IOException {
+        SnapshotColdStart test = new SnapshotColdStart();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) throw new IllegalArgumentException("Expected --option=value but got " + arg);
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "mode": test.mode = value; break;
+                case "voyages": test.voyageCount = Integer.parseInt(value); break;
+                case "rows": test.rowCount = Integer.parseInt(value); break;
+                case "sold": test.soldPercent = Integer.parseInt(value); break;
+                case "dir": test.directory = Paths.get(value); break;
+                case "seed": test.seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        if (test.mode.equals("prepare")) test.prepare();
+        else test.restore();
+    }
+}
@@ -0,0 +1,128 @@
+package bench;
+
+/**
+ * The {@code BookingFixture} interface is the bridge between the JMH benchmarks and the booking classes.
+ * The booking classes live in the default package, which a JMH benchmark cannot reference, so the
+ * implementation ({@code BookingFixtures}) sits in the default package of this module and is loaded by name.
+ * Every fixture owns its own {@code CommandExecuter}, whose report writer discards all output.
+ */
+public interface BookingFixture {
+    /**
+     * Loads a fresh fixture.
+     *
+     * @return A fixture with an empty voyage manager.
+     */
+    static BookingFixture create() {
+        try {
+            return (BookingFixture) Class.forName("BookingFixtures").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Booking fixture is not on the classpath", e);
+        }
+    }
+
+    /**
+     * Drops every voyage by replacing the command executer.
+     */
+    void reset();
+
+    /**
+     * Initializes standard voyages with IDs 1 to {@code count}.
+     *
+     * @param count Number of voyages.
+     * @param rowCount Number of seat rows per voyage.
+     * @param soldEvery Sell every n-th seat of each voyage, or 0 to leave all seats empty.
+     */
+    void addStandardVoyages(int count, int rowCount, int soldEvery);
+
+    /**
+     * Runs a single command line through {@code CommandExecuter.executeCommand}.
+     *
+     * @param command The command line.
+     */
+    void executeCommand(String command);
+
+    /**
+     * Calls {@code VoyageManager.sellTickets} directly.
+     *
+     * @param id The voyage ID.
+     * @param seats Zero-based seat indexes.
+     */
+    void sellTickets(int id, int[] seats);
+
+    /**
+     * Calls {@code VoyageManager.refundTickets} directly.
+     *
+     * @param id The voyage ID.
+     * @param seats Zero-based seat indexes.
+     */
+    void refundTickets(int id, int[] seats);
+
+    /**
+     * Calls {@code VoyageManager.zReport}.
+     */
+    void zReport();
+
+    /**
+     * Creates a standalone standard voyage used by {@link #printLayout()}.
+     *
+     * @param rowCount Number of seat rows.
+     * @param soldEvery Sell every n-th seat, or 0 to leave all seats empty.
+     */
+    void prepareLayout(int rowCount, int soldEvery);
+
+    /**
+     * Calls {@code Voyage.printLayout} on the voyage created by {@link #prepareLayout(int, int)}.
+     */
+    void printLayout();
+
+    /**
+     * Creates a standalone standard voyage used by {@link #allocateAndRelease(int)}, with every seat sold
+     * except those of the last row, so that finding free seats by scanning would have to pass every row.
+     *
+     * @param rowCount Number of seat rows.
+     */
+    void prepareAllocation(int rowCount);
+
+    /**
+     * Allocates adjacent seats on the voyage created by {@link #prepareAllocation(int)} with {@code SeatAllocator},
+     * sells them and refunds them again.
+     *
+     * @param count Number of seats to allocate.
+     * @return The first allocated seat index, or -1 if the allocation failed.
+     */
+    int allocateAndRelease(int count);
+
+    /**
+     * Creates a thread-safe booking engine holding a single standard voyage with ID 1.
+     *
+     * @param lockFree Use {@code LockFreeVoyageManager} instead of the locking {@code ConcurrentVoyageManager}.
+     * @param rowCount Number of seat rows.
+     */
+    void prepareEngine(boolean lockFree, int rowCount);
+
+    /**
+     * Sells seats of voyage 1 through the engine created by {@link #prepareEngine(boolean, int)} and refunds them again.
+     * Safe to call from several threads at once.
+     *
+     * @param seats Zero-based seat indexes.
+     * @return true if both the sale and the refund succeeded.
+     */
+    boolean sellAndRefundOnEngine(int[] seats);
+
+    /**
+     * Tokenizes a SELL_TICKET or REFUND_TICKET line with {@code CommandParser}.
+     *
+     * @param command The command line.
+     * @return Sum of the voyage ID and the parsed seat indexes.
+     */
+    long parseTicketCommand(String command);
+
+    /**
+     * Runs {@code BookingSystem.main} end to end.
+     *
+     * @param inputPath Path of the command file.
+     * @param outputPath Path of the output file.
+     * @param options Further command line options, such as {@code --input=mapped}.
+     */
+    void runBookingSystem(String inputPath, String outputPath, String... options) throws Exception;
+}
@@ -0,0 +1,80 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@code CommandExecuter.executeCommand} for each command type against a fleet of 100 standard voyages.
+ * Commands that change state are paired with their inverse so every invocation sees the same fleet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandBenchmark {
+    private static final int FLEET_SIZE = 100;
+    private static final int INIT_COMMANDS = 1 << 16;
+
+    private BookingFixture fixture;
+    private String[] initCommands;
+    private int nextInit;
+
+    @Setup(Level.Trial)
+    public void prepareCommands() {
+        initCommands = new String[INIT_COMMANDS];
+        for (int i = 0; i < INIT_COMMANDS; i++) {
+            initCommands[i] = "INIT_VOYAGE\tStandard\t" + (FLEET_SIZE + 1 + i) + "\tAnkara\tİstanbul\t10\t350\t10";
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        fixture = BookingFixture.create();
+        fixture.addStandardVoyages(FLEET_SIZE, 10, 3);
+        nextInit = 0;
+    }
+
+    @Benchmark
+    public void initVoyage() {
+        if (nextInit == INIT_COMMANDS) {
+            fixture.reset();
+            nextInit = 0;
+        }
+        fixture.executeCommand(initCommands[nextInit++]);
+    }
+
+    @Benchmark
+    public void initAndCancelVoyage() {
+        fixture.executeCommand("INIT_VOYAGE\tPremium\t100000\tSinop\tAnkara\t12\t850\t25\t20");
+        fixture.executeCommand("CANCEL_VOYAGE\t100000");
+    }
+
+    @Benchmark
+    public void sellAndRefundTicket() {
+        fixture.executeCommand("SELL_TICKET\t50\t2_3");
+        fixture.executeCommand("REFUND_TICKET\t50\t2_3");
+    }
+
+    @Benchmark
+    public void sellSoldTicket() {
+        fixture.executeCommand("SELL_TICKET\t50\t1");
+    }
+
+    @Benchmark
+    public void printVoyage() {
+        fixture.executeCommand("PRINT_VOYAGE\t50");
+    }
+
+    @Benchmark
+    public void zReport() {
+        fixture.executeCommand("Z_REPORT");
+    }
+
+    @Benchmark
+    public void unknownCommand() {
+        fixture.executeCommand("BOOK_TICKET\t50\t1");
+    }
+}
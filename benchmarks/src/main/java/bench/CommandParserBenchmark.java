@@ -0,0 +1,58 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the in-place {@code CommandParser} against the {@code String.split} based tokenization
+ * that {@code CommandExecuter} used for SELL_TICKET and REFUND_TICKET commands.
+ * Run with {@code -prof gc} to see the allocation per command.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandParserBenchmark {
+    @Param({"SELL_TICKET\t7\t3", "SELL_TICKET\t11\t1_2_3_4", "REFUND_TICKET\t1024\t17_18_19_20_21_22"})
+    public String command;
+
+    private BookingFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = BookingFixture.create();
+        if (fixture.parseTicketCommand(command) != split(command)) {
+            throw new IllegalStateException("Parsers disagree on " + command);
+        }
+    }
+
+    /**
+     * Tokenizes a command the way the split based path did.
+     *
+     * @return Sum of the voyage ID and the parsed seat indexes.
+     */
+    private static long split(String command) {
+        String[] tokens = command.split("\t");
+        String[] seats = tokens[2].split("_");
+        int[] seatNumbers = new int[seats.length];
+        for (int i = 0; i < seats.length; i++) {
+            seatNumbers[i] = Integer.parseInt(seats[i]) - 1;
+        }
+        long checksum = Integer.parseInt(tokens[1]);
+        for (int seat : seatNumbers) checksum += seat;
+        return checksum;
+    }
+
+    @Benchmark
+    public long splitTokenizer() {
+        return split(command);
+    }
+
+    @Benchmark
+    public long commandParser() {
+        return fixture.parseTicketCommand(command);
+    }
+}
@@ -0,0 +1,60 @@
+package bench;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@code BookingSystem.main} end to end on command files produced by {@link WorkloadGenerator}
+ * with its default mix of commands, reading the input through a {@code BufferedReader} or a memory mapping,
+ * and writing the output on the command thread or on a separate writer thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EndToEndBenchmark {
+    @Param({"10000", "100000"})
+    public int commandCount;
+
+    @Param({"100"})
+    public int fleetSize;
+
+    @Param({"buffered", "mapped"})
+    public String inputMode;
+
+    @Param({"direct", "async"})
+    public String outputMode;
+
+    private BookingFixture fixture;
+    private Path input;
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = BookingFixture.create();
+        input = Files.createTempFile("booking-input", ".txt");
+        output = Files.createTempFile("booking-output", ".txt");
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.setCommandCount(commandCount);
+        generator.setFleetSize(fleetSize);
+        try (BufferedWriter writer = Files.newBufferedWriter(input)) {
+            generator.write(writer);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public void bookingSystem() throws Exception {
+        fixture.runBookingSystem(input.toString(), output.toString(), "--input=" + inputMode, "--output=" + outputMode);
+    }
+}
@@ -0,0 +1,35 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@code SeatAllocator} on a standard voyage of varying size whose only free seats are in the last row,
+ * allocating an adjacent pair, selling it and refunding it again. The cost should grow with the logarithm of the
+ * row count, not with the row count itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeatAllocatorBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int rowCount;
+
+    private BookingFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = BookingFixture.create();
+        fixture.prepareAllocation(rowCount);
+        fixture.allocateAndRelease(2);
+    }
+
+    @Benchmark
+    public int allocatePair() {
+        return fixture.allocateAndRelease(2);
+    }
+}
@@ -0,0 +1,51 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Measures sales and refunds on a single voyage shared by several threads, comparing the per-voyage monitor of
+ * {@code ConcurrentVoyageManager} with the compare-and-set seat words of {@code LockFreeVoyageManager}.
+ * Every thread books its own seats, so all requests succeed, but the seats of neighbouring threads share
+ * 64-bit seat words and, with locking, the voyage's monitor. Change the thread count with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class SeatContentionBenchmark {
+    @Param({"false", "true"})
+    public boolean lockFree;
+
+    @Param({"1", "4"})
+    public int seatsPerTicket;
+
+    private BookingFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp(ThreadParams threads) {
+        fixture = BookingFixture.create();
+        fixture.prepareEngine(lockFree, (threads.getThreadCount() * seatsPerTicket + 3) / 4);
+    }
+
+    @State(Scope.Thread)
+    public static class Seats {
+        int[] seats;
+
+        @Setup(Level.Trial)
+        public void setUp(SeatContentionBenchmark benchmark, ThreadParams threads) {
+            seats = new int[benchmark.seatsPerTicket];
+            for (int i = 0; i < seats.length; i++) seats[i] = threads.getThreadIndex() * seats.length + i;
+        }
+    }
+
+    @Benchmark
+    public boolean sellAndRefund(Seats seats) {
+        return fixture.sellAndRefundOnEngine(seats.seats);
+    }
+}
@@ -0,0 +1,32 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures {@code Voyage.printLayout} for a standard voyage of varying size with every third seat sold.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoyageBenchmark {
+    @Param({"10", "100", "1000"})
+    public int rowCount;
+
+    private BookingFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = BookingFixture.create();
+        fixture.prepareLayout(rowCount, 3);
+    }
+
+    @Benchmark
+    public void printLayout() {
+        fixture.printLayout();
+    }
+}
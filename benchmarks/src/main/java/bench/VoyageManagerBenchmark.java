@@ -0,0 +1,53 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the {@code VoyageManager} operations directly, at varying fleet sizes.
+ * Every voyage has 10 rows of 2+2 seats with every third seat sold.
+ * {@code zReport} prints only cached layouts, while {@code sellAndZReport} changes one voyage before each report.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VoyageManagerBenchmark {
+    private static final int[] SEATS = {1, 2, 4, 5};
+
+    @Param({"10", "1000", "100000"})
+    public int fleetSize;
+
+    private BookingFixture fixture;
+    private int voyageId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = BookingFixture.create();
+        fixture.addStandardVoyages(fleetSize, 10, 3);
+        voyageId = (fleetSize + 1) / 2;
+    }
+
+    @Benchmark
+    public void sellAndRefundTickets() {
+        fixture.sellTickets(voyageId, SEATS);
+        fixture.refundTickets(voyageId, SEATS);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void zReport() {
+        fixture.zReport();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void sellAndZReport() {
+        fixture.sellTickets(voyageId, SEATS);
+        fixture.zReport();
+        fixture.refundTickets(voyageId, SEATS);
+    }
+}
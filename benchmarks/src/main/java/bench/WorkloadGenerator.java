@@ -0,0 +1,288 @@
+package bench;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The {@code WorkloadGenerator} class writes synthetic command files for load testing {@code BookingSystem}.
+ * It first initializes a fleet of voyages and then emits a stream of SELL_TICKET, REFUND_TICKET, PRINT_VOYAGE,
+ * CANCEL_VOYAGE and INIT_VOYAGE commands with periodic Z_REPORTs. The generator tracks the seat state of every
+ * voyage, so valid commands really succeed, while a configurable fraction of commands is deliberately invalid
+ * (unknown voyages, taken or empty seats, out of range seats, bad arguments, unknown commands).
+ * The output only depends on the settings and the seed.
+ * <p>
+ * Usage: {@code java -cp benchmarks/target/benchmarks.jar bench.WorkloadGenerator --commands=1000000 --output=input.txt}
+ * <br>
+ * Options: {@code --commands}, {@code --fleet}, {@code --rows=min:max}, {@code --mix=minibus:standard:premium},
+ * {@code --sell-refund=sells:refunds}, {@code --z-every}, {@code --invalid}, {@code --max-seats}, {@code --seed},
+ * {@code --output}. Without {@code --output} the commands are written to standard output.
+ */
+public class WorkloadGenerator {
+    private static final String[] CITIES = {
+        "Ankara", "İstanbul", "İzmir", "Sinop", "Rize", "Polatlı", "Pendik", "Halkalı", "Bursa", "Antalya",
+        "Eskişehir", "Konya", "Kayseri", "Trabzon", "Samsun", "Muğla", "Çanakkale", "Edirne", "Şanlıurfa", "Van",
+    };
+    private static final String[] TYPES = {"Minibus", "Standard", "Premium"};
+    private static final int[] COLUMNS = {2, 4, 3};
+
+    private int commandCount = 1_000_000;
+    private int fleetSize = 1_000;
+    private int minRows = 5;
+    private int maxRows = 20;
+    private int[] typeWeights = {1, 2, 1};
+    private int sellWeight = 3;
+    private int refundWeight = 1;
+    private int zReportEvery = 1_000;
+    private double invalidFraction = 0.05;
+    private int maxSeatsPerTicket = 4;
+    private long seed = 104;
+
+    private Random random;
+    private final List<GeneratedVoyage> fleet = new ArrayList<>();
+    private int nextVoyageId;
+    private int written;
+
+    /**
+     * Tracks the state of a voyage as the generated commands will leave it.
+     */
+    private static class GeneratedVoyage {
+        final int id;
+        final int type;
+        final int capacity;
+        final BitSet sold;
+
+        GeneratedVoyage(int id, int type, int capacity) {
+            this.id = id;
+            this.type = type;
+            this.capacity = capacity;
+            this.sold = new BitSet(capacity);
+        }
+    }
+
+    public void setCommandCount(int commandCount) { this.commandCount = commandCount; }
+    public void setFleetSize(int fleetSize) { this.fleetSize = fleetSize; }
+    public void setRows(int minRows, int maxRows) { this.minRows = minRows; this.maxRows = maxRows; }
+    public void setTypeWeights(int minibus, int standard, int premium) { this.typeWeights = new int[]{minibus, standard, premium}; }
+    public void setSellRefundRatio(int sells, int refunds) { this.sellWeight = sells; this.refundWeight = refunds; }
+    public void setZReportEvery(int zReportEvery) { this.zReportEvery = zReportEvery; }
+    public void setInvalidFraction(double invalidFraction) { this.invalidFraction = invalidFraction; }
+    public void setMaxSeatsPerTicket(int maxSeatsPerTicket) { this.maxSeatsPerTicket = maxSeatsPerTicket; }
+    public void setSeed(long seed) { this.seed = seed; }
+
+    /**
+     * Writes the configured number of commands, one per line.
+     *
+     * @param writer Destination of the commands.
+     * @throws IOException if writing fails.
+     */
+    public void write(Writer writer) throws IOException {
+        if (minRows < 1 || maxRows < minRows) throw new IllegalArgumentException("Invalid row range " + minRows + ":" + maxRows);
+        if (typeWeights[0] + typeWeights[1] + typeWeights[2] <= 0) throw new IllegalArgumentException("Vehicle mix must have a positive weight");
+        if (sellWeight + refundWeight <= 0) throw new IllegalArgumentException("Sell/refund ratio must have a positive weight");
+        if (maxSeatsPerTicket < 1) throw new IllegalArgumentException("At least one seat per ticket is required");
+        random = new Random(seed);
+        fleet.clear();
+        nextVoyageId = 1;
+        written = 0;
+
+        while (written < commandCount && fleet.size() < fleetSize) {
+            emit(writer, initVoyage());
+        }
+        while (written < commandCount) {
+            if (zReportEvery > 0 && written % zReportEvery == zReportEvery - 1) {
+                emit(writer, "Z_REPORT");
+            } else if (random.nextDouble() < invalidFraction) {
+                emit(writer, invalidCommand());
+            } else {
+                emit(writer, validCommand());
+            }
+        }
+    }
+
+    /**
+     * Writes a single command line.
+     */
+    private void emit(Writer writer, String command) throws IOException {
+        writer.write(command);
+        writer.write('\n');
+        written++;
+    }
+
+    /**
+     * Picks a command that succeeds against the tracked fleet.
+     */
+    private String validCommand() {
+        if (fleet.isEmpty()) return initVoyage();
+        int roll = random.nextInt(100);
+        if (roll < 2) return "PRINT_VOYAGE\t" + randomVoyage().id;
+        if (roll < 3) return cancelVoyage();
+        if (roll < 4 || fleet.size() < fleetSize) return initVoyage();
+        if (random.nextInt(sellWeight + refundWeight) < sellWeight) {
+            String sell = sellTicket();
+            if (sell != null) return sell;
+        }
+        String refund = refundTicket();
+        if (refund != null) return refund;
+        String sell = sellTicket();
+        return sell != null ? sell : "PRINT_VOYAGE\t" + randomVoyage().id;
+    }
+
+    /**
+     * Initializes a new voyage with a random type, route, size and pricing.
+     */
+    private String initVoyage() {
+        int type = randomType();
+        int rows = minRows + random.nextInt(maxRows - minRows + 1);
+        GeneratedVoyage voyage = new GeneratedVoyage(nextVoyageId++, type, rows * COLUMNS[type]);
+        fleet.add(voyage);
+        StringBuilder sb = new StringBuilder("INIT_VOYAGE\t").append(TYPES[type]).append('\t').append(voyage.id);
+        int departure = random.nextInt(CITIES.length);
+        int arrival = (departure + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+        sb.append('\t').append(CITIES[departure]).append('\t').append(CITIES[arrival]).append('\t').append(rows);
+        sb.append('\t').append(randomPrice());
+        if (type != 0) sb.append('\t').append(random.nextInt(101));
+        if (type == 2) sb.append('\t').append(random.nextInt(51));
+        return sb.toString();
+    }
+
+    /**
+     * Cancels a random voyage.
+     */
+    private String cancelVoyage() {
+        int index = random.nextInt(fleet.size());
+        GeneratedVoyage voyage = fleet.get(index);
+        fleet.set(index, fleet.get(fleet.size() - 1));
+        fleet.remove(fleet.size() - 1);
+        return "CANCEL_VOYAGE\t" + voyage.id;
+    }
+
+    /**
+     * Sells up to {@code maxSeatsPerTicket} free seats of a random voyage, or returns null if the chosen voyage is full.
+     */
+    private String sellTicket() {
+        GeneratedVoyage voyage = randomVoyage();
+        int count = 1 + random.nextInt(maxSeatsPerTicket);
+        StringBuilder seats = new StringBuilder();
+        int seat = voyage.sold.nextClearBit(random.nextInt(voyage.capacity));
+        for (int i = 0; i < count && seat < voyage.capacity; i++) {
+            voyage.sold.set(seat);
+            if (i > 0) seats.append('_');
+            seats.append(seat + 1);
+            seat = voyage.sold.nextClearBit(seat + 1 + random.nextInt(3));
+        }
+        if (seats.length() == 0) return null;
+        return "SELL_TICKET\t" + voyage.id + "\t" + seats;
+    }
+
+    /**
+     * Refunds up to {@code maxSeatsPerTicket} sold seats of a random refundable voyage, or returns null if there is none.
+     */
+    private String refundTicket() {
+        GeneratedVoyage voyage = randomVoyage();
+        if (voyage.type == 0 || voyage.sold.isEmpty()) return null;
+        int count = 1 + random.nextInt(maxSeatsPerTicket);
+        StringBuilder seats = new StringBuilder();
+        int seat = voyage.sold.nextSetBit(random.nextInt(voyage.capacity));
+        if (seat < 0) seat = voyage.sold.nextSetBit(0);
+        for (int i = 0; i < count && seat >= 0; i++) {
+            voyage.sold.clear(seat);
+            if (i > 0) seats.append('_');
+            seats.append(seat + 1);
+            seat = voyage.sold.nextSetBit(seat + 1);
+        }
+        return "REFUND_TICKET\t" + voyage.id + "\t" + seats;
+    }
+
+    /**
+     * Picks a command that fails validation and leaves the fleet unchanged.
+     */
+    private String invalidCommand() {
+        if (fleet.isEmpty()) return "BOOK_TICKET\t1\t1";
+        GeneratedVoyage voyage = randomVoyage();
+        switch (random.nextInt(12)) {
+            case 0:
+                return "SELL_TICKET\t" + (nextVoyageId + random.nextInt(1000)) + "\t1";
+            case 1:
+                int sold = voyage.sold.nextSetBit(0);
+                return sold >= 0 ? "SELL_TICKET\t" + voyage.id + "\t" + (sold + 1) : "SELL_TICKET\t" + voyage.id + "\t1_1_" + (voyage.capacity + 1);
+            case 2:
+                return "SELL_TICKET\t" + voyage.id + "\t" + (voyage.capacity + 1 + random.nextInt(10));
+            case 3:
+                return "SELL_TICKET\t" + voyage.id + "\t-" + (1 + random.nextInt(5));
+            case 4:
+                return "SELL_TICKET\t" + (-random.nextInt(10)) + "\t1";
+            case 5:
+                int empty = voyage.sold.nextClearBit(0);
+                return empty < voyage.capacity ? "REFUND_TICKET\t" + voyage.id + "\t" + (empty + 1) : "REFUND_TICKET\t" + voyage.id + "\t0";
+            case 6:
+                return "INIT_VOYAGE\tStandard\t" + voyage.id + "\tAnkara\tİzmir\t10\t350\t10";
+            case 7:
+                return random.nextBoolean() ? "INIT_VOYAGE\tStandard\t" + nextVoyageId + "\tAnkara\tİzmir\t0\t350\t10"
+                        : "INIT_VOYAGE\tPremium\t" + nextVoyageId + "\tAnkara\tİzmir\t10\t-350\t10\t20";
+            case 8:
+                return "BOOK_TICKET\t" + voyage.id + "\t1";
+            case 9:
+                return random.nextBoolean() ? "SELL_TICKET\t" + voyage.id : "REFUND_TICKET\t" + voyage.id + "\t1\t2";
+            case 10:
+                return "SELL_TICKET\t" + voyage.id + "\t1_x";
+            default:
+                return random.nextBoolean() ? "Z_REPORT\tnow" : "CANCEL_VOYAGE\t" + (nextVoyageId + random.nextInt(1000));
+        }
+    }
+
+    private GeneratedVoyage randomVoyage() {
+        return fleet.get(random.nextInt(fleet.size()));
+    }
+
+    private int randomType() {
+        int roll = random.nextInt(typeWeights[0] + typeWeights[1] + typeWeights[2]);
+        if (roll < typeWeights[0]) return 0;
+        if (roll < typeWeights[0] + typeWeights[1]) return 1;
+        return 2;
+    }
+
+    private String randomPrice() {
+        int lira = 50 + random.nextInt(950);
+        int kurus = random.nextInt(4) == 0 ? random.nextInt(100) : 0;
+        return kurus == 0 ? Integer.toString(lira) : lira + "." + (kurus < 10 ? "0" : "") + kurus;
+    }
+
+    /**
+     * Parses a {@code a:b} option value.
+     */
+    private static int[] parsePair(String value, int parts) {
+        String[] tokens = value.split(":");
+        if (tokens.length != parts) throw new IllegalArgumentException("Expected " + parts + " values separated by ':' in " + value);
+        int[] result = new int[parts];
+        for (int i = 0; i < parts; i++) result[i] = Integer.parseInt(tokens[i]);
+        return result;
+    }
+
+    public static void main(String[] args) throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        String output = null;
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) throw new IllegalArgumentException("Expected --option=value but got " + arg);
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "commands": generator.setCommandCount(Integer.parseInt(value)); break;
+                case "fleet": generator.setFleetSize(Integer.parseInt(value)); break;
+                case "rows": int[] rows = parsePair(value, 2); generator.setRows(rows[0], rows[1]); break;
+                case "mix": int[] mix = parsePair(value, 3); generator.setTypeWeights(mix[0], mix[1], mix[2]); break;
+                case "sell-refund": int[] ratio = parsePair(value, 2); generator.setSellRefundRatio(ratio[0], ratio[1]); break;
+                case "z-every": generator.setZReportEvery(Integer.parseInt(value)); break;
+                case "invalid": generator.setInvalidFraction(Double.parseDouble(value)); break;
+                case "max-seats": generator.setMaxSeatsPerTicket(Integer.parseInt(value)); break;
+                case "seed": generator.setSeed(Long.parseLong(value)); break;
+                case "output": output = value; break;
+                default: throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        OutputStream stream = output == null ? System.out : new FileOutputStream(output);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16)) {
+            generator.write(writer);
+        }
+    }
+}
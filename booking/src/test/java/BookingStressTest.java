@@ -0,0 +1,154 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.*;
+import org.junit.jupiter.params.provider.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code BookingStressTest} class hammers a {@link BookingEngine} with many threads that sell and
+ * refund overlapping seats on a small fleet, and then verifies that no seat was ever sold twice and that the
+ * revenue of every voyage equals what its sales and refunds should have earned.
+ * <p>
+ * Every voyage has more seats than fit in one word of an {@link AtomicSeatMap}, and a request picks its seats
+ * anywhere on the voyage, so most requests span several words. Threads refund seats that they or any other
+ * thread sold, so sales and refunds on the same seats race and many of them are expected to fail. Every
+ * successful operation is counted per seat; at the end, the sales of a seat minus its refunds must be one if the
+ * seat is sold and zero otherwise, and the revenue must equal the prices of those sales minus their refunds.
+ * <p>
+ * The fleet is small and the number of operations bounded, so the test runs in a few seconds with every build;
+ * the seed of every thread is fixed, but the interleaving is not.
+ */
+class BookingStressTest {
+    private static final int THREAD_COUNT = 8;
+    private static final int VOYAGE_COUNT = 4;
+    private static final int ROW_COUNT = 24;
+    private static final int OPERATION_COUNT = 20_000;
+    private static final int MAX_SEATS_PER_TICKET = 4;
+    private static final long SEED = 104;
+
+    private BookingEngine manager;
+    private Voyage[] prices;
+    private AtomicIntegerArray[] sales;
+    private AtomicIntegerArray[] refunds;
+    private AtomicLongArray reportedRevenue;
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"locking", "lock-free"})
+    @Timeout(120)
+    void concurrentSalesAndRefundsKeepEveryVoyageConsistent(String engine) throws InterruptedException {
+        switch (engine) {
+            case "locking": manager = new ConcurrentVoyageManager(); break;
+            case "lock-free": manager = new LockFreeVoyageManager(); break;
+            default: throw new IllegalArgumentException("Unknown engine " + engine);
+        }
+        RouteDictionary routes = new RouteDictionary();
+        prices = new Voyage[VOYAGE_COUNT + 1];
+        sales = new AtomicIntegerArray[VOYAGE_COUNT + 1];
+        refunds = new AtomicIntegerArray[VOYAGE_COUNT + 1];
+        reportedRevenue = new AtomicLongArray(VOYAGE_COUNT + 1);
+        for (int id = 1; id <= VOYAGE_COUNT; id++) {
+            BookingResult result;
+            if (id % 2 == 0) {
+                result = manager.addPremiumVoyage(id, "Ankara", "İstanbul", ROW_COUNT, Money.parse("799.99"), 15, 21);
+                prices[id] = new PremiumBus(id, ROW_COUNT, routes.intern("Ankara", "İstanbul"), Money.parse("799.99"), 15, 21);
+            } else {
+                result = manager.addStandardVoyage(id, "Ankara", "İzmir", ROW_COUNT, Money.of(350), 10);
+                prices[id] = new StandardBus(id, ROW_COUNT, routes.intern("Ankara", "İzmir"), Money.of(350), 10);
+            }
+            assertTrue(result.isSuccessful(), result.getMessage());
+            sales[id] = new AtomicIntegerArray(seatCount(id));
+            refunds[id] = new AtomicIntegerArray(seatCount(id));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREAD_COUNT];
+        for (int t = 0; t < THREAD_COUNT; t++) {
+            int owner = t + 1;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    hammer(new Random(SEED + owner));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    failures.add("Thread " + owner + " failed: " + e);
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+
+        verify();
+        assertEquals(List.of(), new ArrayList<>(failures), engine + " engine");
+    }
+
+    /**
+     * Issues random sales and refunds of distinct seats anywhere on a voyage, counting the successful ones.
+     */
+    private void hammer(Random random) {
+        for (int op = 0; op < OPERATION_COUNT; op++) {
+            int id = 1 + random.nextInt(VOYAGE_COUNT);
+            int[] seats = distinctSeats(random, seatCount(id), 1 + random.nextInt(MAX_SEATS_PER_TICKET));
+            boolean sell = random.nextBoolean();
+            BookingResult result = sell ? manager.sellTickets(id, seats) : manager.refundTickets(id, seats);
+            if (!result.isSuccessful()) continue;
+            for (int seat : seats) {
+                if (sell) sales[id].incrementAndGet(seat);
+                else refunds[id].incrementAndGet(seat);
+            }
+            reportedRevenue.addAndGet(id, sell ? result.getAmount() : -result.getAmount());
+        }
+    }
+
+    /**
+     * Compares the final state of every voyage with the operations that succeeded.
+     */
+    private void verify() {
+        for (int id = 1; id <= VOYAGE_COUNT; id++) {
+            int soldSeats = 0;
+            long revenue = 0;
+            for (int seat = 0; seat < seatCount(id); seat++) {
+                int net = sales[id].get(seat) - refunds[id].get(seat);
+                boolean sold = manager.isSeatSold(id, seat);
+                if (net != (sold ? 1 : 0)) {
+                    failures.add("Seat " + (seat + 1) + " of voyage " + id + " is " + (sold ? "sold" : "empty") + " after "
+                            + sales[id].get(seat) + " sales and " + refunds[id].get(seat) + " refunds");
+                }
+                soldSeats += net;
+                revenue += sales[id].get(seat) * prices[id].getTicketPrice(seat) - refunds[id].get(seat) * prices[id].getTicketRefund(seat);
+            }
+            if (manager.getSoldSeatCount(id) != soldSeats) {
+                failures.add("Voyage " + id + " has " + manager.getSoldSeatCount(id) + " sold seats, expected " + soldSeats);
+            }
+            if (manager.getRevenue(id) != revenue) {
+                failures.add("Voyage " + id + " revenue is " + Money.format(manager.getRevenue(id)) + ", expected " + Money.format(revenue));
+            }
+            if (reportedRevenue.get(id) != revenue) {
+                failures.add("Voyage " + id + " reported " + Money.format(reportedRevenue.get(id)) + ", expected " + Money.format(revenue));
+            }
+        }
+    }
+
+    private int seatCount(int id) {
+        return prices[id].getSeats().getCapacity();
+    }
+
+    private static int[] distinctSeats(Random random, int seatCount, int count) {
+        int[] seats = new int[count];
+        for (int i = 0; i < count; i++) {
+            boolean repeated;
+            do {
+                seats[i] = random.nextInt(seatCount);
+                repeated = false;
+                for (int j = 0; j < i; j++) repeated |= seats[j] == seats[i];
+            } while (repeated);
+        }
+        return seats;
+    }
+}
@@ -0,0 +1,128 @@
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a {@link CommandProgram} replays a command file exactly like executing it line by line, including
+ * lines it cannot compile, and that its cache is reused for the same content and compiled again otherwise.
+ */
+class CommandProgramTest {
+    private static final String COMMANDS = String.join("\n",
+            "INIT_VOYAGE\tStandard\t1\tAnkara\tİstanbul\t3\t100\t10",
+            "INIT_VOYAGE\tPremium\t2\tİzmir\tAnkara\t2\t50.5\t20\t40",
+            "INIT_VOYAGE\tMinibus\t3\tAnkara\tİstanbul\t1\t30",
+            "SELL_TICKET\t1\t1_2_12",
+            "SELL_TICKET\t1\t03",
+            "SELL_TICKET\t2\t1_1",
+            "REFUND_TICKET\t1\t2",
+            "REFUND_TICKET\t3\t1",
+            "SELL_TICKET\t1\t-4",
+            "SELL_TICKET\tx\t4",
+            "HOLD_SEATS\t1\t5\t2",
+            "BATCH\tSELL_TICKET\t2\t2\tREFUND_TICKET\t1\t1",
+            "FIND_VOYAGES\tAnkara\tİstanbul",
+            "PRINT_VOYAGE\t2",
+            "CANCEL_VOYAGE\t3",
+            "UNKNOWN_COMMAND\t1",
+            "Z_REPORT",
+            "SELL_TICKET\t1\t5",
+            "Z_REPORT");
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void replaysLikeExecutingTheLines() throws IOException {
+        Path input = write("commands.txt", COMMANDS);
+
+        assertEquals(executeLines(input), replay(CommandProgram.compile(input)));
+    }
+
+    @Test
+    void reusesTheCachedProgramOfTheSameContent() throws IOException {
+        Path input = write("commands.txt", COMMANDS);
+        Path cache = temp.resolve("cache");
+        String expected = executeLines(input);
+        assertEquals(expected, replay(CommandProgram.cached(input, cache)));
+        Path entry = onlyEntry(cache);
+        FileTime compiledAt = FileTime.fromMillis(1_000_000_000L);
+        Files.setLastModifiedTime(entry, compiledAt);
+
+        Path copy = write("copy.txt", COMMANDS);
+        assertEquals(expected, replay(CommandProgram.cached(copy, cache)));
+        assertEquals(entry, onlyEntry(cache));
+        assertEquals(compiledAt, Files.getLastModifiedTime(entry));
+    }
+
+    @Test
+    void compilesAgainWhenTheContentChanges() throws IOException {
+        Path input = write("commands.txt", COMMANDS);
+        Path cache = temp.resolve("cache");
+        replay(CommandProgram.cached(input, cache));
+        Path first = onlyEntry(cache);
+
+        write("commands.txt", COMMANDS.replace("SELL_TICKET\t1\t5", "SELL_TICKET\t1\t6"));
+        assertEquals(executeLines(input), replay(CommandProgram.cached(input, cache)));
+        assertEquals(2, entries(cache).size());
+        assertTrue(entries(cache).contains(first));
+    }
+
+    @Test
+    void replacesADamagedCacheEntry() throws IOException {
+        Path input = write("commands.txt", COMMANDS);
+        Path cache = temp.resolve("cache");
+        replay(CommandProgram.cached(input, cache));
+        Path entry = onlyEntry(cache);
+        byte[] damaged = Files.readAllBytes(entry);
+        damaged[damaged.length / 2] ^= 1;
+        Files.write(entry, damaged);
+
+        assertEquals(executeLines(input), replay(CommandProgram.cached(input, cache)));
+        assertFalse(Arrays.equals(damaged, Files.readAllBytes(onlyEntry(cache))));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(temp.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Path> entries(Path cache) throws IOException {
+        try (Stream<Path> files = Files.list(cache)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    private static Path onlyEntry(Path cache) throws IOException {
+        List<Path> entries = entries(cache);
+        assertEquals(1, entries.size(), "Cache entries " + entries);
+        return entries.get(0);
+    }
+
+    private static String executeLines(Path input) throws IOException {
+        StringWriter text = new StringWriter();
+        ReportWriter out = new ReportWriter(text);
+        CommandExecuter executer = new CommandExecuter(out);
+        for (String line : Files.readAllLines(input, StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) executer.executeCommand(line.trim());
+        }
+        out.close();
+        return text.toString();
+    }
+
+    private static String replay(CommandProgram program) throws IOException {
+        StringWriter text = new StringWriter();
+        ReportWriter out = new ReportWriter(text);
+        CommandExecuter executer = new CommandExecuter(out);
+        while (program.executeNext(executer)) {
+        }
+        out.close();
+        return text.toString();
+    }
+}
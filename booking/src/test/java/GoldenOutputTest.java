@@ -0,0 +1,52 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import org.junit.jupiter.api.io.*;
+import org.junit.jupiter.params.*;
+import org.junit.jupiter.params.provider.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code GoldenOutputTest} class runs {@link BookingSystem} on every golden case and compares the output with
+ * the expected output byte for byte. A case is a directory under {@code golden} in the test resources holding an
+ * {@code input.txt} and the {@code output.txt} it must produce.
+ * <p>
+ * Every case is run in each execution mode, since they all promise the same output: line by line, sharded,
+ * memory-mapped, compiled into a {@link CommandProgram} and with asynchronous output.
+ */
+class GoldenOutputTest {
+    private static final List<String> MODES = List.of("", "--shards=3", "--input=mapped", "--compiled-cache", "--output=async");
+
+    @TempDir
+    Path temp;
+
+    static Stream<Arguments> cases() throws IOException, URISyntaxException {
+        URL golden = GoldenOutputTest.class.getResource("/golden");
+        assertNotNull(golden, "No golden cases on the test class path");
+        List<String> names;
+        try (Stream<Path> directories = Files.list(Paths.get(golden.toURI()))) {
+            names = directories.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+        return names.stream().flatMap(name -> MODES.stream().map(mode -> Arguments.of(name, mode)));
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource("cases")
+    void producesTheExpectedOutput(String name, String mode) throws Exception {
+        Path directory = Paths.get(GoldenOutputTest.class.getResource("/golden/" + name).toURI());
+        Path output = temp.resolve("output.txt");
+        List<String> args = new ArrayList<>(List.of(directory.resolve("input.txt").toString(), output.toString()));
+        if (mode.equals("--compiled-cache")) args.add(mode + "=" + temp.resolve("cache"));
+        else if (!mode.isEmpty()) args.add(mode);
+
+        BookingSystem.main(args.toArray(new String[0]));
+
+        String expected = new String(Files.readAllBytes(directory.resolve("output.txt")), StandardCharsets.UTF_8);
+        assertEquals(expected, new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+    }
+}
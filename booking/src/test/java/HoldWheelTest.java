@@ -0,0 +1,103 @@
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a {@link HoldWheel} releases every hold exactly when the clock reaches its expiry time, however far
+ * the expiry lies ahead and however far the clock jumps.
+ */
+class HoldWheelTest {
+    @Test
+    void releasesAHoldAtItsExpiryTimeAndNotBefore() {
+        HoldWheel wheel = new HoldWheel(8);
+        Voyage voyage = voyage(8);
+        hold(wheel, voyage, 3, 5);
+
+        wheel.advance(4);
+        assertTrue(voyage.isSeatHeld(3));
+        wheel.advance(5);
+        assertFalse(voyage.isSeatHeld(3));
+        assertEquals(0, wheel.size());
+        assertEquals(0, voyage.getHeldSeatCount());
+    }
+
+    @Test
+    void keepsHoldsThatExpireInALaterTurnOfTheWheel() {
+        HoldWheel wheel = new HoldWheel(4);
+        Voyage voyage = voyage(8);
+        hold(wheel, voyage, 0, 2);
+        hold(wheel, voyage, 1, 6);
+        hold(wheel, voyage, 2, 10);
+
+        for (long time = 1; time <= 10; time++) {
+            wheel.advance(time);
+            assertEquals(time < 2, voyage.isSeatHeld(0), "seat 0 at " + time);
+            assertEquals(time < 6, voyage.isSeatHeld(1), "seat 1 at " + time);
+            assertEquals(time < 10, voyage.isSeatHeld(2), "seat 2 at " + time);
+        }
+    }
+
+    @Test
+    void releasesEverythingDueWhenTheClockJumpsAWholeTurn() {
+        HoldWheel wheel = new HoldWheel(4);
+        Voyage voyage = voyage(8);
+        hold(wheel, voyage, 0, 3);
+        hold(wheel, voyage, 1, 9);
+        hold(wheel, voyage, 2, 10);
+
+        wheel.advance(9);
+        assertFalse(voyage.isSeatHeld(0));
+        assertFalse(voyage.isSeatHeld(1));
+        assertTrue(voyage.isSeatHeld(2));
+        assertEquals(9, wheel.getTime());
+    }
+
+    @Test
+    void rejectsAnExpiryThatIsNotInTheFuture() {
+        HoldWheel wheel = new HoldWheel(4);
+        wheel.advance(5);
+
+        assertThrows(IllegalArgumentException.class, () -> wheel.add(voyage(4), new int[] {0}, 5));
+    }
+
+    @Test
+    void matchesTheExpiryTimesOfRandomHolds() {
+        Random random = new Random(24);
+        for (int run = 0; run < 200; run++) {
+            HoldWheel wheel = new HoldWheel(1 << random.nextInt(5));
+            Voyage voyage = voyage(1000);
+            Map<Integer, Long> expiries = new HashMap<>();
+            long now = 0;
+            for (int step = 0; step < 2000; step++) {
+                long time = now + (random.nextInt(10) == 0 ? random.nextInt(100) : random.nextInt(3));
+                wheel.advance(time);
+                if (time > now) {
+                    now = time;
+                    long current = now;
+                    expiries.values().removeIf(expiry -> expiry <= current);
+                }
+                int seat = random.nextInt(1000);
+                if (!voyage.isSeatHeld(seat) && random.nextBoolean()) {
+                    long expiry = now + 1 + random.nextInt(50);
+                    hold(wheel, voyage, seat, expiry);
+                    expiries.put(seat, expiry);
+                }
+
+                assertEquals(expiries.size(), wheel.size());
+                assertEquals(expiries.size(), voyage.getHeldSeatCount());
+                for (int held : expiries.keySet()) assertTrue(voyage.isSeatHeld(held), "seat " + held + " at " + now);
+            }
+        }
+    }
+
+    private static Voyage voyage(int seatCount) {
+        return new MiniBus(1, seatCount / 2, new RouteDictionary().intern("Ankara", "İstanbul"), Money.of(30));
+    }
+
+    private static void hold(HoldWheel wheel, Voyage voyage, int seat, long expiry) {
+        voyage.holdSeat(seat);
+        wheel.add(voyage, new int[] {seat}, expiry);
+    }
+}
@@ -0,0 +1,148 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a {@link Journal} restores the voyages of earlier runs, and that replay stops at a torn or corrupt
+ * last record, cuts it off and appends after the last intact one.
+ */
+class JournalTest {
+    private static final String[] HISTORY = {
+            "INIT_VOYAGE\tStandard\t1\tAnkara\tİstanbul\t3\t100\t10",
+            "INIT_VOYAGE\tPremium\t2\tİzmir\tAnkara\t2\t50\t20\t40",
+            "INIT_VOYAGE\tMinibus\t3\tBursa\tAnkara\t2\t30",
+            "SELL_TICKET\t1\t1_2_7",
+            "REFUND_TICKET\t1\t2",
+            "SELL_TICKET\t3\t4",
+            "BATCH\tSELL_TICKET\t2\t1_2\tREFUND_TICKET\t1\t7",
+            "CANCEL_VOYAGE\t3",
+    };
+    private static final String LAST_SALE = "SELL_TICKET\t2\t6";
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void replaysTheCommandsOfEarlierRuns() throws Exception {
+        Path journal = temp.resolve("journal.bin");
+        Path output = temp.resolve("output.txt");
+        BookingSystem.main(new String[] {resource("first.txt"), temp.resolve("first.out").toString(), "--journal=" + journal});
+        BookingSystem.main(new String[] {resource("second.txt"), output.toString(), "--journal=" + journal});
+
+        assertEquals(read(Paths.get(resource("second.expected.txt"))), read(output));
+    }
+
+    @Test
+    void replayStopsAtATornLastRecord() throws Exception {
+        Path journal = temp.resolve("journal.bin");
+        run(journal, HISTORY);
+        long intact = Files.size(journal);
+        run(journal, LAST_SALE);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(journal) - 3);
+        }
+
+        assertRecoversTo(journal, intact);
+    }
+
+    @Test
+    void replayStopsAtARecordWithABadChecksum() throws Exception {
+        Path journal = temp.resolve("journal.bin");
+        run(journal, HISTORY);
+        long intact = Files.size(journal);
+        run(journal, LAST_SALE);
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            last.put(0, (byte) (last.get(0) ^ 1)).rewind();
+            channel.write(last, channel.size() - 1);
+        }
+
+        assertRecoversTo(journal, intact);
+    }
+
+    @Test
+    void replayStopsAtARecordWithAGarbageLength() throws Exception {
+        Path journal = temp.resolve("journal.bin");
+        run(journal, HISTORY);
+        long intact = Files.size(journal);
+        run(journal, LAST_SALE);
+        byte[] damaged = Files.readAllBytes(journal);
+
+        for (int length : new int[] {Integer.MAX_VALUE, 0x7FFF_FFF0, damaged.length - (int) intact - 7}) {
+            ByteBuffer.wrap(damaged).order(ByteOrder.LITTLE_ENDIAN).putInt((int) intact, length);
+            Files.write(journal, damaged);
+            assertRecoversTo(journal, intact);
+        }
+    }
+
+    @Test
+    void rejectsAFileThatIsNotAJournal() throws Exception {
+        Path journal = temp.resolve("journal.bin");
+        Files.write(journal, "INIT_VOYAGE".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> run(journal, "Z_REPORT"));
+    }
+
+    /**
+     * Checks that the journal replays the history without the damaged last sale, is cut back to the intact
+     * records and takes new records after them.
+     */
+    private void assertRecoversTo(Path journal, long intact) throws IOException {
+        assertEquals(report(HISTORY), run(journal, "Z_REPORT"));
+        assertEquals(intact, Files.size(journal));
+
+        run(journal, LAST_SALE);
+        String[] repeated = new String[HISTORY.length + 1];
+        System.arraycopy(HISTORY, 0, repeated, 0, HISTORY.length);
+        repeated[HISTORY.length] = LAST_SALE;
+        assertEquals(report(repeated), run(journal, "Z_REPORT"));
+    }
+
+    /**
+     * Executes commands on a manager restored from the journal and records them in it.
+     *
+     * @return The output of the commands.
+     */
+    private static String run(Path journal, String... commands) throws IOException {
+        StringWriter text = new StringWriter();
+        ReportWriter out = new ReportWriter(text);
+        CommandExecuter executer = new CommandExecuter(out);
+        try (Journal log = Journal.open(journal, Journal.FsyncPolicy.NEVER, executer.transportManager)) {
+            executer.transportManager.setJournal(log);
+            for (String command : commands) executer.executeCommand(command);
+        }
+        out.close();
+        return text.toString();
+    }
+
+    /**
+     * Executes commands on a fresh manager without a journal and returns the Z report they lead to.
+     */
+    private static String report(String... commands) throws IOException {
+        StringWriter text = new StringWriter();
+        ReportWriter out = new ReportWriter(text);
+        CommandExecuter executer = new CommandExecuter(out);
+        for (String command : commands) executer.executeCommand(command);
+        out.flush();
+        text.getBuffer().setLength(0);
+        executer.executeCommand("Z_REPORT");
+        out.close();
+        return text.toString();
+    }
+
+    private static String resource(String name) throws Exception {
+        return Paths.get(JournalTest.class.getResource("/journal/" + name).toURI()).toString();
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,74 @@
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a {@link MappedLineReader} returns the same trimmed lines as a {@link BufferedReader} for every window
+ * size, so that line terminators, {@code \r\n} pairs, multi-byte characters and lines longer than a window may
+ * fall on any window boundary.
+ */
+class MappedLineReaderTest {
+    private static final String TEXT = "INIT_VOYAGE\tStandard\t1\tAnkara\tİstanbul\t3\t100\t10\r\n"
+            + "  SELL_TICKET\t1\t1_2  \n"
+            + "\n"
+            + "\r\n"
+            + "PRINT_VOYAGE\t1\r"
+            + "INIT_VOYAGE\tMinibus\t2\tŞanlıurfa\tKırşehir\t2\t30\r\r\n"
+            + "FIND_VOYAGES\tAnkara\tİstanbul\n"
+            + "\t \t\n"
+            + "Z_REPORT";
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void readsTheSameLinesForEveryWindowSize() throws IOException {
+        Path path = temp.resolve("input.txt");
+        Files.write(path, TEXT.getBytes(StandardCharsets.UTF_8));
+        List<String> expected = bufferedLines(path);
+
+        for (int windowSize = 1; windowSize <= TEXT.length() + 2; windowSize++) {
+            assertEquals(expected, mappedLines(path, windowSize), "window of " + windowSize + " bytes");
+        }
+    }
+
+    @Test
+    void endsWithALoneCarriageReturn() throws IOException {
+        Path path = temp.resolve("input.txt");
+        Files.write(path, "Z_REPORT\r".getBytes(StandardCharsets.UTF_8));
+
+        for (int windowSize = 1; windowSize <= 10; windowSize++) {
+            assertEquals(List.of("Z_REPORT"), mappedLines(path, windowSize), "window of " + windowSize + " bytes");
+        }
+    }
+
+    @Test
+    void readsAnEmptyFile() throws IOException {
+        Path path = temp.resolve("input.txt");
+        Files.write(path, new byte[0]);
+
+        assertEquals(List.of(), mappedLines(path, 4));
+    }
+
+    private static List<String> bufferedLines(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) lines.add(line.trim());
+        }
+        return lines;
+    }
+
+    private static List<String> mappedLines(Path path, int windowSize) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (MappedLineReader reader = new MappedLineReader(path, windowSize)) {
+            for (CharSequence line = reader.readLine(); line != null; line = reader.readLine()) lines.add(line.toString());
+        }
+        return lines;
+    }
+}
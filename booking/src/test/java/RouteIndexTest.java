@@ -0,0 +1,61 @@
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a {@link RouteIndex} keeps the voyages of every route sorted by ID while voyages come and go in any
+ * order.
+ */
+class RouteIndexTest {
+    @Test
+    void keepsEveryRouteSortedById() {
+        RouteDictionary routes = new RouteDictionary();
+        RouteDictionary.Route[] table = {
+                routes.intern("Ankara", "İstanbul"),
+                routes.intern("İstanbul", "Ankara"),
+                routes.intern("Ankara", "İzmir"),
+        };
+        RouteIndex index = new RouteIndex();
+        Map<Integer, Voyage> voyages = new HashMap<>();
+        List<TreeSet<Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < table.length; i++) expected.add(new TreeSet<>());
+
+        Random random = new Random(21);
+        for (int step = 0; step < 5000; step++) {
+            int id = 1 + random.nextInt(300);
+            Voyage voyage = voyages.remove(id);
+            if (voyage != null) {
+                index.remove(voyage);
+                expected.get(voyage.getRouteId()).remove(id);
+            } else {
+                voyage = new MiniBus(id, 1, table[random.nextInt(table.length)], Money.of(30));
+                voyages.put(id, voyage);
+                index.add(voyage);
+                expected.get(voyage.getRouteId()).add(id);
+            }
+
+            for (RouteDictionary.Route route : table) {
+                assertEquals(expected.get(route.getId()), ids(index, route.getId()), "after step " + step);
+            }
+        }
+    }
+
+    @Test
+    void hasNoVoyagesOnUnknownRoutes() {
+        RouteIndex index = new RouteIndex();
+
+        assertEquals(0, index.count(-1));
+        assertEquals(0, index.count(1000));
+        assertEquals(0, index.voyagesOn(-1).length);
+    }
+
+    private static SortedSet<Integer> ids(RouteIndex index, int route) {
+        Voyage[] list = index.voyagesOn(route);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < index.count(route); i++) ids.add(list[i].getId());
+        assertEquals(new ArrayList<>(new TreeSet<>(ids)), ids, "IDs of route " + route + " are not sorted");
+        return new TreeSet<>(ids);
+    }
+}
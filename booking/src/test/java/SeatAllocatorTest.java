@@ -0,0 +1,123 @@
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the choices of a {@link SeatAllocator} against a direct search over every row, on random occupancy with
+ * sold and held seats.
+ */
+class SeatAllocatorTest {
+    private static final int[][] BLOCKS = {null, null, {0b11}, {0b001, 0b110}, {0b0011, 0b1100}};
+    private static final int[] WINDOW_COLUMNS = {0, 0, 0b01, 0b101, 0b1001};
+    private static final int[] AISLE_COLUMNS = {0, 0, 0b10, 0b011, 0b0110};
+
+    @Test
+    void prefersAdjacentSeatsInALaterRowOverSeatsSplitByTheAisle() {
+        SeatMap seats = new SeatMap(8);
+        seats.set(0);
+        seats.set(3);
+        SeatAllocator allocator = new SeatAllocator(seats, null, 2, 4, 0);
+        int[] result = new int[2];
+
+        assertTrue(allocator.allocate(2, 0, result));
+        assertArrayEquals(new int[] {4, 5}, result);
+        assertTrue(allocator.allocate(1, SeatAllocator.AISLE, result));
+        assertEquals(1, result[0]);
+    }
+
+    @Test
+    void skipsHeldSeats() {
+        SeatMap seats = new SeatMap(6);
+        SeatMap held = new SeatMap(6);
+        held.set(0);
+        held.set(3);
+        SeatAllocator allocator = new SeatAllocator(seats, held, 2, 3, 0b001);
+        int[] result = new int[1];
+
+        assertFalse(allocator.allocate(1, SeatAllocator.PREMIUM, result));
+        held.clear(3);
+        allocator.update(3);
+        assertTrue(allocator.allocate(1, SeatAllocator.PREMIUM, result));
+        assertEquals(3, result[0]);
+    }
+
+    @Test
+    void matchesADirectSearchOnRandomOccupancy() {
+        Random random = new Random(22);
+        for (int voyage = 0; voyage < 2000; voyage++) {
+            int columns = 2 + random.nextInt(3);
+            int rows = 1 + random.nextInt(40);
+            int premium = columns == 3 ? 0b001 : 0;
+            SeatMap seats = new SeatMap(rows * columns);
+            SeatMap held = new SeatMap(rows * columns);
+            SeatAllocator allocator = new SeatAllocator(seats, held, rows, columns, premium);
+            for (int step = 0; step < 60; step++) {
+                int seat = random.nextInt(rows * columns);
+                if (held.isOccupied(seat)) held.clear(seat);
+                else if (random.nextInt(4) == 0 && !seats.isOccupied(seat)) held.set(seat);
+                else seats.flip(seat);
+                allocator.update(seat);
+
+                int count = 1 + random.nextInt(6);
+                int preferences = random.nextInt(16);
+                int[] result = new int[count];
+                boolean found = allocator.allocate(count, preferences, result);
+                int[] expected = search(seats, held, rows, columns, premium, count, preferences);
+                String request = count + " seats with preferences " + preferences + " in " + rows + "x" + columns;
+                assertEquals(expected != null, found, request);
+                if (found) assertArrayEquals(expected, result, request);
+            }
+        }
+    }
+
+    /**
+     * Picks seats the way the allocator promises to: the first run of adjacent seats in one block, then the first
+     * row with enough seats, then the first free seats.
+     */
+    private static int[] search(SeatMap seats, SeatMap held, int rows, int columns, int premium, int count, int preferences) {
+        int eligible = (1 << columns) - 1;
+        if ((preferences & SeatAllocator.WINDOW) != 0) eligible &= WINDOW_COLUMNS[columns];
+        if ((preferences & SeatAllocator.AISLE) != 0) eligible &= AISLE_COLUMNS[columns];
+        if ((preferences & SeatAllocator.PREMIUM) != 0) eligible &= premium;
+        if ((preferences & SeatAllocator.REGULAR) != 0) eligible &= ~premium;
+        if (eligible == 0) return null;
+
+        if (count <= columns) {
+            for (int row = 0; row < rows; row++) {
+                for (int first = 0; first + count <= columns; first++) {
+                    boolean good = true;
+                    for (int column = first; column < first + count; column++) {
+                        boolean sameBlock = false;
+                        for (int block : BLOCKS[columns]) {
+                            if ((block >> first & 1) != 0 && (block >> column & 1) != 0) sameBlock = true;
+                        }
+                        if (!sameBlock || (eligible >> column & 1) == 0 || !isFree(seats, held, row * columns + column)) good = false;
+                    }
+                    if (good) {
+                        int[] result = new int[count];
+                        for (int i = 0; i < count; i++) result[i] = row * columns + first + i;
+                        return result;
+                    }
+                }
+            }
+            for (int row = 0; row < rows; row++) {
+                List<Integer> free = new ArrayList<>();
+                for (int column = 0; column < columns; column++) {
+                    if ((eligible >> column & 1) != 0 && isFree(seats, held, row * columns + column)) free.add(row * columns + column);
+                }
+                if (free.size() >= count) return free.subList(0, count).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+        List<Integer> free = new ArrayList<>();
+        for (int seat = 0; seat < rows * columns && free.size() < count; seat++) {
+            if ((eligible >> (seat % columns) & 1) != 0 && isFree(seats, held, seat)) free.add(seat);
+        }
+        return free.size() == count ? free.stream().mapToInt(Integer::intValue).toArray() : null;
+    }
+
+    private static boolean isFree(SeatMap seats, SeatMap held, int seat) {
+        return !seats.isOccupied(seat) && !held.isOccupied(seat);
+    }
+}
@@ -0,0 +1,110 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+import org.junit.jupiter.params.*;
+import org.junit.jupiter.params.provider.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that a {@link Snapshot} restores the voyages, seats, counters and revenue it captured, alone and together
+ * with the part of the {@link Journal} written after it, and that a damaged snapshot is rejected.
+ */
+class SnapshotTest {
+    private static final String[] HISTORY = {
+            "INIT_VOYAGE\tStandard\t1\tAnkara\tİstanbul\t20\t100\t10",
+            "INIT_VOYAGE\tPremium\t2\tİzmir\tAnkara\t2\t50\t20\t40",
+            "INIT_VOYAGE\tMinibus\t7\tBursa\tAnkara\t2\t30",
+            "SELL_TICKET\t1\t1_64_65_80",
+            "SELL_TICKET\t2\t1_5",
+            "REFUND_TICKET\t2\t5",
+            "SELL_TICKET\t7\t3",
+    };
+
+    @TempDir
+    Path temp;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "--journal", "--snapshot-every=2"})
+    void restoresTheStateOfTheFirstRun(String option) throws Exception {
+        Path output = temp.resolve("output.txt");
+        String[] first = {resource("first.txt"), temp.resolve("first.out").toString(), "--snapshot=" + temp.resolve("snapshot.bin")};
+        String[] second = {resource("second.txt"), output.toString(), "--snapshot=" + temp.resolve("snapshot.bin")};
+        if (!option.isEmpty()) {
+            String extra = option.equals("--journal") ? option + "=" + temp.resolve("journal.bin") : option;
+            first = append(first, extra);
+            second = append(second, extra);
+        }
+        BookingSystem.main(first);
+        BookingSystem.main(second);
+
+        assertEquals(read(Paths.get(resource("second.expected.txt"))), read(output));
+    }
+
+    @Test
+    void roundTripKeepsSeatsCountersAndRevenue() throws Exception {
+        Path path = temp.resolve("snapshot.bin");
+        StringWriter originalText = new StringWriter();
+        CommandExecuter original = executer(originalText);
+        for (String command : HISTORY) original.executeCommand(command);
+        Snapshot.capture(original.transportManager, 42).writeTo(path);
+
+        StringWriter restoredText = new StringWriter();
+        CommandExecuter restored = executer(restoredText);
+        assertEquals(42, Snapshot.load(path, restored.transportManager));
+        assertEquals(summary(original, originalText), summary(restored, restoredText));
+    }
+
+    @Test
+    void rejectsACorruptSnapshot() throws Exception {
+        Path path = temp.resolve("snapshot.bin");
+        CommandExecuter original = executer(new StringWriter());
+        for (String command : HISTORY) original.executeCommand(command);
+        Snapshot.capture(original.transportManager, 0).writeTo(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer word = ByteBuffer.allocate(1);
+            channel.read(word, 40);
+            word.put(0, (byte) (word.get(0) ^ 1)).rewind();
+            channel.write(word, 40);
+        }
+
+        assertThrows(IOException.class, () -> Snapshot.load(path, executer(new StringWriter()).transportManager));
+    }
+
+    /**
+     * Returns what the commands that read the state report about it: availability, search and the Z report.
+     */
+    private static String summary(CommandExecuter executer, StringWriter text) {
+        executer.out.flush();
+        text.getBuffer().setLength(0);
+        for (String command : new String[] {"AVAILABILITY", "AVAILABILITY\t1", "AVAILABILITY\t2", "FIND_VOYAGES\tAnkara\tİstanbul", "Z_REPORT"}) {
+            executer.executeCommand(command);
+        }
+        executer.out.flush();
+        return text.toString();
+    }
+
+    private static CommandExecuter executer(Writer text) {
+        return new CommandExecuter(new ReportWriter(text));
+    }
+
+    private static String[] append(String[] args, String arg) {
+        String[] extended = new String[args.length + 1];
+        System.arraycopy(args, 0, extended, 0, args.length);
+        extended[args.length] = arg;
+        return extended;
+    }
+
+    private static String resource(String name) throws Exception {
+        return Paths.get(SnapshotTest.class.getResource("/snapshot/" + name).toURI()).toString();
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}
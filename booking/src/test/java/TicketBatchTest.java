@@ -0,0 +1,64 @@
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the parsing of a {@link TicketBatch} and the marks it keeps for the seats its operations change.
+ */
+class TicketBatchTest {
+    @Test
+    void parsesTheOperationsOfABatchCommand() {
+        CommandParser parser = new CommandParser();
+        parser.reset("BATCH\tSELL_TICKET\t1\t1_2\tREFUND_TICKET\t7\t3");
+        TicketBatch batch = new TicketBatch();
+        batch.parse(parser, 1);
+
+        assertEquals(2, batch.size());
+        assertEquals(TicketBatch.SELL, batch.getKind(0));
+        assertEquals(1, batch.getVoyageId(0));
+        assertArrayEquals(new int[] {0, 1}, Arrays.copyOfRange(batch.getSeats(), batch.getSeatStart(0), batch.getSeatEnd(0)));
+        assertEquals(TicketBatch.REFUND, batch.getKind(1));
+        assertEquals(7, batch.getVoyageId(1));
+        assertArrayEquals(new int[] {2}, Arrays.copyOfRange(batch.getSeats(), batch.getSeatStart(1), batch.getSeatEnd(1)));
+    }
+
+    @Test
+    void rejectsMalformedOperations() {
+        CommandParser parser = new CommandParser();
+        TicketBatch batch = new TicketBatch();
+        for (String command : new String[] {"BATCH", "BATCH\tSELL_TICKET\t1", "BATCH\tFOO\t1\t1"}) {
+            parser.reset(command);
+            assertThrows(IllegalArgumentException.class, () -> batch.parse(parser, 1), command);
+        }
+    }
+
+    @Test
+    void marksSeatsChangedAnOddNumberOfTimes() {
+        TicketBatch batch = new TicketBatch();
+        Map<Long, Boolean> expected = new HashMap<>();
+        Random random = new Random(25);
+        for (int round = 0; round < 50; round++) {
+            int flips = random.nextInt(500);
+            for (int i = 0; i < flips; i++) {
+                int voyageId = 1 + random.nextInt(20);
+                int seat = random.nextInt(100);
+                batch.flipChanged(voyageId, seat);
+                expected.merge(((long) voyageId << 32) | seat, true, (was, flip) -> !was);
+            }
+            for (int voyageId = 1; voyageId <= 20; voyageId++) {
+                for (int seat = 0; seat < 100; seat++) {
+                    boolean changed = expected.getOrDefault(((long) voyageId << 32) | seat, false);
+                    assertEquals(changed, batch.isChanged(voyageId, seat), "voyage " + voyageId + " seat " + seat);
+                }
+            }
+
+            batch.clearChanged();
+            expected.clear();
+            for (int voyageId = 1; voyageId <= 20; voyageId++) {
+                for (int seat = 0; seat < 100; seat++) assertFalse(batch.isChanged(voyageId, seat));
+            }
+        }
+    }
+}
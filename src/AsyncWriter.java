@@ -0,0 +1,189 @@
+import java.io.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * The {@code AsyncWriter} class moves the writing of the report onto a thread of its own, so that encoding and
+ * disk I/O overlap with command execution. Text written to it is copied into a bounded ring of chunks, which a
+ * dedicated writer thread drains into the target writer.
+ * <p>
+ * The ring has exactly one producer, the thread that writes to this writer, and one consumer, the writer thread.
+ * Each side only ever advances its own sequence number, so the hand-over needs no lock: a chunk is published by
+ * advancing the tail and released by advancing the head. When the ring is full, the producer parks until the
+ * writer thread frees a chunk, which keeps memory bounded when the disk is slower than execution. When it is
+ * empty, the writer thread parks until the next chunk is published.
+ * <p>
+ * {@link #flush()} does not wait: it publishes the partly filled chunk and asks the writer thread to flush the
+ * target once it gets there. {@link #close()} waits until everything is written and closes the target. A failure
+ * of the target is reported by the next call on the producer side.
+ */
+public class AsyncWriter extends Writer {
+    public static final int DEFAULT_CHUNK_COUNT = 16;
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+    private static final int FLUSH = -1;
+
+    private final Writer target;
+    private final char[][] chunks;
+    private final int[] lengths;
+    private final int mask;
+    private final Thread writerThread;
+    private int filled;
+
+    private volatile long head;
+    private volatile long tail;
+    private volatile boolean closed;
+    private volatile boolean writerWaiting;
+    private volatile Thread waitingProducer;
+    private volatile Throwable failure;
+
+    /**
+     * Constructs an asynchronous writer with the default ring size.
+     *
+     * @param target The writer that receives the text on the writer thread.
+     */
+    public AsyncWriter(Writer target) {
+        this(target, DEFAULT_CHUNK_COUNT, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs an asynchronous writer and starts its writer thread.
+     *
+     * @param target The writer that receives the text on the writer thread.
+     * @param chunkCount Number of chunks in the ring, a power of two.
+     * @param chunkSize Number of characters per chunk.
+     */
+    public AsyncWriter(Writer target, int chunkCount, int chunkSize) {
+        if (chunkCount < 1 || Integer.bitCount(chunkCount) != 1) throw new IllegalArgumentException("Chunk count must be a power of two");
+        if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be positive");
+        this.target = target;
+        this.chunks = new char[chunkCount][chunkSize];
+        this.lengths = new int[chunkCount];
+        this.mask = chunkCount - 1;
+        this.writerThread = new Thread(this::drain, "booking-output");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Copies characters into the ring, waiting for the writer thread whenever the ring is full.
+     */
+    public void write(char[] chars, int offset, int length) throws IOException {
+        checkOpen();
+        while (length > 0) {
+            if (tail - head == chunks.length) awaitFreeChunk();
+            char[] chunk = chunks[(int) tail & mask];
+            int count = Math.min(length, chunk.length - filled);
+            System.arraycopy(chars, offset, chunk, filled, count);
+            filled += count;
+            offset += count;
+            length -= count;
+            if (filled == chunk.length) publish(filled);
+        }
+    }
+
+    /**
+     * Publishes the written text and asks the writer thread to flush the target after writing it.
+     */
+    public void flush() throws IOException {
+        checkOpen();
+        if (filled > 0) publish(filled);
+        if (tail - head == chunks.length) awaitFreeChunk();
+        publish(FLUSH);
+    }
+
+    /**
+     * Waits until the writer thread has written everything and closes the target.
+     */
+    public void close() throws IOException {
+        if (closed) return;
+        try {
+            if (failure == null && filled > 0) publish(filled);
+        } finally {
+            closed = true;
+            LockSupport.unpark(writerThread);
+        }
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        try {
+            checkFailure();
+        } finally {
+            target.close();
+        }
+    }
+
+    /**
+     * Hands the chunk at the tail to the writer thread, waking it up if it is waiting.
+     *
+     * @param length Number of characters in the chunk, or {@link #FLUSH} for a flush request.
+     */
+    private void publish(int length) {
+        lengths[(int) tail & mask] = length;
+        tail = tail + 1;
+        filled = 0;
+        if (writerWaiting) LockSupport.unpark(writerThread);
+    }
+
+    /**
+     * Parks the producer until the writer thread frees a chunk.
+     */
+    private void awaitFreeChunk() throws IOException {
+        waitingProducer = Thread.currentThread();
+        try {
+            while (tail - head == chunks.length) {
+                checkFailure();
+                if (Thread.interrupted()) throw new InterruptedIOException("Interrupted while waiting for the output");
+                LockSupport.park(this);
+            }
+        } finally {
+            waitingProducer = null;
+        }
+    }
+
+    /**
+     * Writes every published chunk to the target until the writer is closed. Runs on the writer thread.
+     */
+    private void drain() {
+        try {
+            while (true) {
+                long next = head;
+                if (next == tail) {
+                    if (closed && next == tail) return;
+                    writerWaiting = true;
+                    if (next == tail && !closed) LockSupport.park(this);
+                    writerWaiting = false;
+                    continue;
+                }
+                int slot = (int) next & mask;
+                int length = lengths[slot];
+                if (length == FLUSH) target.flush();
+                else target.write(chunks[slot], 0, length);
+                head = next + 1;
+                Thread producer = waitingProducer;
+                if (producer != null) LockSupport.unpark(producer);
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            failure = e;
+            Thread producer = waitingProducer;
+            if (producer != null) LockSupport.unpark(producer);
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) throw new IOException("Writer is closed");
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable cause = failure;
+        if (cause == null) return;
+        if (cause instanceof IOException) throw new IOException("Output failed", cause);
+        if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+        throw (Error) cause;
+    }
+}
@@ -0,0 +1,235 @@
+import java.lang.invoke.*;
+import java.util.*;
+
+/**
+ * The {@code AtomicSeatMap} class is a thread-safe {@link SeatMap} whose 64-bit words are updated with
+ * compare-and-set through a {@link VarHandle}, so that sales and refunds on the same voyage never block.
+ * <p>
+ * Every word holds 32 seats in its low half and a reservation bit for each of them in its high half.
+ * {@link #trySetAll(int[], int)} and {@link #tryClearAll(int[], int)} change a group of seats all or nothing:
+ * seats that share a word are changed with a single compare-and-set, and a group spanning several words first
+ * reserves its seats word by word in ascending order, then commits every word. A request that finds one of its
+ * seats reserved waits until the reservation is committed or released, so no request ever acts on a half-applied
+ * one; a failed reservation releases only its own reservation bits and never touches a seat.
+ */
+public class AtomicSeatMap {
+    private static final int WORD_SHIFT = 5;
+    private static final int SEAT_BITS = (1 << WORD_SHIFT) - 1;
+    private static final int RESERVED_SHIFT = 1 << WORD_SHIFT;
+    private static final long SEAT_MASK = (1L << RESERVED_SHIFT) - 1;
+    private static final int MAX_SPINS = 64;
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int capacity;
+    private final long[] words;
+
+    /**
+     * Constructs an empty seat map.
+     *
+     * @param capacity Total number of seats.
+     */
+    public AtomicSeatMap(int capacity) {
+        this.capacity = capacity;
+        this.words = new long[(capacity + SEAT_BITS) >>> WORD_SHIFT];
+    }
+
+    public int getCapacity() { return this.capacity; }
+
+    /**
+     * Checks if a seat index lies within the map.
+     *
+     * @param seat Linear index of the seat.
+     * @return true if the index is in range, false otherwise.
+     */
+    public boolean contains(int seat) {
+        return seat >= 0 && seat < capacity;
+    }
+
+    /**
+     * Checks if a seat is occupied.
+     *
+     * @param seat Linear index of the seat.
+     * @return true if the seat is occupied, false if it is empty.
+     */
+    public boolean isOccupied(int seat) {
+        return ((long) WORDS.getAcquire(words, seat >>> WORD_SHIFT) & (1L << (seat & SEAT_BITS))) != 0;
+    }
+
+    /**
+     * Marks every listed seat as occupied if all of them are empty, otherwise changes nothing.
+     *
+     * @param seats Array whose first entries are the seat indexes, all within the map.
+     * @param count Number of seats in {@code seats}.
+     * @return true if the seats were claimed, false if one of them was occupied or listed twice.
+     */
+    public boolean trySetAll(int[] seats, int count) {
+        return tryChangeAll(seats, count, true);
+    }
+
+    /**
+     * Marks every listed seat as empty if all of them are occupied, otherwise changes nothing.
+     *
+     * @param seats Array whose first entries are the seat indexes, all within the map.
+     * @param count Number of seats in {@code seats}.
+     * @return true if the seats were released, false if one of them was empty or listed twice.
+     */
+    public boolean tryClearAll(int[] seats, int count) {
+        return tryChangeAll(seats, count, false);
+    }
+
+    /**
+     * Counts the occupied seats. The count is exact only while no request is in flight.
+     *
+     * @return Number of occupied seats.
+     */
+    public int occupiedCount() {
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            count += Long.bitCount((long) WORDS.getAcquire(words, i) & SEAT_MASK);
+        }
+        return count;
+    }
+
+    /**
+     * Changes the seats in a single compare-and-set when they share a word, and otherwise reserves the words in
+     * ascending order before committing any of them, so that two requests never wait for each other.
+     */
+    private boolean tryChangeAll(int[] seats, int count, boolean occupy) {
+        if (count == 0) return true;
+        int word = seats[0] >>> WORD_SHIFT;
+        if (isSingleWord(seats, count, word)) {
+            long mask = wordMask(seats, 0, count, word);
+            return mask != 0 && tryChangeWord(word, mask, occupy);
+        }
+
+        int[] order = new int[count];
+        int wordCount = 0;
+        for (int i = 0; i < count; i++) {
+            word = seats[i] >>> WORD_SHIFT;
+            if (!isWordSeenBefore(seats, i, word)) order[wordCount++] = word;
+        }
+        Arrays.sort(order, 0, wordCount);
+        long[] masks = new long[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            masks[i] = wordMask(seats, 0, count, order[i]);
+            if (masks[i] == 0) return false;
+        }
+
+        for (int i = 0; i < wordCount; i++) {
+            if (!tryReserveWord(order[i], masks[i], occupy)) {
+                for (int j = 0; j < i; j++) replaceBits(order[j], masks[j] << RESERVED_SHIFT, 0);
+                return false;
+            }
+        }
+        for (int i = 0; i < wordCount; i++) {
+            long reserved = masks[i] << RESERVED_SHIFT;
+            if (occupy) replaceBits(order[i], reserved, masks[i]);
+            else replaceBits(order[i], reserved | masks[i], 0);
+        }
+        return true;
+    }
+
+    /**
+     * Applies a mask to a word if none of its seats is already in the target state, waiting while any of them
+     * is reserved.
+     */
+    private boolean tryChangeWord(int word, long mask, boolean occupy) {
+        long current = (long) WORDS.getVolatile(words, word);
+        while (true) {
+            if ((current & mask << RESERVED_SHIFT) != 0) {
+                current = awaitReleased(word, mask << RESERVED_SHIFT);
+                continue;
+            }
+            long expected = occupy ? 0 : mask;
+            if ((current & mask) != expected) return false;
+            long next = occupy ? current | mask : current & ~mask;
+            long witness = (long) WORDS.compareAndExchange(words, word, current, next);
+            if (witness == current) return true;
+            current = witness;
+        }
+    }
+
+    /**
+     * Reserves the seats of a mask if none of them is already in the target state, waiting while any of them is
+     * reserved by another request. The seats themselves are left unchanged.
+     */
+    private boolean tryReserveWord(int word, long mask, boolean occupy) {
+        long reserved = mask << RESERVED_SHIFT;
+        long current = (long) WORDS.getVolatile(words, word);
+        while (true) {
+            if ((current & reserved) != 0) {
+                current = awaitReleased(word, reserved);
+                continue;
+            }
+            long expected = occupy ? 0 : mask;
+            if ((current & mask) != expected) return false;
+            long witness = (long) WORDS.compareAndExchange(words, word, current, current | reserved);
+            if (witness == current) return true;
+            current = witness;
+        }
+    }
+
+    /**
+     * Waits until none of the given reservation bits of a word is set, spinning briefly and then yielding so that
+     * a preempted request can finish.
+     *
+     * @return The value of the word once the bits are clear.
+     */
+    private long awaitReleased(int word, long reserved) {
+        for (int spins = 0; ; spins++) {
+            long current = (long) WORDS.getVolatile(words, word);
+            if ((current & reserved) == 0) return current;
+            if (spins < MAX_SPINS) Thread.onSpinWait();
+            else Thread.yield();
+        }
+    }
+
+    /**
+     * Clears and then sets bits of a word with compare-and-set. Only called on bits the caller has reserved, so
+     * no other request changes them in between.
+     */
+    private void replaceBits(int word, long clear, long set) {
+        long current = (long) WORDS.getVolatile(words, word);
+        while (true) {
+            long witness = (long) WORDS.compareAndExchange(words, word, current, (current & ~clear) | set);
+            if (witness == current) return;
+            current = witness;
+        }
+    }
+
+    /**
+     * Checks if every seat lies in the given word.
+     */
+    private static boolean isSingleWord(int[] seats, int count, int word) {
+        for (int i = 1; i < count; i++) {
+            if (seats[i] >>> WORD_SHIFT != word) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a seat before index {@code index} lies in the given word.
+     */
+    private static boolean isWordSeenBefore(int[] seats, int index, int word) {
+        for (int i = 0; i < index; i++) {
+            if (seats[i] >>> WORD_SHIFT == word) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Builds the mask of the seats from index {@code from} on that lie in the given word.
+     *
+     * @return The mask, or 0 if a seat is listed twice.
+     */
+    private static long wordMask(int[] seats, int from, int count, int word) {
+        long mask = 0;
+        for (int i = from; i < count; i++) {
+            if (seats[i] >>> WORD_SHIFT != word) continue;
+            long bit = 1L << (seats[i] & SEAT_BITS);
+            if ((mask & bit) != 0) return 0;
+            mask |= bit;
+        }
+        return mask;
+    }
+}
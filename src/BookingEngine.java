@@ -0,0 +1,15 @@
+/**
+ * The {@code BookingEngine} interface is the common surface of the thread-safe voyage managers,
+ * {@link ConcurrentVoyageManager} and {@link LockFreeVoyageManager}. Every method may be called from any thread
+ * and reports its outcome as a {@link BookingResult} instead of printing it.
+ */
+public interface BookingEngine {
+    BookingResult sellTickets(int id, int[] seats);
+    BookingResult refundTickets(int id, int[] seats);
+    BookingResult addStandardVoyage(int id, String departure, String arrival, int row_count, long seat_price, int refundCut);
+    BookingResult addPremiumVoyage(int id, String departure, String arrival, int row_count, long seat_price, int refundCut, int premiumFee);
+    BookingResult addMinibusVoyage(int id, String departure, String arrival, int row_count, long seat_price);
+    long getRevenue(int id);
+    int getSoldSeatCount(int id);
+    boolean isSeatSold(int id, int seat);
+}
@@ -0,0 +1,45 @@
+/**
+ * The {@code BookingResult} class is the outcome of an operation on a {@link ConcurrentVoyageManager}.
+ * Instead of printing, the concurrent manager hands back the message that {@link VoyageManager} would have
+ * printed, together with whether the operation took effect and the amount of money it moved.
+ */
+public final class BookingResult {
+    private final boolean successful;
+    private final String message;
+    private final long amount;
+
+    private BookingResult(boolean successful, String message, long amount) {
+        this.successful = successful;
+        this.message = message;
+        this.amount = amount;
+    }
+
+    /**
+     * Creates the result of an operation that took effect.
+     *
+     * @param message The message describing the outcome.
+     * @param amount The amount of money charged or refunded, in millionths of a lira (see {@link Money}).
+     * @return The result.
+     */
+    public static BookingResult success(String message, long amount) {
+        return new BookingResult(true, message, amount);
+    }
+
+    /**
+     * Creates the result of an operation that was rejected and changed nothing.
+     *
+     * @param message The error message.
+     * @return The result.
+     */
+    public static BookingResult failure(String message) {
+        return new BookingResult(false, message, 0);
+    }
+
+    public boolean isSuccessful() { return this.successful; }
+    public String getMessage() { return this.message; }
+    public long getAmount() { return this.amount; }
+
+    public String toString() {
+        return this.message;
+    }
+}
@@ -1,192 +1,145 @@
 import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
 
 /**
- * The {@code CommandExecuter} class interprets and executes commands related to managing voyages.
- * It acts as a controller that delegates commands to a {@link VoyageManager}.
+ * Entry point. Usage: {@code java BookingSystem <input file> <output file> [options]}
+ * <p>
+ * Either file may be {@code -} to stream from standard input or to standard output, so the system can sit in a
+ * pipeline. Streamed output is flushed after every {@code Z_REPORT} and ends each line, including the last one,
+ * with a line break, so a consumer reading line by line sees every report as soon as it is complete. Streaming
+ * cannot be combined with {@code --shards}.
+ * <p>
+ * Input and output are UTF-8 whatever the platform's default charset is, so every input mode reads a file the same way.
+ * <p>
+ * Options:
+ * <ul>
+ * <li>{@code --shards=N} executes the commands with a {@link ShardedCommandExecuter} on N threads;
+ * the output is the same either way.</li>
+ * <li>{@code --journal=FILE} replays the {@link Journal} in FILE before the first command and records every
+ * successful change in it, so the voyages survive between runs. Cannot be combined with {@code --shards}.</li>
+ * <li>{@code --fsync=never|group|always} selects the journal's {@link Journal.FsyncPolicy}, {@code group} by default.</li>
+ * <li>{@code --snapshot=FILE} restores the voyages from the {@link Snapshot} in FILE before the first command, replaying
+ * only the part of the journal written after it, and writes a new snapshot at the end. Cannot be combined with
+ * {@code --shards}.</li>
+ * <li>{@code --snapshot-every=N} also writes a snapshot in the background every N commands.</li>
+ * <li>{@code --input=buffered|mapped} selects how the input file is read: line by line through a
+ * {@link BufferedReader} (the default), or straight out of a memory mapping with a {@link MappedLineReader}.
+ * Mapped input cannot be combined with {@code --shards} or with standard input.</li>
+ * <li>{@code --flush-every=N} also flushes the output every N commands.</li>
+ * <li>{@code --compiled-cache=DIR} replays the input as a {@link CommandProgram}, compiling it into DIR first
+ * unless DIR already holds the program of a file with the same content. Cannot be combined with {@code --shards}
+ * or with standard input.</li>
+ * <li>{@code --output=direct|async} selects whether the output is encoded and written on the thread that executes
+ * the commands (the default) or handed to a separate writer thread through an {@link AsyncWriter}.</li>
+ * </ul>
  */
-class CommandExecuter {
-    protected VoyageManager transportManager = new VoyageManager();
-
-    /**
-     * Executes the command to add a new voyage based on the specified parameters.
-     * Supports adding minibuses, standard buses, and premium buses.
-     * @param tokens Array of strings containing command tokens.
-     */
-    private void addVoyageCommand(String[] tokens){
-        try{
-            switch (tokens[1]) {
-                case "Minibus":
-                    if(tokens.length != 7) throw new Exception("Invalid number of arguments");
-                    transportManager.addMinibusVoyage(Integer.parseInt(tokens[2]), tokens[3], tokens[4], Integer.parseInt(tokens[5]), Float.parseFloat(tokens[6]));
-                    break;
-                case "Standard":
-                    if(tokens.length != 8) throw new Exception("Invalid number of arguments");
-                    transportManager.addStandardVoyage(Integer.parseInt(tokens[2]), tokens[3], tokens[4], Integer.parseInt(tokens[5]), Float.parseFloat(tokens[6]), Integer.parseInt(tokens[7]));
-                    break;
-                case "Premium":
-                    if(tokens.length != 9) throw new Exception("Invalid number of arguments");
-                    transportManager.addPremiumVoyage(Integer.parseInt(tokens[2]), tokens[3], tokens[4], Integer.parseInt(tokens[5]), Float.parseFloat(tokens[6]), Integer.parseInt(tokens[7]), Integer.parseInt(tokens[8]));
-                    break;
-                default:
-                    throw new Exception("Invalid vehicle type");
-            }
-        }catch(Exception e){
-            System.out.println(ErrorMessages.getErrorgousUsageString(tokens[0]));
+public class BookingSystem{
+    public static void main(String[] args) throws Exception{
+        int shards = 0;
+        String journalPath = null;
+        String snapshotPath = null;
+        int snapshotEvery = 0;
+        boolean mappedInput = false;
+        int flushEvery = 0;
+        boolean asyncOutput = false;
+        String compiledCache = null;
+        Journal.FsyncPolicy fsync = Journal.FsyncPolicy.GROUP;
+        for (int i = 2; i < args.length; i++){
+            String value = args[i].substring(args[i].indexOf('=') + 1);
+            if (args[i].startsWith("--shards=")) shards = Integer.parseInt(value);
+            else if (args[i].startsWith("--journal=")) journalPath = value;
+            else if (args[i].startsWith("--fsync=")) fsync = Journal.FsyncPolicy.valueOf(value.toUpperCase(Locale.ROOT));
+            else if (args[i].startsWith("--snapshot=")) snapshotPath = value;
+            else if (args[i].startsWith("--snapshot-every=")) snapshotEvery = Integer.parseInt(value);
+            else if (args[i].equals("--input=mapped")) mappedInput = true;
+            else if (args[i].equals("--input=buffered")) mappedInput = false;
+            else if (args[i].startsWith("--flush-every=")) flushEvery = Integer.parseInt(value);
+            else if (args[i].equals("--output=async")) asyncOutput = true;
+            else if (args[i].equals("--output=direct")) asyncOutput = false;
+            else if (args[i].startsWith("--compiled-cache=")) compiledCache = value;
+            else throw new IllegalArgumentException("Unknown option " + args[i]);
         }
-    }
+        if (shards > 0 && journalPath != null) throw new IllegalArgumentException("--journal cannot be combined with --shards");
+        if (shards > 0 && snapshotPath != null) throw new IllegalArgumentException("--snapshot cannot be combined with --shards");
+        if (shards > 0 && mappedInput) throw new IllegalArgumentException("--input=mapped cannot be combined with --shards");
+        if (snapshotEvery > 0 && snapshotPath == null) throw new IllegalArgumentException("--snapshot-every requires --snapshot");
+        boolean streamedInput = args[0].equals("-");
+        boolean streamedOutput = args[1].equals("-");
+        if (shards > 0 && (streamedInput || streamedOutput || flushEvery > 0)) throw new IllegalArgumentException("Streaming cannot be combined with --shards");
+        if (streamedInput && mappedInput) throw new IllegalArgumentException("--input=mapped cannot read standard input");
+        if (compiledCache != null && (shards > 0 || streamedInput)) throw new IllegalArgumentException("--compiled-cache needs an input file and cannot be combined with --shards");
+
+        // Buffered report writer to the output file, flushed only when its buffer fills up or on close;
+        // the last newline character is left out of the file, but not out of a stream
+        Writer sink = new OutputStreamWriter(streamedOutput ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(args[1]), StandardCharsets.UTF_8);
+        if (asyncOutput) sink = new AsyncWriter(sink);
+        ReportWriter out = streamedOutput
+                ? new ReportWriter(sink)
+                : new ReportWriter(sink, ReportWriter.DEFAULT_FLUSH_THRESHOLD, true);
 
-    /**
-     * Executes the command to cancel a voyage based on the specified voyage ID.
-     * @param tokens Array of strings containing command tokens.
-     */
-    private void cancelVoyageCommand(String[] tokens){
-        try{
-            if (tokens.length != 2) throw new Exception("Invalid number of arguments");
-            transportManager.cancelVoyage(Integer.parseInt(tokens[1]));
-        }
-        catch(Exception e){
-            System.out.println(ErrorMessages.getErrorgousUsageString(tokens[0]));
-        }
-    }
-    
-    /**
-     * Executes the command to sell tickets for a specified voyage and seats.
-     * @param tokens Array of strings containing command tokens.
-     */
-    private void sellTicketCommand(String[] tokens){
-        try{
-            if (tokens.length != 3) throw new Exception("Invalid number of arguments");
-            String[] seats = tokens[2].split("_");
-            int[] seatNumbers = new int[seats.length];
-            for(int i = 0; i < seats.length; i++){
-                seatNumbers[i] = Integer.parseInt(seats[i]) - 1;
+        // Read file line by line from args[0]
+        CommandProgram program = compiledCache != null ? CommandProgram.cached(Paths.get(args[0]), Paths.get(compiledCache)) : null;
+        MappedLineReader mapped = mappedInput && program == null ? new MappedLineReader(Paths.get(args[0])) : null;
+        BufferedReader br = mappedInput || program != null ? null : new BufferedReader(streamedInput ? new InputStreamReader(System.in, StandardCharsets.UTF_8) : new FileReader(args[0], StandardCharsets.UTF_8));
+        if (shards > 0){
+            new ShardedCommandExecuter(out, shards).execute(br);
+        } else {
+            CommandExecuter commandExecuter = new CommandExecuter(out);
+            VoyageManager manager = commandExecuter.transportManager;
+            long journalOffset = 0;
+            if (snapshotPath != null && Files.exists(Paths.get(snapshotPath))){
+                journalOffset = Snapshot.load(Paths.get(snapshotPath), manager);
             }
-            transportManager.sellTickets(Integer.parseInt(tokens[1]), seatNumbers);
-        }catch(Exception e){
-            System.out.println(ErrorMessages.getErrorgousUsageString(tokens[0]));
-        }
-    }
-
-    /**
-     * Executes the command to refund tickets for a specified voyage and seats.
-     * @param tokens Array of strings containing command tokens.
-     */
-    private void refundTicketCommand(String[] tokens){
-        try{
-            if (tokens.length != 3) throw new Exception("Invalid number of arguments");
-            String[] seats = tokens[2].split("_");
-            int[] seatNumbers = new int[seats.length];
-            for(int i = 0; i < seats.length; i++){
-                seatNumbers[i] = Integer.parseInt(seats[i]) - 1;
+            Journal journal = null;
+            if (journalPath != null){
+                journal = Journal.open(Paths.get(journalPath), fsync, manager, journalOffset);
+                manager.setJournal(journal);
+            }
+            SnapshotWriter snapshots = snapshotPath == null ? null : new SnapshotWriter(Paths.get(snapshotPath), journal);
+            boolean lastWasZReport = false;
+            CharSequence line;
+            int commandCount = 0;
+            while(true){
+                if (program != null){
+                    if (!program.executeNext(commandExecuter)) break;
+                    lastWasZReport = program.lastWasZReport();
+                } else {
+                    line = mapped != null ? mapped.readLine() : readTrimmedLine(br);
+                    if (line == null) break;
+                    if(line.length() == 0) continue;
+                    commandExecuter.executeCommand(line);
+                    lastWasZReport = "Z_REPORT".contentEquals(line);
+                }
+                commandCount++;
+                if ((streamedOutput && lastWasZReport) || (flushEvery > 0 && commandCount % flushEvery == 0)) out.flush();
+                if (snapshotEvery > 0 && commandCount % snapshotEvery == 0) snapshots.trySnapshot(manager);
             }
-            transportManager.refundTickets(Integer.parseInt(tokens[1]), seatNumbers);
-        }catch(Exception e){
-            System.out.println(ErrorMessages.getErrorgousUsageString(tokens[0]));
-        }
-    }
 
-    /**
-     * Executes the command to generate a Z report, which prints details and layout of all voyages.
-     */
-    protected void zReportCommand(String[] tokens){
-        try{
-            if (tokens.length != 1) throw new Exception("Invalid number of arguments");
-            transportManager.zReport();
-        }catch(Exception e){
-            System.out.println(ErrorMessages.getErrorgousUsageString("Z_REPORT"));
+            // Check if the last command was not Z_REPORT
+            if(!lastWasZReport){
+                commandExecuter.zReportCommand();
+            }
+            if (snapshots != null){
+                snapshots.snapshot(manager);
+                snapshots.close();
+            }
+            if (journal != null) journal.close();
         }
-    }
 
-    /**
-     * Executes the command to print the layout and details of a specific voyage.
-     * @param tokens Array of strings containing command tokens.
-     */
-    private void printVoyageCommand(String[] tokens){
-        try{
-            if (tokens.length != 2) throw new Exception("Invalid number of arguments");
-            transportManager.printVoyage(Integer.parseInt(tokens[1]));
-        }catch(Exception e){
-            System.out.println(ErrorMessages.getErrorgousUsageString(tokens[0]));
-        }
+        // Close the files
+        if (mapped != null) mapped.close();
+        if (br != null) br.close();
+        out.close();
     }
 
     /**
-     * Decodes and routes the command to the appropriate method.
-     * @param command A string representing the command to execute.
+     * Reads the next line of a reader and trims it.
+     * @return the trimmed line, or {@code null} at the end of the input
      */
-    public void executeCommand(String command){
-        System.out.println(InfoMessages.getCommandMessageString(command));
-
-        String tokens[] = command.split("\t");
-        switch (tokens[0]) {
-            case "INIT_VOYAGE":
-                addVoyageCommand(tokens);
-                break;
-            case "CANCEL_VOYAGE":
-                cancelVoyageCommand(tokens);
-                break;
-            case "SELL_TICKET":
-                sellTicketCommand(tokens);
-                break;
-            case "REFUND_TICKET":
-                refundTicketCommand(tokens);
-                break;
-            case "Z_REPORT":
-                zReportCommand(tokens);
-                break;
-            case "PRINT_VOYAGE":
-                printVoyageCommand(tokens);
-                break;
-            default:
-                System.out.println(ErrorMessages.getThereIsNoCommandString(tokens[0]));
-                break;
-        }
+    private static String readTrimmedLine(BufferedReader br) throws IOException{
+        String line = br.readLine();
+        return line == null ? null : line.trim();
     }
 }
-
-
-public class BookingSystem{
-    public static void main(String[] args) throws Exception{
-        // Original print stream
-        PrintStream originalOut = System.out;
-        // Change print stream to file
-        System.setOut(new PrintStream(new FileOutputStream(args[1])));
-
-        CommandExecuter commandExecuter = new CommandExecuter();
-
-        // Read file line by line from args[0]
-        BufferedReader br = new BufferedReader(new FileReader(args[0]));
-        String prevLine = "";
-        String line;        
-        while((line = br.readLine()) != null){
-            line = line.trim();
-            if(line.length() == 0) continue;
-            commandExecuter.executeCommand(line);
-            prevLine = line;
-        }
-
-        // Check if the last command was not Z_REPORT
-        if(!prevLine.equals("Z_REPORT")){
-            commandExecuter.zReportCommand(new String[]{"Z_REPORT"});
-        }
-
-        // Close the file
-        br.close();
-
-        // Reset print stream
-        System.setOut(originalOut);
-        
-        // Remove the last newline character from the file
-        try (RandomAccessFile f = new RandomAccessFile(args[1], "rw")) {
-            long length = f.length();
-            if (length == 0) return; // Check if the file is empty.
-
-            f.seek(length - 1); // Start checking from the last byte.
-            if (f.readByte() == 10) { // Check if the last byte is a newline.
-                f.setLength(length - 1); // Remove last byte if it's a newline.
-            }
-        } catch (Exception e) {
-            System.out.println("An error occurred.");
-        }
-    }
-}
\ No newline at end of file
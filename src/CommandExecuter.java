@@ -0,0 +1,229 @@
+/**
+ * The {@code CommandExecuter} class interprets and executes commands related to managing voyages.
+ * It acts as a controller that delegates commands to a {@link VoyageManager}.
+ */
+class CommandExecuter {
+    protected final ReportWriter out;
+    protected VoyageManager transportManager;
+    private final CommandParser parser = new CommandParser();
+    private final TicketBatch batch = new TicketBatch();
+
+    /**
+     * Constructs a command executer whose echoes and results are written to the given report writer.
+     * @param out Report writer shared with the underlying {@link VoyageManager}.
+     */
+    public CommandExecuter(ReportWriter out){
+        this.out = out;
+        this.transportManager = new VoyageManager(out);
+    }
+
+    /**
+     * Executes the command to add a new voyage based on the specified parameters.
+     * Supports adding minibuses, standard buses, and premium buses.
+     */
+    private void addVoyageCommand(){
+        try{
+            switch (parser.getToken(1)) {
+                case "Minibus":
+                    if(parser.getTokenCount() != 7) throw new Exception("Invalid number of arguments");
+                    transportManager.addMinibusVoyage(parser.parseInt(2), parser.getToken(3), parser.getToken(4), parser.parseInt(5), parser.parseMoney(6));
+                    break;
+                case "Standard":
+                    if(parser.getTokenCount() != 8) throw new Exception("Invalid number of arguments");
+                    transportManager.addStandardVoyage(parser.parseInt(2), parser.getToken(3), parser.getToken(4), parser.parseInt(5), parser.parseMoney(6), parser.parseInt(7));
+                    break;
+                case "Premium":
+                    if(parser.getTokenCount() != 9) throw new Exception("Invalid number of arguments");
+                    transportManager.addPremiumVoyage(parser.parseInt(2), parser.getToken(3), parser.getToken(4), parser.parseInt(5), parser.parseMoney(6), parser.parseInt(7), parser.parseInt(8));
+                    break;
+                default:
+                    throw new Exception("Invalid vehicle type");
+            }
+        }catch(Exception e){
+            out.println(ErrorMessages.appendErrorgousUsage(out.line(), parser.getToken(0)));
+        }
+    }
+
+    /**
+     * Executes the command to cancel a voyage based on the specified voyage ID.
+     */
+    private void cancelVoyageCommand(){
+        try{
+            if (parser.getTokenCount() != 2) throw new Exception("Invalid number of arguments");
+            transportManager.cancelVoyage(parser.parseInt(1));
+        }
+        catch(Exception e){
+            out.println(ErrorMessages.appendErrorgousUsage(out.line(), parser.getToken(0)));
+        }
+    }
+    
+    /**
+     * Executes the command to sell tickets for a specified voyage and seats.
+     * Seat numbers are parsed into the parser's reusable seat buffer.
+     */
+    private void sellTicketCommand(){
+        try{
+            if (parser.getTokenCount() != 3) throw new Exception("Invalid number of arguments");
+            int seatCount = parser.parseSeats(2);
+            transportManager.sellTickets(parser.parseInt(1), parser.getSeatBuffer(), seatCount);
+        }catch(Exception e){
+            out.println(ErrorMessages.appendErrorgousUsage(out.line(), parser.getToken(0)));
+        }
+    }
+
+    /**
+     * Executes the command to refund tickets for a specified voyage and seats.
+     * Seat numbers are parsed into the parser's reusable seat buffer.
+     */
+    private void refundTicketCommand(){
+        try{
+            if (parser.getTokenCount() != 3) throw new Exception("Invalid number of arguments");
+            int seatCount = parser.parseSeats(2);
+            transportManager.refundTickets(parser.parseInt(1), parser.getSeatBuffer(), seatCount);
+        }catch(Exception e){
+            out.println(ErrorMessages.appendErrorgousUsage(out.line(), parser.getToken(0)));
+        }
+    }
+
+    /**
+     * Executes the command to put seats of a voyage on hold for a number of commands.
+     * Seat numbers are parsed into the parser's reusable seat buffer.
+     */
+    private void holdSeatsCommand(){
+        try{
+            if (parser.getTokenCount() != 4) throw new Exception("Invalid number of arguments");
+            int seatCount = parser.parseSeats(2);
+            transportManager.holdSeats(parser.parseInt(1), parser.getSeatBuffer(), seatCount, parser.parseInt(3));
+        }catch(Exception e){
+            out.println(ErrorMessages.appendErrorgousUsage(out.line(), parser.getToken(0)));
+        }
+    }
+
+    /**
+     * Executes a batch of ticket sales and refunds, possibly on several voyages, as one atomic transaction.
+     * The operations follow the {@code BATCH} token as {@code SELL_TICKET} or {@code REFUND_TICKET}, voyage ID and seats.
+     */
+    private void batchCommand(){
+        try{
+            batch.parse(parser, 1);
+        }catch(Exception e){
+            out.println(ErrorMessages.appendErrorgousUsage(out.line(), parser.getToken(0)));
+            return;
+        }
+        transportManager.commitBatch(batch);
+    }
+
+    /**
+     * Executes the command to sell a number of seats picked by the voyage's seat allocator,
+     * optionally restricted by preferences such as {@code window_premium}.
+     */
+    private void allocateSeatsCommand(){
+        try{
+            int tokenCount = parser.getTokenCount();
+            if (tokenCount != 3 && tokenCount != 4) throw new Exception("Invalid number of arguments");
+            int preferences = tokenCount == 4 ? SeatAllocator.parsePreferences(parser.getToken(3)) : 0;
+            transportManager.allocateSeats(parser.parseInt(1), parser.parseInt(2), preferences);
+        }catch(Exception e){
+            out.println(ErrorMessages.appendErrorgousUsage(out.line(), parser.getToken(0)));
+        }
+    }
+
+    /**
+     * Executes the command to list the voyages from one city to another.
+     */
+    private void findVoyagesCommand(){
+        try{
+            if (parser.getTokenCount() != 3) throw new Exception("Invalid number of arguments");
+            transportManager.findVoyages(parser.getToken(1), parser.getToken(2));
+        }catch(Exception e){
+            out.println(ErrorMessages.appendErrorgousUsage(out.line(), parser.getToken(0)));
+        }
+    }
+
+    /**
+     * Executes the command to report the available seats of one voyage, or of all voyages if no ID is given.
+     */
+    private void availabilityCommand(){
+        try{
+            if (parser.getTokenCount() == 1) transportManager.availability();
+            else if (parser.getTokenCount() == 2) transportManager.availability(parser.parseInt(1));
+            else throw new Exception("Invalid number of arguments");
+        }catch(Exception e){
+            out.println(ErrorMessages.appendErrorgousUsage(out.line(), parser.getToken(0)));
+        }
+    }
+
+    /**
+     * Executes the command to generate a Z report, which prints details and layout of all voyages.
+     */
+    protected void zReportCommand(){
+        transportManager.zReport();
+    }
+
+    /**
+     * Executes the command to print the layout and details of a specific voyage.
+     */
+    private void printVoyageCommand(){
+        try{
+            if (parser.getTokenCount() != 2) throw new Exception("Invalid number of arguments");
+            transportManager.printVoyage(parser.parseInt(1));
+        }catch(Exception e){
+            out.println(ErrorMessages.appendErrorgousUsage(out.line(), parser.getToken(0)));
+        }
+    }
+
+    /**
+     * Decodes and routes the command to the appropriate method, after advancing the hold clock by one command.
+     * @param command The trimmed command line to execute; only read during this call.
+     */
+    public void executeCommand(CharSequence command){
+        transportManager.tick();
+        execute(command);
+    }
+
+    /**
+     * Decodes and routes the command to the appropriate method, after advancing the hold clock to the number of the
+     * command in the whole input. Used by shards, which only execute some of the commands.
+     * @param command The trimmed command line to execute; only read during this call.
+     * @param time The number of the command in the input, counted from 1.
+     */
+    public void executeCommand(CharSequence command, long time){
+        transportManager.advanceClock(time);
+        execute(command);
+    }
+
+    /**
+     * Echoes the command and runs it.
+     */
+    private void execute(CharSequence command){
+        out.println(InfoMessages.appendCommandMessage(out.line(), command));
+
+        parser.reset(command);
+        if (parser.tokenEquals(0, "INIT_VOYAGE")) {
+            addVoyageCommand();
+        } else if (parser.tokenEquals(0, "CANCEL_VOYAGE")) {
+            cancelVoyageCommand();
+        } else if (parser.tokenEquals(0, "SELL_TICKET")) {
+            sellTicketCommand();
+        } else if (parser.tokenEquals(0, "REFUND_TICKET")) {
+            refundTicketCommand();
+        } else if (parser.tokenEquals(0, "Z_REPORT")) {
+            if (parser.getTokenCount() != 1) out.println(ErrorMessages.appendErrorgousUsage(out.line(), "Z_REPORT"));
+            else zReportCommand();
+        } else if (parser.tokenEquals(0, "PRINT_VOYAGE")) {
+            printVoyageCommand();
+        } else if (parser.tokenEquals(0, "FIND_VOYAGES")) {
+            findVoyagesCommand();
+        } else if (parser.tokenEquals(0, "ALLOCATE_SEATS")) {
+            allocateSeatsCommand();
+        } else if (parser.tokenEquals(0, "AVAILABILITY")) {
+            availabilityCommand();
+        } else if (parser.tokenEquals(0, "HOLD_SEATS")) {
+            holdSeatsCommand();
+        } else if (parser.tokenEquals(0, "BATCH")) {
+            batchCommand();
+        } else {
+            out.println(ErrorMessages.appendThereIsNoCommand(out.line(), parser.getToken(0)));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+import java.util.*;
+
+/**
+ * The {@code CommandParser} class splits a tab separated command line into tokens in place.
+ * Instead of creating a {@link String} per token, it records the start and end offset of each token
+ * and parses numbers directly from the characters of the line. A single parser is meant to be reused
+ * for every command, so the token offsets and the seat buffer are allocated once and only grow.
+ * Tokenization follows {@code line.split("\t")}, and integer parsing follows {@link Integer#parseInt(String)},
+ * falling back to it for any input outside the plain decimal fast path.
+ */
+public class CommandParser {
+    private static final int MAX_FAST_MONEY_DIGITS = 12;
+
+    private CharSequence line = "";
+    private int[] tokenStarts = new int[16];
+    private int[] tokenEnds = new int[16];
+    private int tokenCount;
+    private int[] seatBuffer = new int[16];
+
+    /**
+     * Scans a new command line and records the position of its tokens.
+     * As with {@link String#split(String)}, trailing empty tokens are dropped.
+     *
+     * @param line The command line to tokenize.
+     */
+    public void reset(CharSequence line) {
+        this.line = line;
+        this.tokenCount = 0;
+        int length = line.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(i) == '\t') {
+                addToken(start, i);
+                start = i + 1;
+            }
+        }
+        addToken(start, length);
+        while (tokenCount > 0 && tokenStarts[tokenCount - 1] == tokenEnds[tokenCount - 1]) {
+            tokenCount--;
+        }
+        if (tokenCount == 0 && length == 0) tokenCount = 1;
+    }
+
+    public int getTokenCount() { return this.tokenCount; }
+    public CharSequence getLine() { return this.line; }
+    public int[] getSeatBuffer() { return this.seatBuffer; }
+
+    /**
+     * Checks if a token equals the given text without materializing the token.
+     *
+     * @param index Index of the token.
+     * @param text The text to compare against.
+     * @return true if the token exists and matches the text, false otherwise.
+     */
+    public boolean tokenEquals(int index, String text) {
+        if (index >= tokenCount) return false;
+        int start = tokenStarts[index];
+        int length = tokenEnds[index] - start;
+        if (length != text.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(start + i) != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a token as a string. Meant for the few places that keep the text, such as city names and error messages.
+     *
+     * @param index Index of the token.
+     * @return The token text.
+     * @throws IndexOutOfBoundsException if there is no such token.
+     */
+    public String getToken(int index) {
+        checkToken(index);
+        return line.subSequence(tokenStarts[index], tokenEnds[index]).toString();
+    }
+
+    /**
+     * Parses a token as an integer.
+     *
+     * @param index Index of the token.
+     * @return The parsed value.
+     * @throws IndexOutOfBoundsException if there is no such token.
+     * @throws NumberFormatException if the token is not a valid integer.
+     */
+    public int parseInt(int index) {
+        checkToken(index);
+        return parseInt(tokenStarts[index], tokenEnds[index]);
+    }
+
+    /**
+     * Parses a decimal token as an amount of money in millionths of a lira (see {@link Money}).
+     * Plain decimals are parsed in place; anything else, such as exponents or more than six decimals,
+     * goes through {@link Money#parse(String)}.
+     *
+     * @param index Index of the token.
+     * @return The parsed amount.
+     * @throws IndexOutOfBoundsException if there is no such token.
+     * @throws NumberFormatException if the token is not a valid decimal number.
+     * @throws ArithmeticException if the amount does not fit into a {@code long}.
+     */
+    public long parseMoney(int index) {
+        checkToken(index);
+        int start = tokenStarts[index];
+        int end = tokenEnds[index];
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            if (c < '0' || c > '9' || digits == MAX_FAST_MONEY_DIGITS || scale == Money.SCALE) {
+                return Money.parse(line.subSequence(start, end).toString());
+            }
+            value = value * 10 + (c - '0');
+            digits++;
+            if (scale >= 0) scale++;
+        }
+        if (digits == 0) return Money.parse(line.subSequence(start, end).toString());
+        for (int s = Math.max(scale, 0); s < Money.SCALE; s++) value *= 10;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses an underscore separated list of seat numbers into the reusable seat buffer.
+     * Seat numbers are converted to zero-based linear indexes. As with {@link String#split(String)},
+     * trailing empty entries are dropped while empty entries in the middle are rejected.
+     *
+     * @param index Index of the token.
+     * @return Number of seats written to {@link #getSeatBuffer()}.
+     * @throws IndexOutOfBoundsException if there is no such token.
+     * @throws NumberFormatException if a seat number is not a valid integer.
+     */
+    public int parseSeats(int index) {
+        checkToken(index);
+        int start = tokenStarts[index];
+        int end = tokenEnds[index];
+        boolean hasSeparator = false;
+        while (end > start && line.charAt(end - 1) == '_') {
+            end--;
+            hasSeparator = true;
+        }
+        if (end == start && hasSeparator) return 0;
+        int count = 0;
+        int seatStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || line.charAt(i) == '_') {
+                if (count == seatBuffer.length) seatBuffer = Arrays.copyOf(seatBuffer, count * 2);
+                seatBuffer[count++] = parseInt(seatStart, i) - 1;
+                seatStart = i + 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Parses the characters between two offsets as an integer.
+     */
+    private int parseInt(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > 9) return Integer.parseInt(line, start, end, 10);
+        int value = 0;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') return Integer.parseInt(line, start, end, 10);
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Records a token, growing the offset arrays when needed.
+     */
+    private void addToken(int start, int end) {
+        if (tokenCount == tokenStarts.length) {
+            tokenStarts = Arrays.copyOf(tokenStarts, tokenCount * 2);
+            tokenEnds = Arrays.copyOf(tokenEnds, tokenCount * 2);
+        }
+        tokenStarts[tokenCount] = start;
+        tokenEnds[tokenCount] = end;
+        tokenCount++;
+    }
+
+    /**
+     * Throws if the token index is out of range.
+     */
+    private void checkToken(int index) {
+        if (index < 0 || index >= tokenCount) throw new IndexOutOfBoundsException("No token at index " + index);
+    }
+}
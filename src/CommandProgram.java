@@ -0,0 +1,422 @@
+import java.io.*;
+import java.math.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * The {@code CommandProgram} class is a command file compiled into a compact binary opcode stream, which a small
+ * interpreter replays against a {@link CommandExecuter} without tokenizing or parsing any text.
+ * <p>
+ * Every command compiles to an opcode byte followed by its operands: voyage IDs, rows, seat counts and seat
+ * indexes as zigzag varints, prices as 64-bit amounts, and cities as indexes into a table of interned names at the
+ * start of the program. The replay echoes each command from its operands, so a command is only compiled if that
+ * echo reproduces the original line exactly; anything else, including every line that is not a well-formed
+ * command, is kept as its text and executed as text. The output of a replay is therefore identical to executing
+ * the file line by line.
+ * <p>
+ * The file is little-endian: magic, version, the SHA-256 of the command file it was compiled from, the city
+ * table as length-prefixed UTF-8, the opcodes ending with {@link #END}, and a CRC32C of everything before it.
+ * {@link #cached(Path, Path)} keeps compiled programs in a directory under the hash of their source, so replaying
+ * the same command file again skips the compilation.
+ */
+public final class CommandProgram {
+    private static final int MAGIC = 0x434D4242; // "BBMC"
+    private static final int VERSION = 1;
+    private static final int HASH_SIZE = 32;
+
+    private static final byte END = 0;
+    private static final byte INIT_STANDARD = 1;
+    private static final byte INIT_PREMIUM = 2;
+    private static final byte INIT_MINIBUS = 3;
+    private static final byte SELL = 4;
+    private static final byte REFUND = 5;
+    private static final byte CANCEL = 6;
+    private static final byte PRINT = 7;
+    private static final byte Z_REPORT = 8;
+    private static final byte TEXT = 9;
+
+    private final ByteBuffer code;
+    private final String[] cities;
+    private final StringBuilder text = new StringBuilder(256);
+    private int[] seats = new int[16];
+    private boolean lastWasZReport;
+
+    private CommandProgram(ByteBuffer code, String[] cities) {
+        this.code = code;
+        this.cities = cities;
+    }
+
+    /**
+     * Returns the compiled program of a command file from a cache directory, compiling and storing it first if
+     * the cache has no intact program for the file's current content.
+     *
+     * @param input The command file.
+     * @param cacheDirectory The directory that holds compiled programs, created if missing.
+     * @return The program, positioned at its first command.
+     * @throws IOException if the command file cannot be read or the program cannot be stored.
+     */
+    public static CommandProgram cached(Path input, Path cacheDirectory) throws IOException {
+        byte[] hash = hashOf(input);
+        Path path = cacheDirectory.resolve(toHex(hash) + ".bbmc");
+        if (Files.exists(path)) {
+            try {
+                return load(path, hash);
+            } catch (IOException e) {
+                // A damaged or outdated cache entry is compiled again and replaced.
+            }
+        }
+        ByteBuffer compiled = compile(input, hash);
+        Files.createDirectories(cacheDirectory);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer source = compiled.duplicate();
+            while (source.hasRemaining()) channel.write(source);
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(compiled, path);
+    }
+
+    /**
+     * Compiles a command file.
+     *
+     * @param input The command file, read as UTF-8.
+     * @return The program, positioned at its first command.
+     * @throws IOException if the command file cannot be read.
+     */
+    public static CommandProgram compile(Path input) throws IOException {
+        return open(compile(input, hashOf(input)), input);
+    }
+
+    /**
+     * Loads a compiled program, checking that it was compiled from a file with the given hash.
+     */
+    private static CommandProgram load(Path path, byte[] expectedHash) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Program " + path + " is too large");
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.limit() < 8 + HASH_SIZE + 4 + 1 + 4) throw new IOException("Program " + path + " is truncated");
+        byte[] hash = new byte[HASH_SIZE];
+        buffer.get(8, hash);
+        if (!Arrays.equals(hash, expectedHash)) throw new IOException("Program " + path + " belongs to another command file");
+        return open(buffer, path);
+    }
+
+    /**
+     * Verifies a program and reads its city table.
+     */
+    private static CommandProgram open(ByteBuffer buffer, Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(buffer.limit() - 4));
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) throw new IOException("Program " + path + " is corrupt");
+        if (buffer.getInt(0) != MAGIC) throw new IOException("Not a compiled command program: " + path);
+        int version = buffer.getInt(4);
+        if (version != VERSION) throw new IOException("Unsupported program version " + version);
+
+        ByteBuffer code = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(8 + HASH_SIZE).limit(buffer.limit() - 4);
+        String[] cities = new String[code.getInt()];
+        for (int i = 0; i < cities.length; i++) {
+            byte[] bytes = new byte[getVarint(code)];
+            code.get(bytes);
+            cities[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new CommandProgram(code, cities);
+    }
+
+    /**
+     * Checks if the command executed last was a plain {@code Z_REPORT}.
+     *
+     * @return true if it was, false otherwise.
+     */
+    public boolean lastWasZReport() { return this.lastWasZReport; }
+
+    /**
+     * Executes the next command with the same output as {@link CommandExecuter#executeCommand(CharSequence)}
+     * would produce for its original line.
+     *
+     * @param executer The executer whose voyages and report writer are used.
+     * @return true if a command was executed, false at the end of the program.
+     */
+    public boolean executeNext(CommandExecuter executer) {
+        byte opcode = code.get();
+        if (opcode == END) {
+            code.position(code.position() - 1);
+            return false;
+        }
+        lastWasZReport = opcode == Z_REPORT;
+        if (opcode == TEXT) {
+            byte[] bytes = new byte[getVarint(code)];
+            code.get(bytes);
+            executer.executeCommand(new String(bytes, StandardCharsets.UTF_8));
+            return true;
+        }
+
+        ReportWriter out = executer.out;
+        VoyageManager manager = executer.transportManager;
+        manager.tick();
+        text.setLength(0);
+        switch (opcode) {
+            case INIT_STANDARD: case INIT_PREMIUM: case INIT_MINIBUS: {
+                int id = getVarint(code);
+                String departure = cities[getVarint(code)];
+                String arrival = cities[getVarint(code)];
+                int rows = getVarint(code);
+                long price = code.getLong();
+                int refundCut = opcode == INIT_MINIBUS ? 0 : getVarint(code);
+                int premiumFee = opcode == INIT_PREMIUM ? getVarint(code) : 0;
+                appendInit(text, opcode, id, departure, arrival, rows, price, refundCut, premiumFee);
+                out.println(InfoMessages.appendCommandMessage(out.line(), text));
+                try {
+                    if (opcode == INIT_STANDARD) manager.addStandardVoyage(id, departure, arrival, rows, price, refundCut);
+                    else if (opcode == INIT_PREMIUM) manager.addPremiumVoyage(id, departure, arrival, rows, price, refundCut, premiumFee);
+                    else manager.addMinibusVoyage(id, departure, arrival, rows, price);
+                } catch (Exception e) {
+                    out.println(ErrorMessages.appendErrorgousUsage(out.line(), "INIT_VOYAGE"));
+                }
+                break;
+            }
+            case SELL: case REFUND: {
+                int id = getVarint(code);
+                int count = getVarint(code);
+                if (count > seats.length) seats = new int[Math.max(count, seats.length * 2)];
+                for (int i = 0; i < count; i++) seats[i] = getVarint(code);
+                appendTicket(text, opcode, id, seats, count);
+                out.println(InfoMessages.appendCommandMessage(out.line(), text));
+                try {
+                    if (opcode == SELL) manager.sellTickets(id, seats, count);
+                    else manager.refundTickets(id, seats, count);
+                } catch (Exception e) {
+                    out.println(ErrorMessages.appendErrorgousUsage(out.line(), opcode == SELL ? "SELL_TICKET" : "REFUND_TICKET"));
+                }
+                break;
+            }
+            case CANCEL: case PRINT: {
+                int id = getVarint(code);
+                text.append(opcode == CANCEL ? "CANCEL_VOYAGE" : "PRINT_VOYAGE").append('\t').append(id);
+                out.println(InfoMessages.appendCommandMessage(out.line(), text));
+                try {
+                    if (opcode == CANCEL) manager.cancelVoyage(id);
+                    else manager.printVoyage(id);
+                } catch (Exception e) {
+                    out.println(ErrorMessages.appendErrorgousUsage(out.line(), opcode == CANCEL ? "CANCEL_VOYAGE" : "PRINT_VOYAGE"));
+                }
+                break;
+            }
+            case Z_REPORT:
+                out.println(InfoMessages.appendCommandMessage(out.line(), "Z_REPORT"));
+                manager.zReport();
+                break;
+            default:
+                throw new IllegalStateException("Unknown opcode " + opcode + " at offset " + (code.position() - 1));
+        }
+        return true;
+    }
+
+    /**
+     * Compiles every non-empty, trimmed line of a command file into a program buffer.
+     */
+    private static ByteBuffer compile(Path input, byte[] hash) throws IOException {
+        Map<String, Integer> cityIds = new HashMap<>();
+        List<String> cityNames = new ArrayList<>();
+        ByteArrayOutputStream code = new ByteArrayOutputStream(1 << 16);
+        ByteBuffer scratch = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        CommandParser parser = new CommandParser();
+        StringBuilder canonical = new StringBuilder(256);
+
+        try (MappedLineReader reader = new MappedLineReader(input)) {
+            CharSequence line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() == 0) continue;
+                if (!compileCommand(line, parser, canonical, code, scratch, cityIds, cityNames)) {
+                    byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+                    code.write(TEXT);
+                    putVarint(code, bytes.length);
+                    code.write(bytes, 0, bytes.length);
+                }
+            }
+        }
+        code.write(END);
+
+        ByteArrayOutputStream program = new ByteArrayOutputStream(code.size() + 1024);
+        ByteBuffer header = ByteBuffer.allocate(8 + HASH_SIZE + 4).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).put(hash).putInt(cityNames.size());
+        program.write(header.array(), 0, header.position());
+        for (String city : cityNames) {
+            byte[] bytes = city.getBytes(StandardCharsets.UTF_8);
+            putVarint(program, bytes.length);
+            program.write(bytes, 0, bytes.length);
+        }
+        code.writeTo(program);
+        if (program.size() > Integer.MAX_VALUE - 4) throw new IOException("Compiled program of " + input + " is too large");
+
+        byte[] bytes = program.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(bytes).putInt((int) crc.getValue()).flip();
+        return buffer;
+    }
+
+    /**
+     * Compiles a well-formed command whose echo can be reproduced from its operands. Nothing is written unless
+     * the command compiles.
+     *
+     * @return true if the command was compiled, false if it has to be kept as text.
+     */
+    private static boolean compileCommand(CharSequence line, CommandParser parser, StringBuilder canonical, ByteArrayOutputStream code,
+                                          ByteBuffer scratch, Map<String, Integer> cityIds, List<String> cityNames) {
+        parser.reset(line);
+        canonical.setLength(0);
+        try {
+            if (parser.tokenEquals(0, "SELL_TICKET") || parser.tokenEquals(0, "REFUND_TICKET")) {
+                if (parser.getTokenCount() != 3) return false;
+                byte opcode = parser.tokenEquals(0, "SELL_TICKET") ? SELL : REFUND;
+                int count = parser.parseSeats(2);
+                int id = parser.parseInt(1);
+                appendTicket(canonical, opcode, id, parser.getSeatBuffer(), count);
+                if (!contentEquals(canonical, line)) return false;
+                code.write(opcode);
+                putVarint(code, id);
+                putVarint(code, count);
+                for (int i = 0; i < count; i++) putVarint(code, parser.getSeatBuffer()[i]);
+            } else if (parser.tokenEquals(0, "CANCEL_VOYAGE") || parser.tokenEquals(0, "PRINT_VOYAGE")) {
+                if (parser.getTokenCount() != 2) return false;
+                byte opcode = parser.tokenEquals(0, "CANCEL_VOYAGE") ? CANCEL : PRINT;
+                int id = parser.parseInt(1);
+                canonical.append(opcode == CANCEL ? "CANCEL_VOYAGE" : "PRINT_VOYAGE").append('\t').append(id);
+                if (!contentEquals(canonical, line)) return false;
+                code.write(opcode);
+                putVarint(code, id);
+            } else if (parser.tokenEquals(0, "Z_REPORT")) {
+                if (!"Z_REPORT".contentEquals(line)) return false;
+                code.write(Z_REPORT);
+            } else if (parser.tokenEquals(0, "INIT_VOYAGE")) {
+                byte opcode;
+                if (parser.tokenEquals(1, "Standard") && parser.getTokenCount() == 8) opcode = INIT_STANDARD;
+                else if (parser.tokenEquals(1, "Premium") && parser.getTokenCount() == 9) opcode = INIT_PREMIUM;
+                else if (parser.tokenEquals(1, "Minibus") && parser.getTokenCount() == 7) opcode = INIT_MINIBUS;
+                else return false;
+                int id = parser.parseInt(2);
+                String departure = parser.getToken(3);
+                String arrival = parser.getToken(4);
+                int rows = parser.parseInt(5);
+                long price = parser.parseMoney(6);
+                int refundCut = opcode == INIT_MINIBUS ? 0 : parser.parseInt(7);
+                int premiumFee = opcode == INIT_PREMIUM ? parser.parseInt(8) : 0;
+                appendInit(canonical, opcode, id, departure, arrival, rows, price, refundCut, premiumFee);
+                if (!contentEquals(canonical, line)) return false;
+                code.write(opcode);
+                putVarint(code, id);
+                putVarint(code, cityId(departure, cityIds, cityNames));
+                putVarint(code, cityId(arrival, cityIds, cityNames));
+                putVarint(code, rows);
+                scratch.clear();
+                code.write(scratch.putLong(price).array(), 0, 8);
+                if (opcode != INIT_MINIBUS) putVarint(code, refundCut);
+                if (opcode == INIT_PREMIUM) putVarint(code, premiumFee);
+            } else {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Appends the text of a sell or refund command with zero-based seats.
+     */
+    private static void appendTicket(StringBuilder sb, byte opcode, int id, int[] seats, int count) {
+        sb.append(opcode == SELL ? "SELL_TICKET" : "REFUND_TICKET").append('\t').append(id).append('\t');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append('_');
+            sb.append(seats[i] + 1);
+        }
+    }
+
+    /**
+     * Appends the text of a voyage initialization command, with the price in its shortest plain decimal form.
+     */
+    private static void appendInit(StringBuilder sb, byte opcode, int id, String departure, String arrival, int rows,
+                                   long price, int refundCut, int premiumFee) {
+        sb.append("INIT_VOYAGE\t").append(opcode == INIT_STANDARD ? "Standard" : opcode == INIT_PREMIUM ? "Premium" : "Minibus");
+        sb.append('\t').append(id).append('\t').append(departure).append('\t').append(arrival).append('\t').append(rows);
+        sb.append('\t').append(BigDecimal.valueOf(price, Money.SCALE).stripTrailingZeros().toPlainString());
+        if (opcode != INIT_MINIBUS) sb.append('\t').append(refundCut);
+        if (opcode == INIT_PREMIUM) sb.append('\t').append(premiumFee);
+    }
+
+    private static int cityId(String city, Map<String, Integer> cityIds, List<String> cityNames) {
+        Integer id = cityIds.get(city);
+        if (id == null) {
+            id = cityNames.size();
+            cityIds.put(city, id);
+            cityNames.add(city);
+        }
+        return id;
+    }
+
+    private static boolean contentEquals(StringBuilder canonical, CharSequence line) {
+        if (canonical.length() != line.length()) return false;
+        for (int i = 0; i < canonical.length(); i++) {
+            if (canonical.charAt(i) != line.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes an int as a zigzag-encoded little-endian base-128 varint.
+     */
+    private static void putVarint(ByteArrayOutputStream stream, int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            stream.write((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        stream.write(zigzag);
+    }
+
+    /**
+     * Reads an int written by {@link #putVarint(ByteArrayOutputStream, int)}.
+     */
+    private static int getVarint(ByteBuffer buffer) {
+        int zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            zigzag |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static byte[] hashOf(Path input) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (InputStream in = Files.newInputStream(input)) {
+            byte[] buffer = new byte[1 << 16];
+            int count;
+            while ((count = in.read(buffer)) > 0) digest.update(buffer, 0, count);
+        }
+        return digest.digest();
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,225 @@
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ * The {@code ConcurrentVoyageManager} class is a thread-safe variant of {@link VoyageManager} for callers that
+ * sell tickets from many threads at once. Every operation returns a {@link BookingResult} carrying the message
+ * that {@link VoyageManager} would have printed, instead of writing to a report.
+ * <p>
+ * Each voyage is guarded by its own monitor, so sales and refunds on different voyages run in parallel while
+ * those on the same voyage are serialized. A multi-seat sale or refund validates every seat and applies them
+ * all while holding the voyage's lock, so it either takes effect as a whole or not at all. Unlike
+ * {@link VoyageManager}, a seat listed twice in one request is rejected rather than toggled.
+ */
+public class ConcurrentVoyageManager implements BookingEngine {
+    private final ConcurrentHashMap<Integer, Voyage> voyages = new ConcurrentHashMap<>();
+    private final RouteDictionary routes = new RouteDictionary();
+
+    /**
+     * Sells tickets for a specific voyage if the voyage ID and every seat are valid.
+     * @param id the voyage ID
+     * @param seats the zero-based seats to be sold
+     * @return the seats-sold message and the amount charged, or the first error
+     */
+    public BookingResult sellTickets(int id, int[] seats){
+        Voyage voyage = voyages.get(id);
+        if (voyage == null) return voyageNotFound(id);
+
+        synchronized (voyage){
+            if (voyages.get(id) != voyage) return voyageNotFound(id);
+            for(int i = 0; i < seats.length; i++){
+                int seat = seats[i];
+                if(seat < 0) return BookingResult.failure(ErrorMessages.getSeatIdMustPositiveString(seat));
+                if(!voyage.isSeatNumberValid(seat)) return BookingResult.failure(ErrorMessages.NO_SEAT);
+                if(!voyage.isSeatEmpty(seat) || isRepeated(seats, i)) return BookingResult.failure(ErrorMessages.SEAT_ALREADY_SOLD);
+            }
+            long beforeSell = voyage.getRevenue();
+            for(int seat : seats){
+                voyage.sellTicket(seat);
+            }
+            long amount = voyage.getRevenue() - beforeSell;
+            return BookingResult.success(InfoMessages.getSeatsSoldString(seats, id, voyage.getDeparture(), voyage.getArrival(), amount), amount);
+        }
+    }
+
+    /**
+     * Refunds tickets for a specific voyage if the voyage ID and every seat are valid.
+     * @param id the voyage ID
+     * @param seats the zero-based seats to be refunded
+     * @return the seats-refunded message and the amount paid back, or the first error
+     */
+    public BookingResult refundTickets(int id, int[] seats){
+        Voyage voyage = voyages.get(id);
+        if (voyage == null) return voyageNotFound(id);
+
+        synchronized (voyage){
+            if (voyages.get(id) != voyage) return voyageNotFound(id);
+            if (voyage instanceof MiniBus) return BookingResult.failure(ErrorMessages.MINIBUS_TICKETS_NOT_REFUNDABLE);
+            for(int i = 0; i < seats.length; i++){
+                int seat = seats[i];
+                if(seat < 0) return BookingResult.failure(ErrorMessages.getSeatIdMustPositiveString(seat));
+                if(!voyage.isSeatNumberValid(seat)) return BookingResult.failure(ErrorMessages.NO_SEAT);
+                if(voyage.isSeatEmpty(seat) || isRepeated(seats, i)) return BookingResult.failure(ErrorMessages.SEAT_ALREADY_EMPTY);
+            }
+            long beforeRefund = voyage.getRevenue();
+            if (voyage instanceof StandardBus){
+                StandardBus standardBus = (StandardBus) voyage;
+                for(int seat : seats){
+                    standardBus.refundTicket(seat);
+                }
+            }
+            else if (voyage instanceof PremiumBus){
+                PremiumBus premiumBus = (PremiumBus) voyage;
+                for(int seat : seats){
+                    premiumBus.refundTicket(seat);
+                }
+            }
+            long amount = beforeRefund - voyage.getRevenue();
+            return BookingResult.success(InfoMessages.getSeatsRefundedString(seats, id, voyage.getDeparture(), voyage.getArrival(), amount), amount);
+        }
+    }
+
+    /**
+     * Adds a standard bus voyage to the system.
+     * @param id the voyage ID
+     * @param departure the departure location
+     * @param arrival the arrival location
+     * @param row_count the number of rows in the bus
+     * @param seat_price the price per seat
+     * @param refundCut the percentage cut for refunds
+     * @return the initialization message, or the first error
+     */
+    public BookingResult addStandardVoyage(int id, String departure, String arrival, int row_count, long seat_price, int refundCut){
+        if (id <= 0) return BookingResult.failure(ErrorMessages.getVoyageIdMustPositiveString(id));
+        if (row_count < 1) return BookingResult.failure(ErrorMessages.getSeatRowMustPositiveString(row_count));
+        if (seat_price <= 0) return BookingResult.failure(ErrorMessages.getPriceMustPositiveString(seat_price));
+        if (refundCut < 0 || refundCut > 100) return BookingResult.failure(ErrorMessages.getRefundCutMustInRangeString(refundCut));
+        if (voyages.putIfAbsent(id, new StandardBus(id, row_count, routes.intern(departure, arrival), seat_price, refundCut)) != null){
+            return BookingResult.failure(ErrorMessages.getVoyageIdAlreadyUsingString(id));
+        }
+        return BookingResult.success(InfoMessages.getStandardVoyageInitializedString(id, departure, arrival, seat_price, row_count, refundCut), 0);
+    }
+
+    /**
+     * Adds a premium bus voyage to the system.
+     * @param id the voyage ID
+     * @param departure the departure location
+     * @param arrival the arrival location
+     * @param row_count the number of rows in the bus
+     * @param seat_price the price per seat
+     * @param refundCut the percentage cut for refunds
+     * @param premiumFee additional fee for premium seats
+     * @return the initialization message, or the first error
+     */
+    public BookingResult addPremiumVoyage(int id, String departure, String arrival, int row_count, long seat_price, int refundCut, int premiumFee){
+        if (id <= 0) return BookingResult.failure(ErrorMessages.getVoyageIdMustPositiveString(id));
+        if (row_count < 1) return BookingResult.failure(ErrorMessages.getSeatRowMustPositiveString(row_count));
+        if (seat_price <= 0) return BookingResult.failure(ErrorMessages.getPriceMustPositiveString(seat_price));
+        if (refundCut < 0 || refundCut > 100) return BookingResult.failure(ErrorMessages.getRefundCutMustInRangeString(refundCut));
+        if (premiumFee < 0) return BookingResult.failure(ErrorMessages.getPremiumFeeMustNonNegativeString(premiumFee));
+        PremiumBus premiumBus = new PremiumBus(id, row_count, routes.intern(departure, arrival), seat_price, refundCut, premiumFee);
+        if (voyages.putIfAbsent(id, premiumBus) != null){
+            return BookingResult.failure(ErrorMessages.getVoyageIdAlreadyUsingString(id));
+        }
+        return BookingResult.success(InfoMessages.getPremiumVoyageInitializedString(id, departure, arrival, seat_price, row_count, premiumBus.getPremiumPrice(), refundCut), 0);
+    }
+
+    /**
+     * Adds a minibus voyage to the system.
+     * @param id the voyage ID
+     * @param departure the departure location
+     * @param arrival the arrival location
+     * @param row_count the number of rows in the minibus
+     * @param seat_price the price per seat
+     * @return the initialization message, or the first error
+     */
+    public BookingResult addMinibusVoyage(int id, String departure, String arrival, int row_count, long seat_price){
+        if (id <= 0) return BookingResult.failure(ErrorMessages.getVoyageIdMustPositiveString(id));
+        if (row_count < 1) return BookingResult.failure(ErrorMessages.getSeatRowMustPositiveString(row_count));
+        if (seat_price <= 0) return BookingResult.failure(ErrorMessages.getPriceMustPositiveString(seat_price));
+        if (voyages.putIfAbsent(id, new MiniBus(id, row_count, routes.intern(departure, arrival), seat_price)) != null){
+            return BookingResult.failure(ErrorMessages.getVoyageIdAlreadyUsingString(id));
+        }
+        return BookingResult.success(InfoMessages.getMinibusVoyageInitializedString(id, departure, arrival, seat_price, row_count), 0);
+    }
+
+    /**
+     * Cancels a voyage and removes it from the system. Sales that were waiting for the voyage's lock
+     * fail as if the voyage had never existed.
+     * @param id the voyage ID
+     * @return the cancellation details, with the refunded revenue as the amount, or the error
+     */
+    public BookingResult cancelVoyage(int id){
+        Voyage voyage = voyages.get(id);
+        if (voyage == null) return voyageNotFound(id);
+
+        synchronized (voyage){
+            if (!voyages.remove(id, voyage)) return voyageNotFound(id);
+            long revenue = voyage.getRevenue();
+            StringWriter details = new StringWriter();
+            ReportWriter out = new ReportWriter(details, 4096);
+            voyage.processVoyageCancelling(out);
+            out.flush();
+            String message = details.toString();
+            return BookingResult.success(message.substring(0, message.length() - 1), revenue - voyage.getRevenue());
+        }
+    }
+
+    /**
+     * Returns the current revenue of a voyage.
+     * @param id the voyage ID
+     * @return the revenue in millionths of a lira, or 0 if there is no such voyage
+     */
+    public long getRevenue(int id){
+        Voyage voyage = voyages.get(id);
+        if (voyage == null) return 0;
+        synchronized (voyage){
+            return voyage.getRevenue();
+        }
+    }
+
+    /**
+     * Returns the number of sold seats of a voyage.
+     * @param id the voyage ID
+     * @return the number of sold seats, or 0 if there is no such voyage
+     */
+    public int getSoldSeatCount(int id){
+        Voyage voyage = voyages.get(id);
+        if (voyage == null) return 0;
+        synchronized (voyage){
+            return voyage.getSoldSeatCount();
+        }
+    }
+
+    /**
+     * Checks if a seat of a voyage is sold.
+     * @param id the voyage ID
+     * @param seat the zero-based seat
+     * @return {@code true} if the voyage exists and the seat is sold
+     */
+    public boolean isSeatSold(int id, int seat){
+        Voyage voyage = voyages.get(id);
+        if (voyage == null) return false;
+        synchronized (voyage){
+            return voyage.isSeatNumberValid(seat) && !voyage.isSeatEmpty(seat);
+        }
+    }
+
+    /**
+     * Builds the error for an ID that does not name a voyage.
+     */
+    private static BookingResult voyageNotFound(int id){
+        if (id <= 0) return BookingResult.failure(ErrorMessages.getVoyageIdMustPositiveString(id));
+        return BookingResult.failure(ErrorMessages.getNoVoyageWithIdString(id));
+    }
+
+    /**
+     * Checks if the seat at {@code index} already appears earlier in the request.
+     */
+    private static boolean isRepeated(int[] seats, int index){
+        for (int i = 0; i < index; i++){
+            if (seats[i] == seats[index]) return true;
+        }
+        return false;
+    }
+}
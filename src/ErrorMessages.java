@@ -2,6 +2,10 @@
  * The {@code ErrorMessages} class contains constants and methods to handle various error messages
  * used throughout the application. It mainly supports formatting specific error messages
  * related to voyage and seat management commands.
+ * <p>
+ * Every pattern is compiled once into a {@link MessageTemplate}. Each {@code get...String} method has an
+ * {@code append...} counterpart that writes the message into a caller-supplied {@link StringBuilder}
+ * instead of creating a new string.
  */
 public class ErrorMessages {
     public static final String ERROR = "ERROR";
@@ -15,12 +19,34 @@ public class ErrorMessages {
     private static final String SEATID_MUST_POSITIVE = "ERROR: %d is not a positive integer, seat number must be a positive integer!";
     public static final String SEAT_ALREADY_SOLD = "ERROR: One or more seats already sold!";
     public static final String SEAT_ALREADY_EMPTY = "ERROR: One or more seats are already empty!";
+    public static final String SEAT_ON_HOLD = "ERROR: One or more seats are on hold!";
     public static final String SEAT_ROW_MUST_POSITIVE = "ERROR: %d is not a positive integer, number of seat rows of a voyage must be a positive integer!";
     public static final String PRICE_MUST_POSITIVE = "ERROR: %d is not a positive number, price must be a positive number!";
     public static final String REFUND_CUT_MUST_BE_IN_RANGE = "ERROR: %d is not an integer that is in range of [0, 100], refund cut must be an integer that is in range of [0, 100]!";
     public static final String PREMIUM_FEE_MUST_NON_NEGATIVE = "ERROR: %d is not a non-negative integer, premium fee must be a non-negative integer!";
     //ERROR: -1 is not a positive integer, seat number must be a positive integer!
     public static final String INVALID_SEAT_NUMBER = "ERROR: %d is not a positive integer, seat number must be a positive integer!";
+    private static final String SEAT_COUNT_MUST_POSITIVE = "ERROR: %d is not a positive integer, seat count must be a positive integer!";
+    private static final String HOLD_TIME_MUST_POSITIVE = "ERROR: %d is not a positive integer, hold time must be a positive integer!";
+    private static final String BATCH_REJECTED = "ERROR: Operation %d of the batch was rejected, no operation was applied!";
+    private static final String NOT_ENOUGH_SEATS = "ERROR: Voyage %d does not have %d available seats matching the request!";
+
+    private static final MessageTemplate VOYAGEID_MUST_POSITIVE_TEMPLATE = MessageTemplate.compile(VOYAGEID_MUST_POSITIVE);
+    private static final MessageTemplate VOYAGEID_ALREADY_USING_TEMPLATE = MessageTemplate.compile(VOYAGEID_ALREADY_USING);
+    private static final MessageTemplate NO_VOYAGE_WITH_ID_TEMPLATE = MessageTemplate.compile(NO_VOYAGE_WITH_ID);
+    private static final MessageTemplate SEATID_MUST_POSITIVE_TEMPLATE = MessageTemplate.compile(SEATID_MUST_POSITIVE);
+    private static final MessageTemplate ERRORGOUS_USAGE_TEMPLATE = MessageTemplate.compile(ERRORGOUS_USAGE);
+    private static final MessageTemplate INVALID_COMMAND_TEMPLATE = MessageTemplate.compile(INVALID_COMMAND);
+    private static final MessageTemplate SEAT_ROW_MUST_POSITIVE_TEMPLATE = MessageTemplate.compile(SEAT_ROW_MUST_POSITIVE);
+    private static final MessageTemplate PRICE_MUST_POSITIVE_TEMPLATE = MessageTemplate.compile(PRICE_MUST_POSITIVE);
+    private static final MessageTemplate REFUND_CUT_MUST_BE_IN_RANGE_TEMPLATE = MessageTemplate.compile(REFUND_CUT_MUST_BE_IN_RANGE);
+    private static final MessageTemplate PREMIUM_FEE_MUST_NON_NEGATIVE_TEMPLATE = MessageTemplate.compile(PREMIUM_FEE_MUST_NON_NEGATIVE);
+    private static final MessageTemplate INVALID_SEAT_NUMBER_TEMPLATE = MessageTemplate.compile(INVALID_SEAT_NUMBER);
+    private static final MessageTemplate SEAT_COUNT_MUST_POSITIVE_TEMPLATE = MessageTemplate.compile(SEAT_COUNT_MUST_POSITIVE);
+    private static final MessageTemplate HOLD_TIME_MUST_POSITIVE_TEMPLATE = MessageTemplate.compile(HOLD_TIME_MUST_POSITIVE);
+    private static final MessageTemplate BATCH_REJECTED_TEMPLATE = MessageTemplate.compile(BATCH_REJECTED);
+    private static final MessageTemplate NOT_ENOUGH_SEATS_TEMPLATE = MessageTemplate.compile(NOT_ENOUGH_SEATS);
+
     /**
      * Returns an error message that the voyage ID must be a positive integer.
      *
@@ -28,7 +54,18 @@ public class ErrorMessages {
      * @return formatted error string indicating the voyage ID is not positive
      */
     public static String getVoyageIdMustPositiveString(int id) {
-        return String.format(VOYAGEID_MUST_POSITIVE, id);
+        return appendVoyageIdMustPositive(new StringBuilder(), id).toString();
+    }
+
+    /**
+     * Appends an error message that the voyage ID must be a positive integer.
+     *
+     * @param sb the builder to append to
+     * @param id the voyage ID to check
+     * @return the same builder
+     */
+    public static StringBuilder appendVoyageIdMustPositive(StringBuilder sb, int id) {
+        return VOYAGEID_MUST_POSITIVE_TEMPLATE.appendTo(sb).arg(id).end();
     }
 
     /**
@@ -38,7 +75,18 @@ public class ErrorMessages {
      * @return formatted error string indicating the voyage ID is already used
      */
     public static String getVoyageIdAlreadyUsingString(int id) {
-        return String.format(VOYAGEID_ALREADY_USING, id);
+        return appendVoyageIdAlreadyUsing(new StringBuilder(), id).toString();
+    }
+
+    /**
+     * Appends an error message that the voyage ID is already in use.
+     *
+     * @param sb the builder to append to
+     * @param id the voyage ID that is already in use
+     * @return the same builder
+     */
+    public static StringBuilder appendVoyageIdAlreadyUsing(StringBuilder sb, int id) {
+        return VOYAGEID_ALREADY_USING_TEMPLATE.appendTo(sb).arg(id).end();
     }
 
     /**
@@ -48,7 +96,18 @@ public class ErrorMessages {
      * @return formatted error string indicating no voyage is found with the ID
      */
     public static String getNoVoyageWithIdString(int id) {
-        return String.format(NO_VOYAGE_WITH_ID, id);
+        return appendNoVoyageWithId(new StringBuilder(), id).toString();
+    }
+
+    /**
+     * Appends an error message indicating there is no voyage with the given ID.
+     *
+     * @param sb the builder to append to
+     * @param id the ID of the voyage that does not exist
+     * @return the same builder
+     */
+    public static StringBuilder appendNoVoyageWithId(StringBuilder sb, int id) {
+        return NO_VOYAGE_WITH_ID_TEMPLATE.appendTo(sb).arg(id).end();
     }
 
     /**
@@ -58,7 +117,18 @@ public class ErrorMessages {
      * @return formatted error string indicating the seat ID is not positive
      */
     public static String getSeatIdMustPositiveString(int id) {
-        return String.format(SEATID_MUST_POSITIVE, id + 1);
+        return appendSeatIdMustPositive(new StringBuilder(), id).toString();
+    }
+
+    /**
+     * Appends an error message that the seat ID must be a positive integer.
+     *
+     * @param sb the builder to append to
+     * @param id the seat ID to check
+     * @return the same builder
+     */
+    public static StringBuilder appendSeatIdMustPositive(StringBuilder sb, int id) {
+        return SEATID_MUST_POSITIVE_TEMPLATE.appendTo(sb).arg(id + 1).end();
     }
 
     /**
@@ -68,7 +138,18 @@ public class ErrorMessages {
      * @return formatted error string indicating incorrect usage of the command
      */
     public static String getErrorgousUsageString(String command) {
-        return String.format(ERRORGOUS_USAGE, command);
+        return appendErrorgousUsage(new StringBuilder(), command).toString();
+    }
+
+    /**
+     * Appends an error message for erroneous usage of a specified command.
+     *
+     * @param sb the builder to append to
+     * @param command the command that was used incorrectly
+     * @return the same builder
+     */
+    public static StringBuilder appendErrorgousUsage(StringBuilder sb, CharSequence command) {
+        return ERRORGOUS_USAGE_TEMPLATE.appendTo(sb).arg(command).end();
     }
 
     /**
@@ -77,8 +158,19 @@ public class ErrorMessages {
      * @param command the command that is invalid
      * @return formatted error string indicating the command does not exist
      */
-    public static String getThereIsNoCommandString(String command){
-        return String.format(INVALID_COMMAND, command);
+    public static String getThereIsNoCommandString(String command) {
+        return appendThereIsNoCommand(new StringBuilder(), command).toString();
+    }
+
+    /**
+     * Appends an error message stating that the specified command does not exist.
+     *
+     * @param sb the builder to append to
+     * @param command the command that is invalid
+     * @return the same builder
+     */
+    public static StringBuilder appendThereIsNoCommand(StringBuilder sb, CharSequence command) {
+        return INVALID_COMMAND_TEMPLATE.appendTo(sb).arg(command).end();
     }
 
     /**
@@ -88,18 +180,39 @@ public class ErrorMessages {
      * @return formatted error string indicating the number of seat rows is not positive
      */
     public static String getSeatRowMustPositiveString(int row) {
-        return String.format(SEAT_ROW_MUST_POSITIVE, row);
+        return appendSeatRowMustPositive(new StringBuilder(), row).toString();
+    }
+
+    /**
+     * Appends an error message that the number of seat rows must be a positive integer.
+     *
+     * @param sb the builder to append to
+     * @param row the number of seat rows to check
+     * @return the same builder
+     */
+    public static StringBuilder appendSeatRowMustPositive(StringBuilder sb, int row) {
+        return SEAT_ROW_MUST_POSITIVE_TEMPLATE.appendTo(sb).arg(row).end();
     }
 
     /**
      * Returns an error message that the price must be a positive number.
      *
-     * @param price the price to check
+     * @param price the price to check, in millionths of a lira
      * @return formatted error string indicating the price is not positive
      */
-    public static String getPriceMustPositiveString(float price) {
-        int priceInt = (int) price;
-        return String.format(PRICE_MUST_POSITIVE, priceInt);
+    public static String getPriceMustPositiveString(long price) {
+        return appendPriceMustPositive(new StringBuilder(), price).toString();
+    }
+
+    /**
+     * Appends an error message that the price must be a positive number.
+     *
+     * @param sb the builder to append to
+     * @param price the price to check, in millionths of a lira
+     * @return the same builder
+     */
+    public static StringBuilder appendPriceMustPositive(StringBuilder sb, long price) {
+        return PRICE_MUST_POSITIVE_TEMPLATE.appendTo(sb).arg(Money.toUnits(price)).end();
     }
 
     /**
@@ -109,7 +222,18 @@ public class ErrorMessages {
      * @return formatted error string indicating the refund cut is not in range of [0, 100]
      */
     public static String getRefundCutMustInRangeString(int cut) {
-        return String.format(REFUND_CUT_MUST_BE_IN_RANGE, cut);
+        return appendRefundCutMustInRange(new StringBuilder(), cut).toString();
+    }
+
+    /**
+     * Appends an error message that the refund cut must be an integer in range of [0, 100].
+     *
+     * @param sb the builder to append to
+     * @param cut the refund cut to check
+     * @return the same builder
+     */
+    public static StringBuilder appendRefundCutMustInRange(StringBuilder sb, int cut) {
+        return REFUND_CUT_MUST_BE_IN_RANGE_TEMPLATE.appendTo(sb).arg(cut).end();
     }
 
     /**
@@ -119,7 +243,18 @@ public class ErrorMessages {
      * @return formatted error string indicating the premium fee is not non-negative
      */
     public static String getPremiumFeeMustNonNegativeString(int fee) {
-        return String.format(PREMIUM_FEE_MUST_NON_NEGATIVE, fee);
+        return appendPremiumFeeMustNonNegative(new StringBuilder(), fee).toString();
+    }
+
+    /**
+     * Appends an error message that the premium fee must be a non-negative integer.
+     *
+     * @param sb the builder to append to
+     * @param fee the premium fee to check
+     * @return the same builder
+     */
+    public static StringBuilder appendPremiumFeeMustNonNegative(StringBuilder sb, int fee) {
+        return PREMIUM_FEE_MUST_NON_NEGATIVE_TEMPLATE.appendTo(sb).arg(fee).end();
     }
 
     /**
@@ -129,6 +264,103 @@ public class ErrorMessages {
      * @return formatted error string indicating the seat number is not positive
      */
     public static String getInvalidSeatNumberString(int number) {
-        return String.format(INVALID_SEAT_NUMBER, number + 1);
+        return appendInvalidSeatNumber(new StringBuilder(), number).toString();
+    }
+
+    /**
+     * Appends an error message that the seat number must be a positive integer.
+     *
+     * @param sb the builder to append to
+     * @param number the seat number to check
+     * @return the same builder
+     */
+    public static StringBuilder appendInvalidSeatNumber(StringBuilder sb, int number) {
+        return INVALID_SEAT_NUMBER_TEMPLATE.appendTo(sb).arg(number + 1).end();
+    }
+
+    /**
+     * Returns an error message that the seat count must be a positive integer.
+     *
+     * @param count the seat count to check
+     * @return formatted error string indicating the seat count is not positive
+     */
+    public static String getSeatCountMustPositiveString(int count) {
+        return appendSeatCountMustPositive(new StringBuilder(), count).toString();
+    }
+
+    /**
+     * Appends an error message that the seat count must be a positive integer.
+     *
+     * @param sb the builder to append to
+     * @param count the seat count to check
+     * @return the same builder
+     */
+    public static StringBuilder appendSeatCountMustPositive(StringBuilder sb, int count) {
+        return SEAT_COUNT_MUST_POSITIVE_TEMPLATE.appendTo(sb).arg(count).end();
+    }
+
+    /**
+     * Returns an error message that a voyage does not have enough available seats for an allocation.
+     *
+     * @param id the voyage ID
+     * @param count the number of seats requested
+     * @return formatted error string indicating the seats could not be allocated
+     */
+    public static String getNotEnoughSeatsString(int id, int count) {
+        return appendNotEnoughSeats(new StringBuilder(), id, count).toString();
+    }
+
+    /**
+     * Appends an error message that a voyage does not have enough available seats for an allocation.
+     *
+     * @param sb the builder to append to
+     * @param id the voyage ID
+     * @param count the number of seats requested
+     * @return the same builder
+     */
+    public static StringBuilder appendNotEnoughSeats(StringBuilder sb, int id, int count) {
+        return NOT_ENOUGH_SEATS_TEMPLATE.appendTo(sb).arg(id).arg(count).end();
+    }
+
+    /**
+     * Returns an error message that the hold time must be a positive integer.
+     *
+     * @param ttl the hold time to check
+     * @return formatted error string indicating the hold time is not positive
+     */
+    public static String getHoldTimeMustPositiveString(int ttl) {
+        return appendHoldTimeMustPositive(new StringBuilder(), ttl).toString();
+    }
+
+    /**
+     * Appends an error message that the hold time must be a positive integer.
+     *
+     * @param sb the builder to append to
+     * @param ttl the hold time to check
+     * @return the same builder
+     */
+    public static StringBuilder appendHoldTimeMustPositive(StringBuilder sb, int ttl) {
+        return HOLD_TIME_MUST_POSITIVE_TEMPLATE.appendTo(sb).arg(ttl).end();
+    }
+
+    /**
+     * Returns an error message that an operation of a batch failed, so the batch was not applied.
+     *
+     * @param operation the one-based position of the failed operation in the batch
+     * @return formatted error string indicating the batch was rejected
+     */
+    public static String getBatchRejectedString(int operation) {
+        return appendBatchRejected(new StringBuilder(), operation).toString();
+    }
+
+    /**
+     * Appends an error message that an operation of a batch failed, so the batch was not applied.
+     *
+     * @param sb the builder to append to
+     * @param operation the one-based position of the failed operation in the batch
+     * @return the same builder
+     */
+    public static StringBuilder appendBatchRejected(StringBuilder sb, int operation) {
+        return BATCH_REJECTED_TEMPLATE.appendTo(sb).arg(operation).end();
     }
 }
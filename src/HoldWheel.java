@@ -0,0 +1,109 @@
+/**
+ * The {@code HoldWheel} class expires the seat holds of {@code HOLD_SEATS} with a hashed timing wheel. Time is a
+ * logical clock that the {@link VoyageManager} advances once per command, so holds expire at the same command in
+ * every run, however the commands are executed.
+ * <p>
+ * Every hold is kept in the slot of its expiry time modulo the number of slots, in a singly linked list. Advancing
+ * the clock by one tick only visits the holds of one slot, which are mostly the ones that expire, instead of every
+ * hold; a hold whose expiry lies more than one turn of the wheel ahead stays in its slot until its turn comes.
+ * A jump of a whole turn or more visits every slot once.
+ */
+public class HoldWheel {
+    public static final int DEFAULT_SLOT_COUNT = 1 << 12;
+
+    private final Hold[] slots;
+    private final int mask;
+    private long now;
+    private int size;
+
+    /**
+     * A hold on some seats of a voyage, linked into the slot of its expiry time.
+     */
+    private static final class Hold {
+        private final Voyage voyage;
+        private final int[] seats;
+        private final long expiry;
+        private Hold next;
+
+        private Hold(Voyage voyage, int[] seats, long expiry) {
+            this.voyage = voyage;
+            this.seats = seats;
+            this.expiry = expiry;
+        }
+    }
+
+    /**
+     * Constructs a timing wheel with the default number of slots.
+     */
+    public HoldWheel() {
+        this(DEFAULT_SLOT_COUNT);
+    }
+
+    /**
+     * Constructs a timing wheel.
+     *
+     * @param slotCount Number of slots, a power of two.
+     */
+    public HoldWheel(int slotCount) {
+        if (slotCount < 1 || Integer.bitCount(slotCount) != 1) throw new IllegalArgumentException("Slot count must be a power of two");
+        this.slots = new Hold[slotCount];
+        this.mask = slotCount - 1;
+    }
+
+    public long getTime() { return this.now; }
+    public int size() { return this.size; }
+
+    /**
+     * Holds seats of a voyage until the clock reaches the expiry time. The seats must already be marked as held
+     * on the voyage; they are released with {@link Voyage#releaseSeat(int)} when the hold expires.
+     *
+     * @param voyage The voyage of the seats.
+     * @param seats Linear indexes of the held seats; the array is kept.
+     * @param expiry The first time at which the seats are free again, later than the current time.
+     */
+    public void add(Voyage voyage, int[] seats, long expiry) {
+        if (expiry <= now) throw new IllegalArgumentException("Hold expires at " + expiry + ", which is not after " + now);
+        Hold hold = new Hold(voyage, seats, expiry);
+        int slot = (int) expiry & mask;
+        hold.next = slots[slot];
+        slots[slot] = hold;
+        size++;
+    }
+
+    /**
+     * Advances the clock, releasing the seats of every hold that expires at or before the new time.
+     *
+     * @param time The new time; a time that is not later than the current one is ignored.
+     */
+    public void advance(long time) {
+        if (time <= now) return;
+        if (size > 0) {
+            if (time - now >= slots.length) {
+                for (int slot = 0; slot < slots.length; slot++) expire(slot, time);
+            } else {
+                for (long tick = now + 1; tick <= time; tick++) expire((int) tick & mask, time);
+            }
+        }
+        now = time;
+    }
+
+    /**
+     * Releases the holds of a slot that expire at or before the given time.
+     */
+    private void expire(int slot, long time) {
+        Hold previous = null;
+        Hold hold = slots[slot];
+        while (hold != null) {
+            Hold next = hold.next;
+            if (hold.expiry <= time) {
+                for (int seat : hold.seats) hold.voyage.releaseSeat(seat);
+                if (previous == null) slots[slot] = next;
+                else previous.next = next;
+                size--;
+            } else {
+                previous = hold;
+            }
+            hold = next;
+        }
+    }
+}
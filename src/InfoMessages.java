@@ -1,7 +1,11 @@
 /**
  * The {@code InfoMessages} class provides static utility methods to create formatted strings for various informational
  * messages related to voyages. These messages cover a range of functions from voyage initialization, seat sales,
- * to revenue reporting.
+ * to revenue reporting. Amounts of money are passed in millionths of a lira, as described in {@link Money}.
+ * <p>
+ * Every pattern is compiled once into a {@link MessageTemplate}. Each {@code get...String} method has an
+ * {@code append...} counterpart that writes the message into a caller-supplied {@link StringBuilder}
+ * instead of creating a new string.
  */
 public class InfoMessages {
     private static final String VOYAGE_SUCCESFULLY_CANCELLED = "Voyage %d was successfully cancelled!";
@@ -15,9 +19,34 @@ public class InfoMessages {
     private static final String MINIBUS_VOYAGE_INITIALIZED = "Voyage %d was initialized as a minibus (2) voyage from %s to %s with %.2f TL priced %d regular seats. Note that minibus tickets are not refundable.";
     private static final String SEATS_SOLD = "Seat %s of the Voyage %d from %s to %s was successfully sold for %.2f TL.";
     private static final String SEATS_REFUNDED = "Seat %s of the Voyage %d from %s to %s was successfully refunded for %.2f TL.";
+    private static final String SEATS_HELD = "Seat %s of the Voyage %d from %s to %s was successfully held for the next %d commands.";
+    private static final String BATCH_COMMITTED = "Batch of %d operations on %d voyages was successfully committed, %.2f TL sold and %.2f TL refunded.";
+    private static final String VOYAGE_FOUND = "Voyage %d from %s to %s has %d available seats.";
+    private static final String NO_VOYAGES_FOUND = "No voyages found from %s to %s!";
+    private static final String SEATS_AVAILABLE = "Voyage %d from %s to %s has %d available seats out of %d.";
+    private static final String PREMIUM_SEATS_AVAILABLE = "%d of %d premium seats and %d of %d regular seats are available.";
+    private static final String FLEET_SEATS_AVAILABLE = "There are %d available seats out of %d in %d voyages.";
     public static final String NO_VOYAGES_AVAILABLE = "No Voyages Available!";
     public static final String LINE = "----------------";
     public static final String Z_REPORT = "Z Report:";
+
+    private static final MessageTemplate VOYAGE_SUCCESFULLY_CANCELLED_TEMPLATE = MessageTemplate.compile(VOYAGE_SUCCESFULLY_CANCELLED);
+    private static final MessageTemplate REVENUE_MESSAGE_TEMPLATE = MessageTemplate.compile(REVENUE_MESSAGE);
+    private static final MessageTemplate VOYAGE_MESSAGE_TEMPLATE = MessageTemplate.compile(VOYAGE_MESSAGE);
+    private static final MessageTemplate VOYAGE_ROUTE_TEMPLATE = MessageTemplate.compile(VOYAGE_ROUTE);
+    private static final MessageTemplate COMMAND_MESSAGE_TEMPLATE = MessageTemplate.compile(COMMAND_MESSAGE);
+    private static final MessageTemplate STANDARD_VOYAGE_INITIALIZED_TEMPLATE = MessageTemplate.compile(STANDARD_VOYAGE_INITIALIZED);
+    private static final MessageTemplate PREMIUM_VOYAGE_INITIALIZED_TEMPLATE = MessageTemplate.compile(PREMIUM_VOYAGE_INITIALIZED);
+    private static final MessageTemplate MINIBUS_VOYAGE_INITIALIZED_TEMPLATE = MessageTemplate.compile(MINIBUS_VOYAGE_INITIALIZED);
+    private static final MessageTemplate SEATS_SOLD_TEMPLATE = MessageTemplate.compile(SEATS_SOLD);
+    private static final MessageTemplate SEATS_REFUNDED_TEMPLATE = MessageTemplate.compile(SEATS_REFUNDED);
+    private static final MessageTemplate SEATS_HELD_TEMPLATE = MessageTemplate.compile(SEATS_HELD);
+    private static final MessageTemplate BATCH_COMMITTED_TEMPLATE = MessageTemplate.compile(BATCH_COMMITTED);
+    private static final MessageTemplate VOYAGE_FOUND_TEMPLATE = MessageTemplate.compile(VOYAGE_FOUND);
+    private static final MessageTemplate NO_VOYAGES_FOUND_TEMPLATE = MessageTemplate.compile(NO_VOYAGES_FOUND);
+    private static final MessageTemplate SEATS_AVAILABLE_TEMPLATE = MessageTemplate.compile(SEATS_AVAILABLE);
+    private static final MessageTemplate PREMIUM_SEATS_AVAILABLE_TEMPLATE = MessageTemplate.compile(PREMIUM_SEATS_AVAILABLE);
+    private static final MessageTemplate FLEET_SEATS_AVAILABLE_TEMPLATE = MessageTemplate.compile(FLEET_SEATS_AVAILABLE);
     
     /**
      * Generates a message indicating successful cancellation of a voyage.
@@ -26,7 +55,18 @@ public class InfoMessages {
      * @return A formatted message indicating the voyage was successfully cancelled.
      */
     public static String getVoyageSuccesfullyCancelledString(int id) {
-        return String.format(VOYAGE_SUCCESFULLY_CANCELLED, id);
+        return appendVoyageSuccesfullyCancelled(new StringBuilder(), id).toString();
+    }
+
+    /**
+     * Appends a message indicating successful cancellation of a voyage.
+     *
+     * @param sb The builder to append to.
+     * @param id The voyage ID that was cancelled.
+     * @return The same builder.
+     */
+    public static StringBuilder appendVoyageSuccesfullyCancelled(StringBuilder sb, int id) {
+        return VOYAGE_SUCCESFULLY_CANCELLED_TEMPLATE.appendTo(sb).arg(id).end();
     }
 
     /**
@@ -35,8 +75,19 @@ public class InfoMessages {
      * @param revenue The amount of revenue.
      * @return A formatted message displaying the revenue.
      */
-    public static String getRevenueMessageString(float revenue) {
-        return String.format(REVENUE_MESSAGE, revenue);
+    public static String getRevenueMessageString(long revenue) {
+        return appendRevenueMessage(new StringBuilder(), revenue).toString();
+    }
+
+    /**
+     * Appends a revenue message.
+     *
+     * @param sb The builder to append to.
+     * @param revenue The amount of revenue.
+     * @return The same builder.
+     */
+    public static StringBuilder appendRevenueMessage(StringBuilder sb, long revenue) {
+        return REVENUE_MESSAGE_TEMPLATE.appendTo(sb).money(revenue).end();
     }
 
     /**
@@ -46,7 +97,18 @@ public class InfoMessages {
      * @return A formatted message showing the voyage ID.
      */
     public static String getVoyageString(int id) {
-        return String.format(VOYAGE_MESSAGE, id);
+        return appendVoyage(new StringBuilder(), id).toString();
+    }
+
+    /**
+     * Appends a message displaying a voyage ID.
+     *
+     * @param sb The builder to append to.
+     * @param id The voyage ID.
+     * @return The same builder.
+     */
+    public static StringBuilder appendVoyage(StringBuilder sb, int id) {
+        return VOYAGE_MESSAGE_TEMPLATE.appendTo(sb).arg(id).end();
     }
 
     /**
@@ -57,7 +119,19 @@ public class InfoMessages {
      * @return A formatted message showing the voyage route.
      */
     public static String getVoyageRouteString(String departure, String arrival) {
-        return String.format(VOYAGE_ROUTE, departure, arrival);
+        return appendVoyageRoute(new StringBuilder(), departure, arrival).toString();
+    }
+
+    /**
+     * Appends a route message for a voyage.
+     *
+     * @param sb The builder to append to.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @return The same builder.
+     */
+    public static StringBuilder appendVoyageRoute(StringBuilder sb, String departure, String arrival) {
+        return VOYAGE_ROUTE_TEMPLATE.appendTo(sb).arg(departure).arg(arrival).end();
     }
 
     /**
@@ -67,7 +141,18 @@ public class InfoMessages {
      * @return A formatted message indicating the command used.
      */
     public static String getCommandMessageString(String command) {
-        return String.format(COMMAND_MESSAGE, command);
+        return appendCommandMessage(new StringBuilder(), command).toString();
+    }
+
+    /**
+     * Appends a command message.
+     *
+     * @param sb The builder to append to.
+     * @param command The command executed.
+     * @return The same builder.
+     */
+    public static StringBuilder appendCommandMessage(StringBuilder sb, CharSequence command) {
+        return COMMAND_MESSAGE_TEMPLATE.appendTo(sb).arg(command).end();
     }
 
     /**
@@ -81,8 +166,24 @@ public class InfoMessages {
      * @param refundCut The percentage deduction on refunds.
      * @return A formatted message detailing the voyage initialization.
      */
-    public static String getStandardVoyageInitializedString(int id, String departure, String arrival, float price, int row_count, int refundCut) {
-        return String.format(STANDARD_VOYAGE_INITIALIZED, id, departure, arrival, price, row_count * 4, refundCut);
+    public static String getStandardVoyageInitializedString(int id, String departure, String arrival, long price, int row_count, int refundCut) {
+        return appendStandardVoyageInitialized(new StringBuilder(), id, departure, arrival, price, row_count, refundCut).toString();
+    }
+
+    /**
+     * Appends a message indicating that a standard voyage was initialized.
+     *
+     * @param sb The builder to append to.
+     * @param id The voyage ID.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @param price The price per seat.
+     * @param row_count The number of rows of seats.
+     * @param refundCut The percentage deduction on refunds.
+     * @return The same builder.
+     */
+    public static StringBuilder appendStandardVoyageInitialized(StringBuilder sb, int id, String departure, String arrival, long price, int row_count, int refundCut) {
+        return STANDARD_VOYAGE_INITIALIZED_TEMPLATE.appendTo(sb).arg(id).arg(departure).arg(arrival).money(price).arg(row_count * 4).arg(refundCut).end();
     }
 
     /**
@@ -97,8 +198,26 @@ public class InfoMessages {
      * @param refundCut The percentage deduction on refunds.
      * @return A formatted message detailing the voyage initialization.
      */
-    public static String getPremiumVoyageInitializedString(int id, String departure, String arrival, float regularPrice, int row_count, float premiumPrice, int refundCut) {
-        return String.format(PREMIUM_VOYAGE_INITIALIZED, id, departure, arrival, regularPrice, row_count * 2, premiumPrice, row_count, refundCut);
+    public static String getPremiumVoyageInitializedString(int id, String departure, String arrival, long regularPrice, int row_count, long premiumPrice, int refundCut) {
+        return appendPremiumVoyageInitialized(new StringBuilder(), id, departure, arrival, regularPrice, row_count, premiumPrice, refundCut).toString();
+    }
+
+    /**
+     * Appends a message indicating that a premium voyage was initialized.
+     *
+     * @param sb The builder to append to.
+     * @param id The voyage ID.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @param regularPrice The price per regular seat.
+     * @param row_count The number of rows of seats.
+     * @param premiumPrice The price per premium seat.
+     * @param refundCut The percentage deduction on refunds.
+     * @return The same builder.
+     */
+    public static StringBuilder appendPremiumVoyageInitialized(StringBuilder sb, int id, String departure, String arrival, long regularPrice, int row_count, long premiumPrice, int refundCut) {
+        return PREMIUM_VOYAGE_INITIALIZED_TEMPLATE.appendTo(sb).arg(id).arg(departure).arg(arrival)
+                .money(regularPrice).arg(row_count * 2).money(premiumPrice).arg(row_count).arg(refundCut).end();
     }
 
     /**
@@ -111,8 +230,23 @@ public class InfoMessages {
      * @param row_count The number of rows of seats.
      * @return A formatted message detailing the voyage initialization.
      */
-    public static String getMinibusVoyageInitializedString(int id, String departure, String arrival, float price, int row_count) {
-        return String.format(MINIBUS_VOYAGE_INITIALIZED, id, departure, arrival, price, row_count * 2);
+    public static String getMinibusVoyageInitializedString(int id, String departure, String arrival, long price, int row_count) {
+        return appendMinibusVoyageInitialized(new StringBuilder(), id, departure, arrival, price, row_count).toString();
+    }
+
+    /**
+     * Appends a message indicating that a minibus voyage was initialized.
+     *
+     * @param sb The builder to append to.
+     * @param id The voyage ID.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @param price The price per seat.
+     * @param row_count The number of rows of seats.
+     * @return The same builder.
+     */
+    public static StringBuilder appendMinibusVoyageInitialized(StringBuilder sb, int id, String departure, String arrival, long price, int row_count) {
+        return MINIBUS_VOYAGE_INITIALIZED_TEMPLATE.appendTo(sb).arg(id).arg(departure).arg(arrival).money(price).arg(row_count * 2).end();
     }
 
     /**
@@ -125,15 +259,26 @@ public class InfoMessages {
      * @param price The price at which the seats were sold.
      * @return A formatted message detailing the seats sold.
      */
-    public static String getSeatsSoldString(int[] seats, int voyage, String departure, String arrival, float price) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < seats.length; i++) {
-            sb.append(seats[i] + 1);
-            if (i != seats.length - 1) {
-                sb.append("-");
-            }
-        }
-        return String.format(SEATS_SOLD, sb.toString(), voyage, departure, arrival, price);
+    public static String getSeatsSoldString(int[] seats, int voyage, String departure, String arrival, long price) {
+        return appendSeatsSold(new StringBuilder(), seats, seats.length, voyage, departure, arrival, price).toString();
+    }
+
+    /**
+     * Appends a message indicating that seats were sold, reading only the first {@code seatCount} seat numbers.
+     *
+     * @param sb The builder to append to.
+     * @param seats An array whose first entries are the seat numbers.
+     * @param seatCount The number of seats in {@code seats}.
+     * @param voyage The voyage ID.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @param price The price at which the seats were sold.
+     * @return The same builder.
+     */
+    public static StringBuilder appendSeatsSold(StringBuilder sb, int[] seats, int seatCount, int voyage, String departure, String arrival, long price) {
+        MessageTemplate.Appender message = SEATS_SOLD_TEMPLATE.appendTo(sb);
+        appendSeatList(sb, seats, seatCount);
+        return message.appended().arg(voyage).arg(departure).arg(arrival).money(price).end();
     }
 
     /**
@@ -146,14 +291,231 @@ public class InfoMessages {
      * @param price The refund amount for the seats.
      * @return A formatted message detailing the seats refunded.
      */
-    public static String getSeatsRefundedString(int[] seats, int voyage, String departure, String arrival, float price) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < seats.length; i++) {
+    public static String getSeatsRefundedString(int[] seats, int voyage, String departure, String arrival, long price) {
+        return appendSeatsRefunded(new StringBuilder(), seats, seats.length, voyage, departure, arrival, price).toString();
+    }
+
+    /**
+     * Appends a message indicating that seats were refunded, reading only the first {@code seatCount} seat numbers.
+     *
+     * @param sb The builder to append to.
+     * @param seats An array whose first entries are the seat numbers.
+     * @param seatCount The number of seats in {@code seats}.
+     * @param voyage The voyage ID.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @param price The refund amount for the seats.
+     * @return The same builder.
+     */
+    public static StringBuilder appendSeatsRefunded(StringBuilder sb, int[] seats, int seatCount, int voyage, String departure, String arrival, long price) {
+        MessageTemplate.Appender message = SEATS_REFUNDED_TEMPLATE.appendTo(sb);
+        appendSeatList(sb, seats, seatCount);
+        return message.appended().arg(voyage).arg(departure).arg(arrival).money(price).end();
+    }
+
+    /**
+     * Appends one-based seat numbers separated by dashes.
+     *
+     * @param sb The builder to append to.
+     * @param seats An array whose first entries are zero-based seat indexes.
+     * @param seatCount The number of seats in {@code seats}.
+     * @return The same builder.
+     */
+    private static StringBuilder appendSeatList(StringBuilder sb, int[] seats, int seatCount) {
+        for (int i = 0; i < seatCount; i++) {
+            if (i != 0) sb.append('-');
             sb.append(seats[i] + 1);
-            if (i != seats.length - 1) {
-                sb.append("-");
-            }
         }
-        return String.format(SEATS_REFUNDED, sb.toString(), voyage, departure, arrival, price);
+        return sb;
+    }
+
+    /**
+     * Generates a message listing a voyage found on a route.
+     *
+     * @param id The voyage ID.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @param availableSeats Number of seats that can still be sold.
+     * @return A formatted message showing the voyage and its available seats.
+     */
+    public static String getVoyageFoundString(int id, String departure, String arrival, int availableSeats) {
+        return appendVoyageFound(new StringBuilder(), id, departure, arrival, availableSeats).toString();
+    }
+
+    /**
+     * Appends a message listing a voyage found on a route.
+     *
+     * @param sb The builder to append to.
+     * @param id The voyage ID.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @param availableSeats Number of seats that can still be sold.
+     * @return The same builder.
+     */
+    public static StringBuilder appendVoyageFound(StringBuilder sb, int id, String departure, String arrival, int availableSeats) {
+        return VOYAGE_FOUND_TEMPLATE.appendTo(sb).arg(id).arg(departure).arg(arrival).arg(availableSeats).end();
+    }
+
+    /**
+     * Generates a message that no voyage runs on a route.
+     *
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @return A formatted message naming the route.
+     */
+    public static String getNoVoyagesFoundString(String departure, String arrival) {
+        return appendNoVoyagesFound(new StringBuilder(), departure, arrival).toString();
+    }
+
+    /**
+     * Appends a message that no voyage runs on a route.
+     *
+     * @param sb The builder to append to.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @return The same builder.
+     */
+    public static StringBuilder appendNoVoyagesFound(StringBuilder sb, String departure, String arrival) {
+        return NO_VOYAGES_FOUND_TEMPLATE.appendTo(sb).arg(departure).arg(arrival).end();
+    }
+
+    /**
+     * Generates a message with the number of available seats of a voyage.
+     *
+     * @param id The voyage ID.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @param availableSeats Number of seats that can still be sold.
+     * @param seats Number of seats of the voyage.
+     * @return A formatted availability message.
+     */
+    public static String getSeatsAvailableString(int id, String departure, String arrival, int availableSeats, int seats) {
+        return appendSeatsAvailable(new StringBuilder(), id, departure, arrival, availableSeats, seats).toString();
+    }
+
+    /**
+     * Appends a message with the number of available seats of a voyage.
+     *
+     * @param sb The builder to append to.
+     * @param id The voyage ID.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @param availableSeats Number of seats that can still be sold.
+     * @param seats Number of seats of the voyage.
+     * @return The same builder.
+     */
+    public static StringBuilder appendSeatsAvailable(StringBuilder sb, int id, String departure, String arrival, int availableSeats, int seats) {
+        return SEATS_AVAILABLE_TEMPLATE.appendTo(sb).arg(id).arg(departure).arg(arrival).arg(availableSeats).arg(seats).end();
+    }
+
+    /**
+     * Generates a message splitting the available seats of a premium voyage into premium and regular seats.
+     *
+     * @param availablePremium Number of premium seats that can still be sold.
+     * @param premiumSeats Number of premium seats.
+     * @param availableRegular Number of regular seats that can still be sold.
+     * @param regularSeats Number of regular seats.
+     * @return A formatted availability message.
+     */
+    public static String getPremiumSeatsAvailableString(int availablePremium, int premiumSeats, int availableRegular, int regularSeats) {
+        return appendPremiumSeatsAvailable(new StringBuilder(), availablePremium, premiumSeats, availableRegular, regularSeats).toString();
+    }
+
+    /**
+     * Appends a message splitting the available seats of a premium voyage into premium and regular seats.
+     *
+     * @param sb The builder to append to.
+     * @param availablePremium Number of premium seats that can still be sold.
+     * @param premiumSeats Number of premium seats.
+     * @param availableRegular Number of regular seats that can still be sold.
+     * @param regularSeats Number of regular seats.
+     * @return The same builder.
+     */
+    public static StringBuilder appendPremiumSeatsAvailable(StringBuilder sb, int availablePremium, int premiumSeats, int availableRegular, int regularSeats) {
+        return PREMIUM_SEATS_AVAILABLE_TEMPLATE.appendTo(sb).arg(availablePremium).arg(premiumSeats).arg(availableRegular).arg(regularSeats).end();
+    }
+
+    /**
+     * Generates a message with the number of available seats over all voyages.
+     *
+     * @param availableSeats Number of seats that can still be sold.
+     * @param seats Number of seats of all voyages.
+     * @param voyages Number of voyages.
+     * @return A formatted availability message.
+     */
+    public static String getFleetSeatsAvailableString(long availableSeats, long seats, int voyages) {
+        return appendFleetSeatsAvailable(new StringBuilder(), availableSeats, seats, voyages).toString();
+    }
+
+    /**
+     * Appends a message with the number of available seats over all voyages.
+     *
+     * @param sb The builder to append to.
+     * @param availableSeats Number of seats that can still be sold.
+     * @param seats Number of seats of all voyages.
+     * @param voyages Number of voyages.
+     * @return The same builder.
+     */
+    public static StringBuilder appendFleetSeatsAvailable(StringBuilder sb, long availableSeats, long seats, int voyages) {
+        return FLEET_SEATS_AVAILABLE_TEMPLATE.appendTo(sb).arg(availableSeats).arg(seats).arg(voyages).end();
+    }
+
+    /**
+     * Generates a message indicating that seats were put on hold.
+     *
+     * @param seats An array of seat numbers.
+     * @param voyage The voyage ID.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @param ttl The number of commands the seats stay held.
+     * @return A formatted message indicating the seats were held.
+     */
+    public static String getSeatsHeldString(int[] seats, int voyage, String departure, String arrival, int ttl) {
+        return appendSeatsHeld(new StringBuilder(), seats, seats.length, voyage, departure, arrival, ttl).toString();
+    }
+
+    /**
+     * Appends a message indicating that seats were put on hold, reading only the first {@code seatCount} seat numbers.
+     *
+     * @param sb The builder to append to.
+     * @param seats An array whose first entries are the seat numbers.
+     * @param seatCount The number of seats in {@code seats}.
+     * @param voyage The voyage ID.
+     * @param departure The departure location.
+     * @param arrival The arrival location.
+     * @param ttl The number of commands the seats stay held.
+     * @return The same builder.
+     */
+    public static StringBuilder appendSeatsHeld(StringBuilder sb, int[] seats, int seatCount, int voyage, String departure, String arrival, int ttl) {
+        MessageTemplate.Appender message = SEATS_HELD_TEMPLATE.appendTo(sb);
+        appendSeatList(sb, seats, seatCount);
+        return message.appended().arg(voyage).arg(departure).arg(arrival).arg(ttl).end();
+    }
+
+    /**
+     * Generates the combined result of a committed batch of sales and refunds.
+     *
+     * @param operations The number of operations in the batch.
+     * @param voyages The number of different voyages the batch changed.
+     * @param sold The amount charged for the sold seats.
+     * @param refunded The amount paid back for the refunded seats.
+     * @return A formatted message summarizing the batch.
+     */
+    public static String getBatchCommittedString(int operations, int voyages, long sold, long refunded) {
+        return appendBatchCommitted(new StringBuilder(), operations, voyages, sold, refunded).toString();
+    }
+
+    /**
+     * Appends the combined result of a committed batch of sales and refunds.
+     *
+     * @param sb The builder to append to.
+     * @param operations The number of operations in the batch.
+     * @param voyages The number of different voyages the batch changed.
+     * @param sold The amount charged for the sold seats.
+     * @param refunded The amount paid back for the refunded seats.
+     * @return The same builder.
+     */
+    public static StringBuilder appendBatchCommitted(StringBuilder sb, int operations, int voyages, long sold, long refunded) {
+        return BATCH_COMMITTED_TEMPLATE.appendTo(sb).arg(operations).arg(voyages).money(sold).money(refunded).end();
     }
 }
@@ -0,0 +1,524 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.zip.*;
+
+/**
+ * The {@code Journal} class is an append-only, write-ahead log of every successful change to a
+ * {@link VoyageManager}: voyage initializations, ticket sales, refunds, batches of them and cancellations. Replaying the journal
+ * into an empty manager at startup restores the voyages, seats and revenue of the previous runs.
+ * <p>
+ * The file starts with an 8-byte header (magic and version) followed by records of the form
+ * {@code [payload length][CRC32C of payload][payload]}, all little-endian. The payload is a type byte and the
+ * arguments of the change. Replay stops at the first truncated or corrupt record, which is what an interrupted
+ * write leaves behind, and the file is cut back to the last intact record before new ones are appended.
+ * <p>
+ * Records are encoded on the command thread into an in-memory buffer; a background thread collects them for up
+ * to a couple of milliseconds or half a buffer, writes the group at once (group commit) and forces it to disk
+ * according to the {@link FsyncPolicy}. The command thread only waits when both buffers are full, or for every
+ * record under {@link FsyncPolicy#ALWAYS}.
+ */
+public class Journal implements Closeable {
+    /**
+     * When the journal forces written records to the storage device.
+     */
+    public enum FsyncPolicy {
+        /** Never force; the operating system writes the data back in its own time. */
+        NEVER,
+        /** Force after every group of records is written, without making commands wait for it. */
+        GROUP,
+        /** Force after every group, and make each change wait until its record is on disk. */
+        ALWAYS
+    }
+
+    private static final int MAGIC = 0x4A4D4242; // "BBMJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_RECORD_SIZE = 1 << 26;
+    private static final long GROUP_WINDOW_MILLIS = 2;
+
+    private static final byte INIT_STANDARD = 1;
+    private static final byte INIT_PREMIUM = 2;
+    private static final byte INIT_MINIBUS = 3;
+    private static final byte SELL = 4;
+    private static final byte REFUND = 5;
+    private static final byte CANCEL = 6;
+    private static final byte BATCH = 7;
+
+    private final FileChannel channel;
+    private final FsyncPolicy policy;
+    private final Thread writer;
+    private final CRC32C crc = new CRC32C();
+
+    private ByteBuffer current = newBuffer(BUFFER_SIZE);
+    private ByteBuffer spare = newBuffer(BUFFER_SIZE);
+    private long appended;
+    private long written;
+    private long endOffset;
+    private boolean closing;
+    private IOException failure;
+
+    private Journal(FileChannel channel, FsyncPolicy policy, long endOffset) {
+        this.channel = channel;
+        this.policy = policy;
+        this.endOffset = endOffset;
+        this.writer = new Thread(this::writeLoop, "booking-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens a journal for appending, first replaying the records it already holds into a manager.
+     * A missing file is created.
+     *
+     * @param path The journal file.
+     * @param policy When written records are forced to disk.
+     * @param manager The manager that receives the replayed changes. It should be empty and have no journal yet.
+     * @return The journal, positioned after the last intact record.
+     * @throws IOException if the file cannot be read or written, is not a journal, or does not match the manager.
+     */
+    public static Journal open(Path path, FsyncPolicy policy, VoyageManager manager) throws IOException {
+        return open(path, policy, manager, 0);
+    }
+
+    /**
+     * Opens a journal for appending, first replaying the records from a given offset on into a manager that was
+     * restored from a {@link Snapshot} taken at that offset. A missing file is created if the offset is 0.
+     *
+     * @param path The journal file.
+     * @param policy When written records are forced to disk.
+     * @param manager The manager that receives the replayed changes. It should have no journal yet.
+     * @param fromOffset Offset of the first record to replay, as returned by {@link #getEndOffset()}, or 0 for all.
+     * @return The journal, positioned after the last intact record.
+     * @throws IOException if the file cannot be read or written, is not a journal, ends before the offset,
+     *                     or does not match the manager.
+     */
+    public static Journal open(Path path, FsyncPolicy policy, VoyageManager manager, long fromOffset) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long end;
+            if (channel.size() == 0) {
+                if (fromOffset > HEADER_SIZE) throw new IOException("Journal " + path + " is missing the records the snapshot depends on");
+                ByteBuffer header = newBuffer(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+                header.flip();
+                while (header.hasRemaining()) channel.write(header);
+                end = HEADER_SIZE;
+            } else {
+                end = replay(channel, manager, Math.max(fromOffset, HEADER_SIZE));
+            }
+            channel.truncate(end);
+            channel.position(end);
+            return new Journal(channel, policy, end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Records the initialization of a standard bus voyage.
+     */
+    public synchronized void logStandardVoyage(int id, String departure, String arrival, int row_count, long seat_price, int refundCut) {
+        byte[] from = encode(departure);
+        byte[] to = encode(arrival);
+        ByteBuffer buffer = begin(1 + 4 + 4 + 8 + 4 + 4 + from.length + to.length);
+        int start = buffer.position();
+        buffer.put(INIT_STANDARD).putInt(id).putInt(row_count).putLong(seat_price).putInt(refundCut);
+        putRoute(buffer, from, to);
+        end(buffer, start);
+    }
+
+    /**
+     * Records the initialization of a premium bus voyage.
+     */
+    public synchronized void logPremiumVoyage(int id, String departure, String arrival, int row_count, long seat_price, int refundCut, int premiumFee) {
+        byte[] from = encode(departure);
+        byte[] to = encode(arrival);
+        ByteBuffer buffer = begin(1 + 4 + 4 + 8 + 4 + 4 + 4 + from.length + to.length);
+        int start = buffer.position();
+        buffer.put(INIT_PREMIUM).putInt(id).putInt(row_count).putLong(seat_price).putInt(refundCut).putInt(premiumFee);
+        putRoute(buffer, from, to);
+        end(buffer, start);
+    }
+
+    /**
+     * Records the initialization of a minibus voyage.
+     */
+    public synchronized void logMinibusVoyage(int id, String departure, String arrival, int row_count, long seat_price) {
+        byte[] from = encode(departure);
+        byte[] to = encode(arrival);
+        ByteBuffer buffer = begin(1 + 4 + 4 + 8 + 4 + from.length + to.length);
+        int start = buffer.position();
+        buffer.put(INIT_MINIBUS).putInt(id).putInt(row_count).putLong(seat_price);
+        putRoute(buffer, from, to);
+        end(buffer, start);
+    }
+
+    /**
+     * Records a ticket sale.
+     * @param seats array whose first {@code seatCount} entries are the zero-based seats sold
+     */
+    public synchronized void logSell(int id, int[] seats, int seatCount) {
+        logSeats(SELL, id, seats, seatCount);
+    }
+
+    /**
+     * Records a ticket refund.
+     * @param seats array whose first {@code seatCount} entries are the zero-based seats refunded
+     */
+    public synchronized void logRefund(int id, int[] seats, int seatCount) {
+        logSeats(REFUND, id, seats, seatCount);
+    }
+
+    /**
+     * Records the sales and refunds of a committed batch as one record, so that replay applies all of them or,
+     * if the record was cut short, none.
+     */
+    public synchronized void logBatch(TicketBatch batch) {
+        int size = 1 + 4;
+        for (int i = 0; i < batch.size(); i++) size += 1 + 4 + 4 + 4 * (batch.getSeatEnd(i) - batch.getSeatStart(i));
+        ByteBuffer buffer = begin(size);
+        int start = buffer.position();
+        buffer.put(BATCH).putInt(batch.size());
+        int[] seats = batch.getSeats();
+        for (int i = 0; i < batch.size(); i++) {
+            buffer.put(batch.getKind(i) == TicketBatch.SELL ? SELL : REFUND).putInt(batch.getVoyageId(i));
+            buffer.putInt(batch.getSeatEnd(i) - batch.getSeatStart(i));
+            for (int j = batch.getSeatStart(i); j < batch.getSeatEnd(i); j++) buffer.putInt(seats[j]);
+        }
+        end(buffer, start);
+    }
+
+    /**
+     * Records a voyage cancellation.
+     */
+    public synchronized void logCancel(int id) {
+        ByteBuffer buffer = begin(1 + 4);
+        int start = buffer.position();
+        buffer.put(CANCEL).putInt(id);
+        end(buffer, start);
+    }
+
+    /**
+     * Returns the file offset just after the last record appended so far, whether or not it has been written yet.
+     * A {@link Snapshot} taken now stores it, so that only the later records need to be replayed.
+     *
+     * @return The offset of the next record.
+     */
+    public synchronized long getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+     * Waits until every record appended so far has been written, and forced to disk unless the policy is
+     * {@link FsyncPolicy#NEVER}.
+     */
+    public synchronized void sync() {
+        awaitWritten(appended);
+    }
+
+    /**
+     * Writes the remaining records, forces the file to disk unless the policy is {@link FsyncPolicy#NEVER},
+     * and closes it.
+     */
+    public void close() throws IOException {
+        synchronized (this) {
+            closing = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            synchronized (this) {
+                if (failure != null) throw failure;
+            }
+            if (policy != FsyncPolicy.NEVER) channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void logSeats(byte type, int id, int[] seats, int seatCount) {
+        ByteBuffer buffer = begin(1 + 4 + 4 + 4 * seatCount);
+        int start = buffer.position();
+        buffer.put(type).putInt(id).putInt(seatCount);
+        for (int i = 0; i < seatCount; i++) buffer.putInt(seats[i]);
+        end(buffer, start);
+    }
+
+    private static void putRoute(ByteBuffer buffer, byte[] departure, byte[] arrival) {
+        buffer.putShort((short) departure.length).put(departure);
+        buffer.putShort((short) arrival.length).put(arrival);
+    }
+
+    private static byte[] encode(String city) {
+        byte[] bytes = city.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) throw new IllegalArgumentException("City name is too long for the journal");
+        return bytes;
+    }
+
+    /**
+     * Makes room for a record in the current buffer, waiting for the writer if both buffers are full,
+     * and skips the record header.
+     *
+     * @param payloadSize Size of the payload in bytes.
+     * @return The current buffer.
+     * @throws IllegalArgumentException if the record would be longer than replay accepts.
+     */
+    private ByteBuffer begin(int payloadSize) {
+        if (payloadSize > MAX_RECORD_SIZE) throw new IllegalArgumentException("Record is too long for the journal");
+        int size = RECORD_HEADER_SIZE + payloadSize;
+        while (current.remaining() < size) {
+            checkFailure();
+            if (current.position() == 0) {
+                current = newBuffer(size);
+                break;
+            }
+            notifyAll();
+            waitForWriter();
+        }
+        int position = current.position();
+        if (position == 0 || (position < BUFFER_SIZE / 2 && position + size >= BUFFER_SIZE / 2)) notifyAll();
+        current.position(position + RECORD_HEADER_SIZE);
+        return current;
+    }
+
+    /**
+     * Fills in the header of the record whose payload starts at {@code start}.
+     */
+    private void end(ByteBuffer buffer, int start) {
+        int length = buffer.position() - start;
+        crc.reset();
+        crc.update(buffer.duplicate().position(start).limit(start + length));
+        buffer.putInt(start - RECORD_HEADER_SIZE, length);
+        buffer.putInt(start - RECORD_HEADER_SIZE + 4, (int) crc.getValue());
+        endOffset += RECORD_HEADER_SIZE + length;
+        appended++;
+        if (policy == FsyncPolicy.ALWAYS) awaitWritten(appended);
+    }
+
+    private void awaitWritten(long records) {
+        while (written < records) {
+            checkFailure();
+            notifyAll();
+            waitForWriter();
+        }
+    }
+
+    private void waitForWriter() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the journal", e);
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) throw new UncheckedIOException("Journal write failed", failure);
+        if (closing) throw new IllegalStateException("Journal is closed");
+    }
+
+    /**
+     * Swaps out the current buffer whenever it holds records, writes it and forces it per the policy.
+     * Runs on the journal's own thread.
+     */
+    private void writeLoop() {
+        try {
+            while (true) {
+                ByteBuffer group;
+                long records;
+                synchronized (this) {
+                    while (current.position() == 0 && !closing) wait();
+                    if (current.position() == 0) return;
+                    if (policy != FsyncPolicy.ALWAYS) awaitGroup();
+                    group = current;
+                    current = spare;
+                    spare = null;
+                    records = appended;
+                    notifyAll();
+                }
+                group.flip();
+                while (group.hasRemaining()) channel.write(group);
+                if (policy != FsyncPolicy.NEVER) channel.force(false);
+                group.clear();
+                synchronized (this) {
+                    spare = group.capacity() == BUFFER_SIZE ? group : newBuffer(BUFFER_SIZE);
+                    written = records;
+                    notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+                notifyAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Lets more records join the group until the window has passed, the buffer is half full or the journal closes.
+     */
+    private void awaitGroup() throws InterruptedException {
+        long deadline = System.nanoTime() + GROUP_WINDOW_MILLIS * 1_000_000;
+        while (current.position() < BUFFER_SIZE / 2 && !closing) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return;
+            wait(Math.max(1, remaining / 1_000_000));
+        }
+    }
+
+    /**
+     * Applies every intact record of a journal from the given offset on to a manager. A record whose length is
+     * not positive, exceeds the largest record the journal writes or runs past the end of the file ends the replay
+     * like a bad checksum, before anything is allocated for it.
+     *
+     * @return The file offset after the last intact record.
+     */
+    private static long replay(FileChannel channel, VoyageManager manager, long fromOffset) throws IOException {
+        RecordReader reader = new RecordReader(channel, 0);
+        if (!reader.ensure(HEADER_SIZE) || reader.buffer.getInt() != MAGIC) throw new IOException("Not a booking journal");
+        int version = reader.buffer.getInt();
+        if (version != VERSION) throw new IOException("Unsupported journal version " + version);
+        if (fromOffset > channel.size()) {
+            throw new IOException("Journal ends at " + channel.size() + ", before the snapshot's offset " + fromOffset);
+        }
+        if (fromOffset > HEADER_SIZE) reader = new RecordReader(channel, fromOffset);
+
+        CRC32C crc = new CRC32C();
+        long fileSize = channel.size();
+        long end = fromOffset;
+        while (reader.ensure(RECORD_HEADER_SIZE)) {
+            ByteBuffer buffer = reader.buffer;
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE || length > fileSize - end - RECORD_HEADER_SIZE) break;
+            if (!reader.ensure(length)) break;
+            int start = buffer.position();
+            crc.reset();
+            crc.update(buffer.duplicate().limit(start + length));
+            if ((int) crc.getValue() != checksum) break;
+            try {
+                apply(buffer, manager);
+            } catch (RuntimeException e) {
+                throw new IOException("Journal record at offset " + end + " cannot be replayed", e);
+            }
+            buffer.position(start + length);
+            end += RECORD_HEADER_SIZE + length;
+        }
+        return end;
+    }
+
+    private static void apply(ByteBuffer buffer, VoyageManager manager) {
+        byte type = buffer.get();
+        int id = buffer.getInt();
+        switch (type) {
+            case INIT_STANDARD: {
+                int rows = buffer.getInt();
+                long price = buffer.getLong();
+                int refundCut = buffer.getInt();
+                manager.restoreVoyage(new StandardBus(id, rows, manager.getRoutes().intern(getCity(buffer), getCity(buffer)), price, refundCut));
+                break;
+            }
+            case INIT_PREMIUM: {
+                int rows = buffer.getInt();
+                long price = buffer.getLong();
+                int refundCut = buffer.getInt();
+                int premiumFee = buffer.getInt();
+                manager.restoreVoyage(new PremiumBus(id, rows, manager.getRoutes().intern(getCity(buffer), getCity(buffer)), price, refundCut, premiumFee));
+                break;
+            }
+            case INIT_MINIBUS: {
+                int rows = buffer.getInt();
+                long price = buffer.getLong();
+                manager.restoreVoyage(new MiniBus(id, rows, manager.getRoutes().intern(getCity(buffer), getCity(buffer)), price));
+                break;
+            }
+            case SELL: {
+                Voyage voyage = existingVoyage(manager, id);
+                for (int i = buffer.getInt(); i > 0; i--) voyage.sellTicket(buffer.getInt());
+                break;
+            }
+            case REFUND: {
+                Voyage voyage = existingVoyage(manager, id);
+                for (int i = buffer.getInt(); i > 0; i--) voyage.refundTicket(buffer.getInt());
+                break;
+            }
+            case CANCEL:
+                if (manager.removeVoyage(id) == null) throw new IllegalStateException("No voyage with ID " + id);
+                break;
+            case BATCH:
+                for (int operation = 0; operation < id; operation++) {
+                    byte kind = buffer.get();
+                    Voyage voyage = existingVoyage(manager, buffer.getInt());
+                    for (int i = buffer.getInt(); i > 0; i--) {
+                        if (kind == SELL) voyage.sellTicket(buffer.getInt());
+                        else voyage.refundTicket(buffer.getInt());
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown record type " + type);
+        }
+    }
+
+    private static Voyage existingVoyage(VoyageManager manager, int id) {
+        Voyage voyage = manager.getVoyage(id);
+        if (voyage == null) throw new IllegalStateException("No voyage with ID " + id);
+        return voyage;
+    }
+
+    private static String getCity(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Reads a file sequentially through a buffer that is refilled on demand.
+     */
+    private static final class RecordReader {
+        private final FileChannel channel;
+        private ByteBuffer buffer = newBuffer(BUFFER_SIZE * 16);
+        private boolean eof;
+
+        private RecordReader(FileChannel channel, long offset) throws IOException {
+            this.channel = channel;
+            channel.position(offset);
+            buffer.flip();
+        }
+
+        /**
+         * Makes sure at least {@code count} unread bytes are buffered.
+         *
+         * @return false if the file ends first.
+         */
+        private boolean ensure(int count) throws IOException {
+            if (buffer.remaining() >= count) return true;
+            if (eof) return false;
+            buffer.compact();
+            if (buffer.capacity() < count) buffer = newBuffer(count).put(buffer.flip());
+            while (buffer.position() < count) {
+                if (channel.read(buffer) < 0) {
+                    eof = true;
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer.remaining() >= count;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * The {@code LockFreeVoyageManager} class is a variant of {@link ConcurrentVoyageManager} in which sales and
+ * refunds take no locks at all, not even on the voyage they touch. The seats of every voyage live in an
+ * {@link AtomicSeatMap}, whose compare-and-set claims make multi-seat requests all or nothing, and revenue is
+ * accumulated in a {@link LongAdder}, so threads selling on the same voyage do not contend on a single counter.
+ * <p>
+ * The {@link Voyage} objects only supply the route and the prices; their own seat maps and revenue are unused.
+ * Voyages can be added but not cancelled, since a sale may still be in flight on a voyage that was just looked up.
+ */
+public class LockFreeVoyageManager implements BookingEngine {
+    private final ConcurrentHashMap<Integer, Bookings> voyages = new ConcurrentHashMap<>();
+    private final RouteDictionary routes = new RouteDictionary();
+
+    /**
+     * Sells tickets for a specific voyage if the voyage ID and every seat are valid.
+     * @param id the voyage ID
+     * @param seats the zero-based seats to be sold
+     * @return the seats-sold message and the amount charged, or the first error
+     */
+    public BookingResult sellTickets(int id, int[] seats){
+        Bookings bookings = voyages.get(id);
+        if (bookings == null) return voyageNotFound(id);
+        BookingResult error = checkSeats(bookings, seats);
+        if (error != null) return error;
+        if (!bookings.seats.trySetAll(seats, seats.length)) return BookingResult.failure(ErrorMessages.SEAT_ALREADY_SOLD);
+
+        Voyage voyage = bookings.voyage;
+        long amount = 0;
+        for (int seat : seats){
+            amount += voyage.getTicketPrice(seat);
+        }
+        bookings.revenue.add(amount);
+        return BookingResult.success(InfoMessages.getSeatsSoldString(seats, id, voyage.getDeparture(), voyage.getArrival(), amount), amount);
+    }
+
+    /**
+     * Refunds tickets for a specific voyage if the voyage ID and every seat are valid.
+     * @param id the voyage ID
+     * @param seats the zero-based seats to be refunded
+     * @return the seats-refunded message and the amount paid back, or the first error
+     */
+    public BookingResult refundTickets(int id, int[] seats){
+        Bookings bookings = voyages.get(id);
+        if (bookings == null) return voyageNotFound(id);
+        Voyage voyage = bookings.voyage;
+        if (voyage instanceof MiniBus) return BookingResult.failure(ErrorMessages.MINIBUS_TICKETS_NOT_REFUNDABLE);
+        BookingResult error = checkSeats(bookings, seats);
+        if (error != null) return error;
+        if (!bookings.seats.tryClearAll(seats, seats.length)) return BookingResult.failure(ErrorMessages.SEAT_ALREADY_EMPTY);
+
+        long amount = 0;
+        for (int seat : seats){
+            amount += voyage.getTicketRefund(seat);
+        }
+        bookings.revenue.add(-amount);
+        return BookingResult.success(InfoMessages.getSeatsRefundedString(seats, id, voyage.getDeparture(), voyage.getArrival(), amount), amount);
+    }
+
+    /**
+     * Adds a standard bus voyage to the system.
+     * @param id the voyage ID
+     * @param departure the departure location
+     * @param arrival the arrival location
+     * @param row_count the number of rows in the bus
+     * @param seat_price the price per seat
+     * @param refundCut the percentage cut for refunds
+     * @return the initialization message, or the first error
+     */
+    public BookingResult addStandardVoyage(int id, String departure, String arrival, int row_count, long seat_price, int refundCut){
+        if (id <= 0) return BookingResult.failure(ErrorMessages.getVoyageIdMustPositiveString(id));
+        if (row_count < 1) return BookingResult.failure(ErrorMessages.getSeatRowMustPositiveString(row_count));
+        if (seat_price <= 0) return BookingResult.failure(ErrorMessages.getPriceMustPositiveString(seat_price));
+        if (refundCut < 0 || refundCut > 100) return BookingResult.failure(ErrorMessages.getRefundCutMustInRangeString(refundCut));
+        if (voyages.putIfAbsent(id, new Bookings(new StandardBus(id, row_count, routes.intern(departure, arrival), seat_price, refundCut))) != null){
+            return BookingResult.failure(ErrorMessages.getVoyageIdAlreadyUsingString(id));
+        }
+        return BookingResult.success(InfoMessages.getStandardVoyageInitializedString(id, departure, arrival, seat_price, row_count, refundCut), 0);
+    }
+
+    /**
+     * Adds a premium bus voyage to the system.
+     * @param id the voyage ID
+     * @param departure the departure location
+     * @param arrival the arrival location
+     * @param row_count the number of rows in the bus
+     * @param seat_price the price per seat
+     * @param refundCut the percentage cut for refunds
+     * @param premiumFee additional fee for premium seats
+     * @return the initialization message, or the first error
+     */
+    public BookingResult addPremiumVoyage(int id, String departure, String arrival, int row_count, long seat_price, int refundCut, int premiumFee){
+        if (id <= 0) return BookingResult.failure(ErrorMessages.getVoyageIdMustPositiveString(id));
+        if (row_count < 1) return BookingResult.failure(ErrorMessages.getSeatRowMustPositiveString(row_count));
+        if (seat_price <= 0) return BookingResult.failure(ErrorMessages.getPriceMustPositiveString(seat_price));
+        if (refundCut < 0 || refundCut > 100) return BookingResult.failure(ErrorMessages.getRefundCutMustInRangeString(refundCut));
+        if (premiumFee < 0) return BookingResult.failure(ErrorMessages.getPremiumFeeMustNonNegativeString(premiumFee));
+        PremiumBus premiumBus = new PremiumBus(id, row_count, routes.intern(departure, arrival), seat_price, refundCut, premiumFee);
+        if (voyages.putIfAbsent(id, new Bookings(premiumBus)) != null){
+            return BookingResult.failure(ErrorMessages.getVoyageIdAlreadyUsingString(id));
+        }
+        return BookingResult.success(InfoMessages.getPremiumVoyageInitializedString(id, departure, arrival, seat_price, row_count, premiumBus.getPremiumPrice(), refundCut), 0);
+    }
+
+    /**
+     * Adds a minibus voyage to the system.
+     * @param id the voyage ID
+     * @param departure the departure location
+     * @param arrival the arrival location
+     * @param row_count the number of rows in the minibus
+     * @param seat_price the price per seat
+     * @return the initialization message, or the first error
+     */
+    public BookingResult addMinibusVoyage(int id, String departure, String arrival, int row_count, long seat_price){
+        if (id <= 0) return BookingResult.failure(ErrorMessages.getVoyageIdMustPositiveString(id));
+        if (row_count < 1) return BookingResult.failure(ErrorMessages.getSeatRowMustPositiveString(row_count));
+        if (seat_price <= 0) return BookingResult.failure(ErrorMessages.getPriceMustPositiveString(seat_price));
+        if (voyages.putIfAbsent(id, new Bookings(new MiniBus(id, row_count, routes.intern(departure, arrival), seat_price))) != null){
+            return BookingResult.failure(ErrorMessages.getVoyageIdAlreadyUsingString(id));
+        }
+        return BookingResult.success(InfoMessages.getMinibusVoyageInitializedString(id, departure, arrival, seat_price, row_count), 0);
+    }
+
+    /**
+     * Returns the revenue of a voyage. The sum is exact only while no sale or refund is in flight.
+     * @param id the voyage ID
+     * @return the revenue in millionths of a lira, or 0 if there is no such voyage
+     */
+    public long getRevenue(int id){
+        Bookings bookings = voyages.get(id);
+        return bookings == null ? 0 : bookings.revenue.sum();
+    }
+
+    /**
+     * Returns the number of sold seats of a voyage. The count is exact only while no sale or refund is in flight.
+     * @param id the voyage ID
+     * @return the number of sold seats, or 0 if there is no such voyage
+     */
+    public int getSoldSeatCount(int id){
+        Bookings bookings = voyages.get(id);
+        return bookings == null ? 0 : bookings.seats.occupiedCount();
+    }
+
+    /**
+     * Checks if a seat of a voyage is sold.
+     * @param id the voyage ID
+     * @param seat the zero-based seat
+     * @return {@code true} if the voyage exists and the seat is sold
+     */
+    public boolean isSeatSold(int id, int seat){
+        Bookings bookings = voyages.get(id);
+        return bookings != null && bookings.seats.contains(seat) && bookings.seats.isOccupied(seat);
+    }
+
+    /**
+     * Checks that every seat of a request is positive and exists.
+     * @return the first error, or {@code null} if every seat is valid
+     */
+    private static BookingResult checkSeats(Bookings bookings, int[] seats){
+        for (int seat : seats){
+            if (seat < 0) return BookingResult.failure(ErrorMessages.getSeatIdMustPositiveString(seat));
+            if (!bookings.seats.contains(seat)) return BookingResult.failure(ErrorMessages.NO_SEAT);
+        }
+        return null;
+    }
+
+    /**
+     * Builds the error for an ID that does not name a voyage.
+     */
+    private static BookingResult voyageNotFound(int id){
+        if (id <= 0) return BookingResult.failure(ErrorMessages.getVoyageIdMustPositiveString(id));
+        return BookingResult.failure(ErrorMessages.getNoVoyageWithIdString(id));
+    }
+
+    /**
+     * The seats and revenue of one voyage.
+     */
+    private static final class Bookings {
+        private final Voyage voyage;
+        private final AtomicSeatMap seats;
+        private final LongAdder revenue = new LongAdder();
+
+        private Bookings(Voyage voyage) {
+            this.voyage = voyage;
+            this.seats = new AtomicSeatMap(voyage.getSeats().getCapacity());
+        }
+    }
+}
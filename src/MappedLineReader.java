@@ -0,0 +1,192 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * The {@code MappedLineReader} class reads the lines of a UTF-8 file straight out of a memory mapping, without a
+ * {@link String} per line. Lines end at {@code \n}, {@code \r} or {@code \r\n} like in
+ * {@link BufferedReader#readLine()}, and are returned trimmed like {@link String#trim()}.
+ * <p>
+ * A line that is pure ASCII, as every command except the city names of {@code INIT_VOYAGE} is, comes back as a
+ * view over the mapped bytes, one {@code char} per byte, so the {@link CommandParser} reads the bytes directly.
+ * Only lines with other bytes are decoded, replacing malformed input like {@link FileReader} does. The file is
+ * mapped a window at a time, so files larger than 2 GB can be read; a line that crosses the end of a window
+ * is read from a new window starting at that line.
+ */
+public class MappedLineReader implements Closeable {
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+    private ByteBuffer window = ByteBuffer.allocate(0);
+    private long windowStart;
+    private int position;
+    private boolean skipLineFeed;
+
+    private final ByteLine asciiLine = new ByteLine();
+    private final StringBuilder decodedLine = new StringBuilder(256);
+
+    /**
+     * Opens a file with the default window size.
+     *
+     * @param path The file to read.
+     * @throws IOException if the file cannot be opened.
+     */
+    public MappedLineReader(Path path) throws IOException {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Opens a file that is mapped the given number of bytes at a time.
+     *
+     * @param path The file to read.
+     * @param windowSize Number of bytes mapped at a time. Longer lines get a larger window of their own.
+     * @throws IOException if the file cannot be opened.
+     */
+    public MappedLineReader(Path path, int windowSize) throws IOException {
+        if (windowSize < 1) throw new IllegalArgumentException("Window size must be positive");
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Reads the next line and trims it. The returned sequence is reused and only valid until the next call.
+     *
+     * @return The trimmed line, or null at the end of the file.
+     * @throws IOException if the file cannot be mapped.
+     */
+    public CharSequence readLine() throws IOException {
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            if (ensureAvailable() && window.get(position) == '\n') position++;
+        }
+        if (!ensureAvailable()) return null;
+
+        int end = findLineEnd(position);
+        while (end < 0 && windowStart + window.limit() < fileSize) {
+            long lineStart = windowStart + position;
+            if (position == 0) {
+                if (window.limit() == Integer.MAX_VALUE) throw new IOException("Line at offset " + lineStart + " is longer than 2 GB");
+                map(lineStart, (int) Math.min(2L * window.limit(), Integer.MAX_VALUE));
+            } else {
+                map(lineStart, 0);
+            }
+            end = findLineEnd(position);
+        }
+
+        int start = position;
+        int lineEnd = end < 0 ? window.limit() : end;
+        if (end < 0) {
+            position = lineEnd;
+        } else {
+            position = end + 1;
+            if (window.get(end) == '\r') skipLineFeed = true;
+        }
+
+        while (start < lineEnd && (window.get(start) & 0xFF) <= ' ') start++;
+        while (lineEnd > start && (window.get(lineEnd - 1) & 0xFF) <= ' ') lineEnd--;
+        for (int i = start; i < lineEnd; i++) {
+            if (window.get(i) < 0) return decode(start, lineEnd);
+        }
+        asciiLine.reset(window, start, lineEnd - start);
+        return asciiLine;
+    }
+
+    /**
+     * Closes the file. Mapped windows stay valid until they are garbage collected.
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Maps the next window if the current one is used up.
+     *
+     * @return true if there is at least one more byte to read, false at the end of the file.
+     */
+    private boolean ensureAvailable() throws IOException {
+        if (position < window.limit()) return true;
+        long offset = windowStart + position;
+        if (offset >= fileSize) return false;
+        map(offset, 0);
+        return true;
+    }
+
+    /**
+     * Maps a window starting at the given file offset, at least {@code minimumSize} bytes long if the file allows.
+     */
+    private void map(long offset, int minimumSize) throws IOException {
+        long size = Math.min(fileSize - offset, Math.max(windowSize, minimumSize));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        windowStart = offset;
+        position = 0;
+    }
+
+    /**
+     * Returns the index of the first line terminator at or after the given index, or -1 if the window has none.
+     */
+    private int findLineEnd(int from) {
+        ByteBuffer bytes = window;
+        int limit = bytes.limit();
+        for (int i = from; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (b == '\n' || b == '\r') return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes a line that is not pure ASCII.
+     */
+    private CharSequence decode(int start, int end) {
+        decodedLine.setLength(0);
+        decodedLine.append(StandardCharsets.UTF_8.decode(window.duplicate().limit(end).position(start)));
+        return decodedLine;
+    }
+
+    /**
+     * An ASCII line inside a mapped window, read one byte per character.
+     */
+    private static final class ByteLine implements CharSequence {
+        private ByteBuffer bytes;
+        private int offset;
+        private int length;
+
+        private ByteLine() {
+        }
+
+        private ByteLine(ByteBuffer bytes, int offset, int length) {
+            reset(bytes, offset, length);
+        }
+
+        private void reset(ByteBuffer bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public char charAt(int index) {
+            if (index < 0 || index >= length) throw new IndexOutOfBoundsException("Index " + index + " out of length " + length);
+            return (char) bytes.get(offset + index);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of length " + length);
+            return new ByteLine(bytes, offset + start, end - start);
+        }
+
+        public String toString() {
+            byte[] copy = new byte[length];
+            bytes.get(offset, copy);
+            return new String(copy, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
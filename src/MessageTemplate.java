@@ -0,0 +1,155 @@
+import java.util.*;
+
+/**
+ * The {@code MessageTemplate} class is a message pattern compiled once into literal text and argument slots,
+ * so that rendering a message is a sequence of plain appends into a caller-supplied {@link StringBuilder}
+ * instead of a {@link String#format(String, Object...)} call that re-parses the pattern every time.
+ * <p>
+ * Patterns use the subset of {@link Formatter} syntax that the messages need: {@code %d} for integers,
+ * {@code %s} for text, {@code %.2f} for amounts of money (see {@link Money}) and {@code %%} for a percent sign.
+ * Arguments are supplied in order through an {@link Appender}:
+ * <pre>
+ * VOYAGE_ROUTE.appendTo(sb).arg(departure).arg(arrival).end();
+ * </pre>
+ */
+public final class MessageTemplate {
+    private final String[] literals;
+    private final char[] conversions;
+
+    private MessageTemplate(String[] literals, char[] conversions) {
+        this.literals = literals;
+        this.conversions = conversions;
+    }
+
+    /**
+     * Compiles a pattern into literal and argument segments.
+     *
+     * @param pattern The message pattern.
+     * @return The compiled template.
+     * @throws IllegalArgumentException if the pattern contains an unsupported conversion.
+     */
+    public static MessageTemplate compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        StringBuilder conversions = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                i++;
+            } else if (pattern.startsWith("%%", i)) {
+                literal.append('%');
+                i += 2;
+            } else if (pattern.startsWith("%d", i) || pattern.startsWith("%s", i)) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                conversions.append(pattern.charAt(i + 1));
+                i += 2;
+            } else if (pattern.startsWith("%.2f", i)) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                conversions.append('f');
+                i += 4;
+            } else {
+                throw new IllegalArgumentException("Unsupported conversion at index " + i + " of \"" + pattern + "\"");
+            }
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(literals.toArray(new String[0]), conversions.toString().toCharArray());
+    }
+
+    public int getArgumentCount() { return this.conversions.length; }
+
+    /**
+     * Starts rendering the template into a builder by appending the text before the first argument.
+     *
+     * @param sb The builder to append to.
+     * @return An appender that takes the arguments in order.
+     */
+    public Appender appendTo(StringBuilder sb) {
+        sb.append(literals[0]);
+        return new Appender(sb);
+    }
+
+    /**
+     * Takes the arguments of one rendering in order, appending each followed by the literal text after it.
+     */
+    public final class Appender {
+        private final StringBuilder sb;
+        private int next;
+
+        private Appender(StringBuilder sb) {
+            this.sb = sb;
+        }
+
+        /**
+         * Appends an integer argument for a {@code %d} slot.
+         *
+         * @param value The argument.
+         * @return This appender.
+         */
+        public Appender arg(long value) {
+            expect('d');
+            sb.append(value);
+            return advance();
+        }
+
+        /**
+         * Appends a text argument for a {@code %s} slot.
+         *
+         * @param value The argument.
+         * @return This appender.
+         */
+        public Appender arg(CharSequence value) {
+            expect('s');
+            sb.append(value);
+            return advance();
+        }
+
+        /**
+         * Appends an amount of money for a {@code %.2f} slot.
+         *
+         * @param amount The amount, in millionths of a lira.
+         * @return This appender.
+         */
+        public Appender money(long amount) {
+            expect('f');
+            Money.appendTo(sb, amount);
+            return advance();
+        }
+
+        /**
+         * Fills a {@code %s} slot with text the caller has already appended to the builder itself,
+         * for arguments such as lists that are cheaper to write in place than to turn into a string first.
+         *
+         * @return This appender.
+         */
+        public Appender appended() {
+            expect('s');
+            return advance();
+        }
+
+        /**
+         * Finishes the rendering.
+         *
+         * @return The builder the message was appended to.
+         * @throws IllegalStateException if an argument is missing.
+         */
+        public StringBuilder end() {
+            if (next != conversions.length) throw new IllegalStateException("Expected " + conversions.length + " arguments but got " + next);
+            return sb;
+        }
+
+        private void expect(char conversion) {
+            if (next == conversions.length || conversions[next] != conversion) {
+                throw new IllegalStateException("Argument " + next + " does not match the template");
+            }
+        }
+
+        private Appender advance() {
+            sb.append(literals[++next]);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * Represents a mini bus voyage, extending the Voyage class.
+ * It has no additional properties or methods specific to mini bus voyages.
+ */
+class MiniBus extends Voyage {
+    /**
+     * Constructs a MiniBus object with the provided parameters.
+     *
+     * @param id         The ID of the voyage.
+     * @param row_count  The number of rows in the mini bus.
+     * @param route      The route of the voyage.
+     * @param seat_price The price of each seat.
+     */
+    public MiniBus(int id, int row_count, RouteDictionary.Route route, long seat_price) {
+        super(id, row_count, route, 2, seat_price);
+    }
+}
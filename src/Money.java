@@ -0,0 +1,95 @@
+import java.math.*;
+
+/**
+ * The {@code Money} class holds the helpers for amounts of money stored as primitive {@code long}s in millionths of a lira.
+ * Six decimal places keep prices with two decimals exact through premium fees and refund cuts
+ * (a 799.99 TL seat with a 21% premium fee costs exactly 967.9879 TL), so revenue never drifts.
+ * Amounts are rounded to two decimals, half up, only when they are printed.
+ */
+public final class Money {
+    public static final int SCALE = 6;
+    public static final long ONE = 1_000_000L;
+    private static final long CENT = ONE / 100;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a whole number of liras to an amount.
+     *
+     * @param units Number of liras.
+     * @return The amount in millionths of a lira.
+     */
+    public static long of(long units) {
+        return Math.multiplyExact(units, ONE);
+    }
+
+    /**
+     * Parses a decimal number such as {@code 799.99} to an amount, rounding past six decimals half up.
+     *
+     * @param text The decimal text.
+     * @return The amount in millionths of a lira.
+     * @throws NumberFormatException if the text is not a decimal number.
+     * @throws ArithmeticException if the amount does not fit into a {@code long}.
+     */
+    public static long parse(String text) {
+        return new BigDecimal(text).setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Applies a percentage to an amount, rounding half up to the nearest millionth.
+     *
+     * @param amount The base amount.
+     * @param percent The percentage, e.g. 120 for a 20% premium or 90 for a 10% refund cut.
+     * @return {@code amount * percent / 100}.
+     */
+    public static long percentOf(long amount, int percent) {
+        long scaled = Math.multiplyExact(amount, (long) percent);
+        long quotient = scaled / 100;
+        long remainder = scaled % 100;
+        if (remainder >= 50) quotient++;
+        else if (remainder <= -50) quotient--;
+        return quotient;
+    }
+
+    /**
+     * Returns the whole liras of an amount, truncated toward zero.
+     *
+     * @param amount The amount.
+     * @return The integer part of the amount.
+     */
+    public static long toUnits(long amount) {
+        return amount / ONE;
+    }
+
+    /**
+     * Appends an amount with exactly two decimals, rounding half up, as {@code String.format("%.2f")} does.
+     *
+     * @param sb The builder to append to.
+     * @param amount The amount.
+     * @return The same builder.
+     */
+    public static StringBuilder appendTo(StringBuilder sb, long amount) {
+        long magnitude = amount;
+        if (amount < 0) {
+            sb.append('-');
+            magnitude = -amount;
+        }
+        long cents = magnitude / CENT;
+        if (magnitude % CENT >= CENT / 2) cents++;
+        sb.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) sb.append('0');
+        return sb.append(fraction);
+    }
+
+    /**
+     * Formats an amount with exactly two decimals, rounding half up.
+     *
+     * @param amount The amount.
+     * @return The formatted amount.
+     */
+    public static String format(long amount) {
+        return appendTo(new StringBuilder(24), amount).toString();
+    }
+}
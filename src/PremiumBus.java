@@ -0,0 +1,142 @@
+/**
+ * Represents a premium bus voyage, extending the Voyage class.
+ * It has additional properties and methods specific to premium bus voyages.
+ */
+class PremiumBus extends Voyage {
+    private int refundCut;
+    private int premiumFee;
+    private long refundAmount;
+    private long premiumPrice;
+    private long premiumRefundAmount;
+
+    /**
+     * Constructs a PremiumBus object with the provided parameters.
+     *
+     * @param id         The ID of the voyage.
+     * @param row_count  The number of rows in the bus.
+     * @param route      The route of the voyage.
+     * @param seat_price The price of each seat.
+     * @param refundCut  The percentage cut for refunds.
+     * @param premiumFee The additional fee for premium seats.
+     */
+    public PremiumBus(int id, int row_count, RouteDictionary.Route route, long seat_price, int refundCut, int premiumFee) {
+        super(id, row_count, route, 3, seat_price);
+        this.refundCut = refundCut;
+        this.premiumFee = premiumFee;
+        refundAmount = Money.percentOf(seat_price, 100 - refundCut);
+        premiumPrice = Money.percentOf(seat_price, 100 + premiumFee);
+        premiumRefundAmount = Money.percentOf(premiumPrice, 100 - refundCut);
+    }
+
+    public int getRefundCut() { return this.refundCut; }
+    public int getPremiumFee() { return this.premiumFee; }
+
+    /**
+     * Returns the refund amount for regular seats.
+     *
+     * @return The refund amount for regular seats.
+     */
+    public long getRefundAmount() {
+        return this.refundAmount;
+    }
+
+    /**
+     * Returns the price of premium seats.
+     *
+     * @return The price of premium seats.
+     */
+    public long getPremiumPrice() {
+        return this.premiumPrice;
+    }
+
+    /**
+     * Returns the refund amount for premium seats.
+     *
+     * @return The refund amount for premium seats.
+     */
+    public long getPremiumRefundAmount() {
+        return this.premiumRefundAmount;
+    }
+
+    /**
+     * Checks if the given seat number is a premium seat.
+     *
+     * @param seatNumber The seat number to check.
+     * @return true if the seat is a premium seat, false otherwise.
+     */
+    public boolean isPremiumSeat(int seatNumber) {
+        return seatNumber % this.getColumnCount() == 0;
+    }
+
+    public int getPremiumSeatCount() {
+        return this.getRowCount();
+    }
+
+    public long getTicketPrice(int seatNumber) {
+        return isPremiumSeat(seatNumber) ? this.premiumPrice : this.getSeatPrice();
+    }
+
+    public long getTicketRefund(int seatNumber) {
+        return isPremiumSeat(seatNumber) ? this.premiumRefundAmount : this.refundAmount;
+    }
+
+    /**
+     * Sells a ticket for the specified seat number.
+     * If the seat is a premium seat, the premium price is charged.
+     * Otherwise, the regular seat price is charged.
+     *
+     * @param seatNumber The seat number for which to sell the ticket.
+     */
+    public void sellTicket(int seatNumber) {
+        if (isPremiumSeat(seatNumber)) {
+            changeSeatStatus(seatNumber);
+            increaseRevenue(this.getPremiumPrice());
+        } else {
+            changeSeatStatus(seatNumber);
+            increaseRevenue(this.getSeatPrice());
+        }
+    }
+
+    /**
+     * Refunds a ticket for the specified seat number.
+     * If the seat is a premium seat, the premium refund amount is deducted.
+     * Otherwise, the regular refund amount is deducted.
+     *
+     * @param seatNumber The seat number for which to refund the ticket.
+     */
+    public void refundTicket(int seatNumber) {
+        if (isPremiumSeat(seatNumber)) {
+            changeSeatStatus(seatNumber);
+            increaseRevenue(-this.getPremiumRefundAmount());
+        } else {
+            changeSeatStatus(seatNumber);
+            increaseRevenue(-this.getRefundAmount());
+        }
+    }
+
+    public void processVoyageCancelling(ReportWriter out) {
+        out.println(InfoMessages.appendVoyageSuccesfullyCancelled(out.line(), this.getId()));
+        out.println(InfoMessages.VOYAGE_DETAILS);
+        out.println(InfoMessages.appendVoyage(out.line(), this.getId()));
+        out.println(getRoute().getLine());
+        
+        SeatMap seats = getSeats();
+        int column_count = getColumnCount();
+
+        for (int seat = seats.nextOccupiedSeat(0); seat >= 0; seat = seats.nextOccupiedSeat(seat + 1)) {
+            if(isPremiumSeat(seat)) increaseRevenue(-this.getPremiumPrice());
+            else increaseRevenue(-this.getSeatPrice());
+        }
+        int seat = 0;
+        for (int i = 0; i < this.getRowCount(); i++) {
+            for (int j = 0; j < this.getColumnCount(); j++) {
+                out.print(seats.isOccupied(seat++) ? 'X' : '*');
+                if (column_count == 3 && j == 0) out.print(" |");
+                // if (column_count == 4 && j == 1) out.print(" |");
+                if (j != column_count - 1) out.print(' ');
+            }
+            out.println();
+        }
+        out.println(InfoMessages.appendRevenueMessage(out.line(), this.getRevenue()));
+    }
+}
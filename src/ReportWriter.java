@@ -0,0 +1,196 @@
+import java.io.*;
+
+/**
+ * The {@code ReportWriter} class is the output sink for every message produced while executing commands.
+ * Text is collected in a private character buffer and handed to the underlying {@link Writer} in large chunks,
+ * only when the buffer reaches its flush threshold or when {@link #flush()} / {@link #close()} is called.
+ * Unlike {@link PrintStream}, it is neither synchronized nor auto-flushing.
+ * <p>
+ * A report writer can be told to omit the final line break of the report. It then holds back a line break
+ * that ends a chunk until more text follows, and drops it on {@link #close()}, so the output never has to be
+ * truncated afterwards and may just as well be a pipe.
+ */
+public class ReportWriter implements Closeable, Flushable {
+    public static final int DEFAULT_FLUSH_THRESHOLD = 1 << 16;
+
+    private final Writer writer;
+    private final char[] buffer;
+    private int position;
+    private final boolean omitFinalNewline;
+    private boolean pendingNewline;
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * Constructs a report writer with the default flush threshold.
+     *
+     * @param writer The writer that receives the buffered text.
+     */
+    public ReportWriter(Writer writer) {
+        this(writer, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    /**
+     * Constructs a report writer that flushes whenever the given number of characters is buffered.
+     *
+     * @param writer The writer that receives the buffered text.
+     * @param flushThreshold Number of characters buffered before they are written out.
+     */
+    public ReportWriter(Writer writer, int flushThreshold) {
+        this(writer, flushThreshold, false);
+    }
+
+    /**
+     * Constructs a report writer that flushes whenever the given number of characters is buffered.
+     *
+     * @param writer The writer that receives the buffered text.
+     * @param flushThreshold Number of characters buffered before they are written out.
+     * @param omitFinalNewline Whether a line break at the very end of the report is left out.
+     */
+    public ReportWriter(Writer writer, int flushThreshold, boolean omitFinalNewline) {
+        if (flushThreshold < 1) throw new IllegalArgumentException("Flush threshold must be positive");
+        this.writer = writer;
+        this.buffer = new char[flushThreshold];
+        this.omitFinalNewline = omitFinalNewline;
+    }
+
+    /**
+     * Appends a single character.
+     *
+     * @param c The character to append.
+     */
+    public void print(char c) {
+        if (position == buffer.length) flushBuffer();
+        buffer[position++] = c;
+    }
+
+    /**
+     * Appends a string, splitting it across flushes if it does not fit into the buffer.
+     *
+     * @param text The text to append.
+     */
+    public void print(String text) {
+        int length = text.length();
+        int offset = 0;
+        while (offset < length) {
+            if (position == buffer.length) flushBuffer();
+            int count = Math.min(length - offset, buffer.length - position);
+            text.getChars(offset, offset + count, buffer, position);
+            position += count;
+            offset += count;
+        }
+    }
+
+    /**
+     * Appends a character sequence, copying straight out of a {@link StringBuilder} without creating a string.
+     *
+     * @param text The text to append.
+     */
+    public void print(CharSequence text) {
+        if (!(text instanceof StringBuilder)) {
+            print(text.toString());
+            return;
+        }
+        print(text, 0, text.length());
+    }
+
+    /**
+     * Appends part of a character sequence, copying straight out of a {@link StringBuilder} without creating a string.
+     *
+     * @param text The text to take the characters from.
+     * @param start Index of the first character to append.
+     * @param end Index after the last character to append.
+     */
+    public void print(CharSequence text, int start, int end) {
+        if (!(text instanceof StringBuilder)) {
+            print(text.subSequence(start, end).toString());
+            return;
+        }
+        StringBuilder sb = (StringBuilder) text;
+        int offset = start;
+        while (offset < end) {
+            if (position == buffer.length) flushBuffer();
+            int count = Math.min(end - offset, buffer.length - position);
+            sb.getChars(offset, offset + count, buffer, position);
+            position += count;
+            offset += count;
+        }
+    }
+
+    /**
+     * Appends a character sequence followed by a line break.
+     *
+     * @param text The text to append.
+     */
+    public void println(CharSequence text) {
+        print(text);
+        print('\n');
+    }
+
+    /**
+     * Returns an emptied scratch builder for composing a message, typically with the {@code append...} methods of
+     * {@link InfoMessages} and {@link ErrorMessages}, before passing it to {@link #println(CharSequence)}.
+     * The builder is reused by the next call.
+     *
+     * @return The scratch builder.
+     */
+    public StringBuilder line() {
+        line.setLength(0);
+        return line;
+    }
+
+    /**
+     * Appends a string followed by a line break.
+     *
+     * @param text The text to append.
+     */
+    public void println(String text) {
+        print(text);
+        print('\n');
+    }
+
+    /**
+     * Appends a line break.
+     */
+    public void println() {
+        print('\n');
+    }
+
+    /**
+     * Writes the buffered text to the underlying writer and flushes it. A line break held back as possibly
+     * the final one stays held back.
+     */
+    public void flush() {
+        flushBuffer();
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flushes the remaining text and closes the underlying writer, dropping a held back final line break.
+     */
+    public void close() throws IOException {
+        flushBuffer();
+        writer.close();
+    }
+
+    /**
+     * Hands the buffered characters to the underlying writer without flushing it, holding back a trailing
+     * line break if the final one is to be omitted.
+     */
+    private void flushBuffer() {
+        if (position == 0) return;
+        try {
+            if (pendingNewline) writer.write('\n');
+            int count = position;
+            pendingNewline = omitFinalNewline && buffer[count - 1] == '\n';
+            if (pendingNewline) count--;
+            writer.write(buffer, 0, count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        position = 0;
+    }
+}
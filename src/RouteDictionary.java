@@ -0,0 +1,129 @@
+import java.util.*;
+
+/**
+ * The {@code RouteDictionary} class interns city names and routes to small {@code int} IDs, so that millions of
+ * voyages over a few hundred cities share one copy of every name. A {@link Voyage} keeps the interned route, which
+ * holds the IDs and names of its two cities and its route line ({@code "<departure>-<arrival>"}), rendered once
+ * when the route is first seen.
+ * <p>
+ * Every voyage manager owns its dictionary, so independent managers do not share state and route IDs are only
+ * meaningful within one manager. Interning takes the lock of the dictionary, which only matters to the managers
+ * that initialize voyages from several threads; lookups by ID read an array that is only ever replaced by a
+ * larger copy, so they need no lock and are safe from any thread that obtained the ID.
+ */
+public final class RouteDictionary {
+    private final Map<String, Integer> cityIds = new HashMap<>();
+    private final Map<Long, Integer> routeIds = new HashMap<>();
+    private volatile String[] cities = new String[16];
+    private volatile Route[] routes = new Route[16];
+    private int cityCount;
+    private int routeCount;
+
+    /**
+     * A route between two cities, as interned by {@link #intern(String, String)}.
+     */
+    public static final class Route {
+        private final int id;
+        private final int departureId;
+        private final int arrivalId;
+        private final String departure;
+        private final String arrival;
+        private final String line;
+
+        private Route(int id, int departureId, int arrivalId, String departure, String arrival) {
+            this.id = id;
+            this.departureId = departureId;
+            this.arrivalId = arrivalId;
+            this.departure = departure;
+            this.arrival = arrival;
+            this.line = InfoMessages.getVoyageRouteString(departure, arrival);
+        }
+
+        public int getId() { return this.id; }
+        public int getDepartureId() { return this.departureId; }
+        public int getArrivalId() { return this.arrivalId; }
+        public String getDeparture() { return this.departure; }
+        public String getArrival() { return this.arrival; }
+
+        /**
+         * Returns the rendered route line, as {@link InfoMessages#getVoyageRouteString(String, String)} formats it.
+         *
+         * @return The route line without a line break.
+         */
+        public String getLine() { return this.line; }
+    }
+
+    /**
+     * Returns the ID of a city, interning its name if it has not been seen before.
+     *
+     * @param city The city name.
+     * @return The city ID.
+     */
+    public synchronized int internCity(String city) {
+        Integer id = cityIds.get(city);
+        if (id != null) return id;
+        String[] names = cities;
+        if (cityCount == names.length) names = Arrays.copyOf(names, cityCount * 2);
+        names[cityCount] = city;
+        cities = names;
+        cityIds.put(city, cityCount);
+        return cityCount++;
+    }
+
+    /**
+     * Returns a route, interning its cities and the route itself if they have not been seen before.
+     *
+     * @param departure The departure city.
+     * @param arrival The arrival city.
+     * @return The interned route.
+     */
+    public synchronized Route intern(String departure, String arrival) {
+        int departureId = internCity(departure);
+        int arrivalId = internCity(arrival);
+        Long key = ((long) departureId << 32) | arrivalId;
+        Integer id = routeIds.get(key);
+        if (id != null) return routes[id];
+        Route[] table = routes;
+        if (routeCount == table.length) table = Arrays.copyOf(table, routeCount * 2);
+        Route route = new Route(routeCount, departureId, arrivalId, cities[departureId], cities[arrivalId]);
+        table[routeCount] = route;
+        routes = table;
+        routeIds.put(key, routeCount++);
+        return route;
+    }
+
+    /**
+     * Returns the ID of a route if it has been interned.
+     *
+     * @param departure The departure city.
+     * @param arrival The arrival city.
+     * @return The route ID, or -1 if no voyage of this dictionary has ever used this route.
+     */
+    public synchronized int find(String departure, String arrival) {
+        Integer departureId = cityIds.get(departure);
+        Integer arrivalId = cityIds.get(arrival);
+        if (departureId == null || arrivalId == null) return -1;
+        Integer id = routeIds.get(((long) departureId << 32) | arrivalId);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns an interned route.
+     *
+     * @param id The route ID.
+     * @return The route.
+     */
+    public Route route(int id) {
+        return routes[id];
+    }
+
+    /**
+     * Returns the name of an interned city.
+     *
+     * @param id The city ID.
+     * @return The city name.
+     */
+    public String city(int id) {
+        return cities[id];
+    }
+}
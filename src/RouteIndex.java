@@ -0,0 +1,101 @@
+import java.util.*;
+
+/**
+ * The {@code RouteIndex} class indexes voyages by their route, as interned in the {@link RouteDictionary} of
+ * its manager.
+ * Route IDs are small and dense, so the index is an array with one list per route, and every list is kept
+ * sorted by voyage ID. Looking up the voyages of a route therefore costs one array access, and listing them
+ * costs nothing beyond the voyages themselves.
+ * <p>
+ * New voyages usually have the largest ID on their route and are appended; others are inserted in place.
+ */
+public class RouteIndex {
+    private static final Voyage[] NONE = new Voyage[0];
+
+    private Voyage[][] lists = new Voyage[64][];
+    private int[] sizes = new int[64];
+
+    /**
+     * Adds a voyage to the list of its route.
+     *
+     * @param voyage The voyage to add.
+     */
+    public void add(Voyage voyage) {
+        int route = voyage.getRouteId();
+        if (route >= lists.length) {
+            int capacity = Math.max(route + 1, lists.length * 2);
+            lists = Arrays.copyOf(lists, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        Voyage[] list = lists[route];
+        int size = sizes[route];
+        if (list == null) list = lists[route] = new Voyage[4];
+        else if (size == list.length) list = lists[route] = Arrays.copyOf(list, size * 2);
+
+        int index = size;
+        if (size > 0 && list[size - 1].getId() > voyage.getId()) {
+            index = -indexOf(list, size, voyage.getId()) - 1;
+            System.arraycopy(list, index, list, index + 1, size - index);
+        }
+        list[index] = voyage;
+        sizes[route] = size + 1;
+    }
+
+    /**
+     * Removes a voyage from the list of its route.
+     *
+     * @param voyage The voyage to remove.
+     */
+    public void remove(Voyage voyage) {
+        int route = voyage.getRouteId();
+        if (route >= lists.length || lists[route] == null) return;
+        Voyage[] list = lists[route];
+        int size = sizes[route];
+        int index = indexOf(list, size, voyage.getId());
+        if (index < 0) return;
+        System.arraycopy(list, index + 1, list, index, size - index - 1);
+        list[size - 1] = null;
+        sizes[route] = size - 1;
+    }
+
+    /**
+     * Returns the voyages of a route sorted by ID. Only the first {@link #count(int)} entries are valid,
+     * and the array must not be modified.
+     *
+     * @param route The route ID, or -1 for a route that was never interned.
+     * @return The voyages of the route.
+     */
+    public Voyage[] voyagesOn(int route) {
+        if (route < 0 || route >= lists.length || lists[route] == null) return NONE;
+        return lists[route];
+    }
+
+    /**
+     * Returns the number of voyages on a route.
+     *
+     * @param route The route ID, or -1 for a route that was never interned.
+     * @return The number of voyages.
+     */
+    public int count(int route) {
+        if (route < 0 || route >= sizes.length) return 0;
+        return sizes[route];
+    }
+
+    /**
+     * Binary search for a voyage ID in the first {@code size} entries of a list.
+     *
+     * @return The index of the ID, or {@code -(insertion point) - 1} if it is not there.
+     */
+    private static int indexOf(Voyage[] list, int size, int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = list[middle].getId();
+            if (middleId < id) low = middle + 1;
+            else if (middleId > id) high = middle - 1;
+            else return middle;
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * The {@code SeatAllocator} class picks free seats of a voyage for {@code ALLOCATE_SEATS}, preferring seats that
+ * sit next to each other in one row. Seats are adjacent when no aisle separates them, so the blocks of a row follow
+ * the column count of the voyage:
+ * <ul>
+ *   <li>2 columns: one block of two, window seat on the left and aisle seat on the right;</li>
+ *   <li>3 columns (1+2): a single seat, which is both window and aisle seat, then a block of two;</li>
+ *   <li>4 columns (2+2): two blocks of two, window seats outside and aisle seats inside.</li>
+ * </ul>
+ * A row has at most four seats, so its free seats form one of only sixteen masks. The allocator keeps a segment
+ * tree over the rows in which every node holds the set of masks that occur below it, as a 16-bit set. Any question
+ * about a single row ("is there a free adjacent pair of window seats?") becomes the set of masks that answer it,
+ * and the first row that matches is found by descending the tree, in time logarithmic in the number of rows.
+ * <p>
+ * The allocator reads the {@link SeatMap} of the voyage, and the map of its held seats if it has one, and must be
+ * told about every seat that changes. Held seats are not free.
+ */
+public class SeatAllocator {
+    public static final int WINDOW = 1;
+    public static final int AISLE = 2;
+    public static final int PREMIUM = 4;
+    public static final int REGULAR = 8;
+
+    private static final int STATES = 16;
+
+    private final SeatMap seats;
+    private final SeatMap held;
+    private final int rowCount;
+    private final int columnCount;
+    private final int rowMask;
+    private final int[] blocks;
+    private final int windowColumns;
+    private final int aisleColumns;
+    private final int premiumColumns;
+    private final int leaves;
+    private final char[] tree;
+
+    /**
+     * Constructs an allocator over the current occupancy of a voyage.
+     *
+     * @param seats The seat map of the voyage.
+     * @param held The seats of the voyage that are on hold, or null if it has none.
+     * @param rowCount Number of rows of seats.
+     * @param columnCount Number of columns of seats: 2, 3 or 4.
+     * @param premiumColumns One bit per premium column, the first column in the lowest bit.
+     */
+    public SeatAllocator(SeatMap seats, SeatMap held, int rowCount, int columnCount, int premiumColumns) {
+        switch (columnCount) {
+            case 2:
+                this.blocks = new int[] {0b11};
+                this.windowColumns = 0b01;
+                this.aisleColumns = 0b10;
+                break;
+            case 3:
+                this.blocks = new int[] {0b001, 0b110};
+                this.windowColumns = 0b101;
+                this.aisleColumns = 0b011;
+                break;
+            case 4:
+                this.blocks = new int[] {0b0011, 0b1100};
+                this.windowColumns = 0b1001;
+                this.aisleColumns = 0b0110;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported column count " + columnCount);
+        }
+        this.seats = seats;
+        this.held = held;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowMask = (1 << columnCount) - 1;
+        this.premiumColumns = premiumColumns & rowMask;
+
+        int size = 1;
+        while (size < rowCount) size <<= 1;
+        this.leaves = size;
+        this.tree = new char[2 * size];
+        for (int row = 0; row < rowCount; row++) {
+            tree[size + row] = state(row);
+        }
+        for (int node = size - 1; node > 0; node--) {
+            tree[node] = (char) (tree[2 * node] | tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Parses the preferences of an {@code ALLOCATE_SEATS} command, such as {@code window} or {@code aisle_premium}.
+     *
+     * @param token Preference words joined by underscores: {@code window}, {@code aisle}, {@code premium}, {@code regular}.
+     * @return The preferences as a combination of {@link #WINDOW}, {@link #AISLE}, {@link #PREMIUM} and {@link #REGULAR}.
+     * @throws IllegalArgumentException if a word is not a known preference.
+     */
+    public static int parsePreferences(String token) {
+        int preferences = 0;
+        for (String word : token.split("_", -1)) {
+            switch (word) {
+                case "window": preferences |= WINDOW; break;
+                case "aisle": preferences |= AISLE; break;
+                case "premium": preferences |= PREMIUM; break;
+                case "regular": preferences |= REGULAR; break;
+                default: throw new IllegalArgumentException("Unknown seat preference " + word);
+            }
+        }
+        return preferences;
+    }
+
+    /**
+     * Updates the summary of the row of a seat after the seat was sold, refunded, held or released.
+     *
+     * @param seat Linear index of the seat that changed.
+     */
+    public void update(int seat) {
+        int row = seat / columnCount;
+        int node = leaves + row;
+        tree[node] = state(row);
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            tree[node] = (char) (tree[2 * node] | tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Picks free seats that satisfy the preferences, without taking them. Seats next to each other in one row are
+     * preferred, then seats in one row, and otherwise the free seats of the first rows are used.
+     *
+     * @param count Number of seats to pick.
+     * @param preferences A combination of {@link #WINDOW}, {@link #AISLE}, {@link #PREMIUM} and {@link #REGULAR}.
+     * @param result Array that receives the linear indexes of the seats in ascending order; at least {@code count} long.
+     * @return true if enough seats were found, false if there are fewer than {@code count} matching free seats.
+     */
+    public boolean allocate(int count, int preferences, int[] result) {
+        int eligible = eligibleColumns(preferences);
+        if (eligible == 0 || count <= 0) return false;
+
+        if (count <= columnCount) {
+            int row = nextRow(0, adjacentStates(count, eligible));
+            if (row >= 0) {
+                int start = firstRun(freeColumns(row) & eligible, count);
+                for (int i = 0; i < count; i++) result[i] = row * columnCount + start + i;
+                return true;
+            }
+            row = nextRow(0, countStates(count, eligible));
+            if (row >= 0) {
+                take(row, freeColumns(row) & eligible, result, 0, count);
+                return true;
+            }
+        }
+
+        int found = 0;
+        int anyStates = countStates(1, eligible);
+        for (int row = nextRow(0, anyStates); row >= 0 && found < count; row = nextRow(row + 1, anyStates)) {
+            found = take(row, freeColumns(row) & eligible, result, found, count);
+        }
+        return found == count;
+    }
+
+    /**
+     * Returns the columns that satisfy all the preferences.
+     */
+    private int eligibleColumns(int preferences) {
+        int columns = rowMask;
+        if ((preferences & WINDOW) != 0) columns &= windowColumns;
+        if ((preferences & AISLE) != 0) columns &= aisleColumns;
+        if ((preferences & PREMIUM) != 0) columns &= premiumColumns;
+        if ((preferences & REGULAR) != 0) columns &= ~premiumColumns;
+        return columns;
+    }
+
+    /**
+     * Returns the free columns of a row, one bit per column.
+     */
+    private int freeColumns(int row) {
+        int taken = seats.occupancy(row * columnCount, columnCount);
+        if (held != null) taken |= held.occupancy(row * columnCount, columnCount);
+        return ~taken & rowMask;
+    }
+
+    /**
+     * Returns the leaf value of a row: the set that holds just the mask of its free columns.
+     */
+    private char state(int row) {
+        return (char) (1 << freeColumns(row));
+    }
+
+    /**
+     * Returns the set of row masks with {@code count} adjacent free seats in eligible columns.
+     */
+    private int adjacentStates(int count, int eligible) {
+        int states = 0;
+        for (int mask = 0; mask < STATES; mask++) {
+            if (firstRun(mask & eligible, count) >= 0) states |= 1 << mask;
+        }
+        return states;
+    }
+
+    /**
+     * Returns the set of row masks with at least {@code count} free seats in eligible columns.
+     */
+    private static int countStates(int count, int eligible) {
+        int states = 0;
+        for (int mask = 0; mask < STATES; mask++) {
+            if (Integer.bitCount(mask & eligible) >= count) states |= 1 << mask;
+        }
+        return states;
+    }
+
+    /**
+     * Returns the first column of the lowest run of {@code count} adjacent columns within one block, or -1.
+     */
+    private int firstRun(int columns, int count) {
+        int first = -1;
+        for (int block : blocks) {
+            int free = columns & block;
+            int runs = free;
+            for (int i = 1; i < count; i++) runs &= free >>> i;
+            if (runs != 0) {
+                int start = Integer.numberOfTrailingZeros(runs);
+                if (first < 0 || start < first) first = start;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Appends the seats of the given columns of a row to the result until it holds {@code count} seats.
+     *
+     * @return The new number of seats in the result.
+     */
+    private int take(int row, int columns, int[] result, int found, int count) {
+        while (columns != 0 && found < count) {
+            result[found++] = row * columnCount + Integer.numberOfTrailingZeros(columns);
+            columns &= columns - 1;
+        }
+        return found;
+    }
+
+    /**
+     * Finds the first row at or after {@code from} whose mask is in the given set.
+     *
+     * @return The row, or -1 if there is none.
+     */
+    private int nextRow(int from, int states) {
+        if (from >= rowCount || states == 0) return -1;
+        int node = leaves + from;
+        while ((tree[node] & states) == 0) {
+            while ((node & 1) != 0) node >>>= 1;
+            if (node == 0) return -1;
+            node++;
+        }
+        while (node < leaves) {
+            node = (tree[2 * node] & states) != 0 ? 2 * node : 2 * node + 1;
+        }
+        return node - leaves;
+    }
+}
@@ -0,0 +1,197 @@
+import java.nio.*;
+
+/**
+ * The {@code SeatMap} class stores the occupancy of a voyage's seats as a bitset.
+ * Seats are addressed by their linear index (row * column count + column), one bit per seat,
+ * packed into 64-bit words so that counting and scanning work a word at a time.
+ */
+public class SeatMap {
+    private static final int WORD_SHIFT = 6;
+    private static final long WORD_MASK = -1L;
+
+    private final int capacity;
+    private final long[] words;
+
+    /**
+     * Constructs an empty seat map.
+     *
+     * @param capacity Total number of seats.
+     */
+    public SeatMap(int capacity) {
+        this.capacity = capacity;
+        this.words = new long[(capacity + 63) >>> WORD_SHIFT];
+    }
+
+    public int getCapacity() { return this.capacity; }
+
+    /**
+     * Checks if a seat index lies within the map.
+     *
+     * @param seat Linear index of the seat.
+     * @return true if the index is in range, false otherwise.
+     */
+    public boolean contains(int seat) {
+        return seat >= 0 && seat < capacity;
+    }
+
+    /**
+     * Checks if a seat is occupied.
+     *
+     * @param seat Linear index of the seat.
+     * @return true if the seat is occupied, false if it is empty.
+     */
+    public boolean isOccupied(int seat) {
+        return (words[seat >>> WORD_SHIFT] & (1L << seat)) != 0;
+    }
+
+    /**
+     * Reads the occupancy of up to 32 consecutive seats at once.
+     *
+     * @param from Linear index of the first seat.
+     * @param count Number of seats to read, at most 32.
+     * @return One bit per seat, the first seat in the lowest bit, set if the seat is occupied.
+     */
+    public int occupancy(int from, int count) {
+        int index = from >>> WORD_SHIFT;
+        long bits = words[index] >>> from;
+        int read = 64 - (from & 63);
+        if (read < count && index + 1 < words.length) bits |= words[index + 1] << read;
+        return (int) bits & (int) ((1L << count) - 1);
+    }
+
+    /**
+     * Marks a seat as occupied.
+     *
+     * @param seat Linear index of the seat.
+     */
+    public void set(int seat) {
+        words[seat >>> WORD_SHIFT] |= 1L << seat;
+    }
+
+    /**
+     * Marks a seat as empty.
+     *
+     * @param seat Linear index of the seat.
+     */
+    public void clear(int seat) {
+        words[seat >>> WORD_SHIFT] &= ~(1L << seat);
+    }
+
+    /**
+     * Toggles a seat between occupied and empty.
+     *
+     * @param seat Linear index of the seat.
+     */
+    public void flip(int seat) {
+        words[seat >>> WORD_SHIFT] ^= 1L << seat;
+    }
+
+    /**
+     * Marks all the given seats as occupied.
+     *
+     * @param seats Linear indexes of the seats.
+     */
+    public void setAll(int[] seats) {
+        for (int seat : seats) {
+            words[seat >>> WORD_SHIFT] |= 1L << seat;
+        }
+    }
+
+    /**
+     * Marks all the given seats as empty.
+     *
+     * @param seats Linear indexes of the seats.
+     */
+    public void clearAll(int[] seats) {
+        for (int seat : seats) {
+            words[seat >>> WORD_SHIFT] &= ~(1L << seat);
+        }
+    }
+
+    /**
+     * Writes the words of the bitset, lowest seats first.
+     *
+     * @param buffer Buffer that receives {@code (capacity + 63) / 64} longs.
+     */
+    public void writeWords(LongBuffer buffer) {
+        buffer.put(words);
+    }
+
+    /**
+     * Replaces the occupancy of every seat with words written by {@link #writeWords(LongBuffer)}.
+     *
+     * @param buffer Buffer holding {@code (capacity + 63) / 64} longs.
+     */
+    public void readWords(LongBuffer buffer) {
+        buffer.get(words);
+    }
+
+    /**
+     * Returns the number of 64-bit words needed for a number of seats.
+     *
+     * @param capacity Total number of seats.
+     * @return Number of words.
+     */
+    public static int wordCount(int capacity) {
+        return (capacity + 63) >>> WORD_SHIFT;
+    }
+
+    /**
+     * Counts the occupied seats.
+     *
+     * @return Number of occupied seats.
+     */
+    public int occupiedCount() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the empty seats.
+     *
+     * @return Number of empty seats.
+     */
+    public int freeCount() {
+        return capacity - occupiedCount();
+    }
+
+    /**
+     * Finds the first occupied seat at or after the given index.
+     *
+     * @param from Linear index to start scanning from.
+     * @return Index of the next occupied seat, or -1 if there is none.
+     */
+    public int nextOccupiedSeat(int from) {
+        if (from >= capacity) return -1;
+        int index = from >>> WORD_SHIFT;
+        long word = words[index] & (WORD_MASK << from);
+        while (true) {
+            if (word != 0) return (index << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+            if (++index == words.length) return -1;
+            word = words[index];
+        }
+    }
+
+    /**
+     * Finds the first empty seat at or after the given index.
+     *
+     * @param from Linear index to start scanning from.
+     * @return Index of the next empty seat, or -1 if there is none.
+     */
+    public int nextFreeSeat(int from) {
+        if (from >= capacity) return -1;
+        int index = from >>> WORD_SHIFT;
+        long word = ~words[index] & (WORD_MASK << from);
+        while (true) {
+            if (word != 0) {
+                int seat = (index << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+                return seat < capacity ? seat : -1;
+            }
+            if (++index == words.length) return -1;
+            word = ~words[index];
+        }
+    }
+}
@@ -0,0 +1,335 @@
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ * The {@code ShardedCommandExecuter} class runs a command file on several threads. Voyages are partitioned by ID
+ * across single-threaded shards, each with its own {@link CommandExecuter} and {@link VoyageManager}, so commands
+ * on different voyages run on different cores without sharing any lock or data.
+ * <p>
+ * A router thread reads the input, numbers the commands and collects them, per shard, into batches that are
+ * handed to the shards a round at a time. A round lists which batch holds each of its commands, and the calling
+ * thread writes the rounds out in order, copying every command's output from its batch, so the report is
+ * identical to the one {@link CommandExecuter} produces alone. A {@code Z_REPORT} is a barrier: the router waits
+ * until every shard has finished its earlier commands and then reports the voyages of all shards in ID order.
+ * {@code FIND_VOYAGES} searches every shard in the same way, and so does {@code AVAILABILITY} without a voyage ID.
+ * A {@code BATCH} may change voyages of several shards and is committed the same way, all or nothing.
+ * <p>
+ * Every command carries its number in the input, and each shard advances its hold clock to that number before
+ * running it, so seat holds expire at the same command as without shards.
+ * <p>
+ * Commands without a usable voyage ID (unknown commands, erroneous usages, non-positive IDs) do not depend on
+ * any voyage and are executed by the first shard. At most {@link #MAX_PENDING_ROUNDS} rounds are in flight,
+ * which bounds memory when the output cannot keep up.
+ */
+public class ShardedCommandExecuter {
+    public static final int DEFAULT_ROUND_SIZE = 1024;
+    private static final int MAX_PENDING_ROUNDS = 16;
+    private static final Round END = new Round(0);
+
+    private final ReportWriter out;
+    private final int roundSize;
+    private final Shard[] shards;
+    private final ExecutorService[] workers;
+    private final CommandParser parser = new CommandParser();
+    private final TicketBatch ticketBatch = new TicketBatch();
+    private final BatchWriter reportSink = new BatchWriter();
+    private final ReportWriter reportOut = new ReportWriter(reportSink, 8192);
+
+    /**
+     * Constructs a sharded executer with the default round size.
+     *
+     * @param out Report writer that receives the output of every command, in input order.
+     * @param shardCount Number of shards, each running on its own thread.
+     */
+    public ShardedCommandExecuter(ReportWriter out, int shardCount) {
+        this(out, shardCount, DEFAULT_ROUND_SIZE);
+    }
+
+    /**
+     * Constructs a sharded executer.
+     *
+     * @param out Report writer that receives the output of every command, in input order.
+     * @param shardCount Number of shards, each running on its own thread.
+     * @param roundSize Number of commands handed to the shards at a time.
+     */
+    public ShardedCommandExecuter(ReportWriter out, int shardCount, int roundSize) {
+        if (shardCount < 1) throw new IllegalArgumentException("Shard count must be positive");
+        if (roundSize < 1) throw new IllegalArgumentException("Round size must be positive");
+        this.out = out;
+        this.roundSize = roundSize;
+        this.shards = new Shard[shardCount];
+        this.workers = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+            workers[i] = Executors.newSingleThreadExecutor(daemonThreads("booking-shard-" + i));
+        }
+    }
+
+    /**
+     * Executes every non-empty, trimmed line of the input and writes the results to the report writer,
+     * ending with a Z report unless the last command was one. Stops the shard threads when done.
+     *
+     * @param input The command lines.
+     * @throws IOException if the input cannot be read.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the shards.
+     */
+    public void execute(BufferedReader input) throws IOException, InterruptedException {
+        BlockingQueue<Round> rounds = new ArrayBlockingQueue<>(MAX_PENDING_ROUNDS);
+        ExecutorService router = Executors.newSingleThreadExecutor(daemonThreads("booking-router"));
+        try {
+            Future<?> routing = router.submit(() -> {
+                try {
+                    route(input, rounds);
+                } finally {
+                    rounds.put(END);
+                }
+                return null;
+            });
+            writeRounds(rounds);
+            await(routing);
+        } finally {
+            router.shutdownNow();
+            for (ExecutorService worker : workers) worker.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the commands and hands them to the shards, running the Z reports itself. Runs on the router thread.
+     */
+    private void route(BufferedReader input, BlockingQueue<Round> rounds) throws IOException, InterruptedException {
+        Batch[] pending = new Batch[shards.length];
+        Future<?>[] lastSubmitted = new Future<?>[shards.length];
+        Round round = new Round(roundSize);
+        String prevLine = "";
+        String line;
+        long time = 0;
+        while ((line = input.readLine()) != null) {
+            line = line.trim();
+            if (line.length() == 0) continue;
+            prevLine = line;
+            time++;
+
+            parser.reset(line);
+            if ((parser.tokenEquals(0, "Z_REPORT") && parser.getTokenCount() == 1)
+                    || (parser.tokenEquals(0, "FIND_VOYAGES") && parser.getTokenCount() == 3)
+                    || (parser.tokenEquals(0, "AVAILABILITY") && parser.getTokenCount() == 1)
+                    || parser.tokenEquals(0, "BATCH")) {
+                dispatch(round, pending, lastSubmitted, rounds);
+                rounds.put(acrossShards(line, time, lastSubmitted));
+                round = new Round(roundSize);
+                continue;
+            }
+
+            int shard = shardOf();
+            Batch batch = pending[shard];
+            if (batch == null) batch = pending[shard] = new Batch(roundSize);
+            batch.times[batch.count] = time;
+            batch.commands[batch.count++] = line;
+            round.batches[round.size++] = batch;
+            if (round.size == roundSize) {
+                dispatch(round, pending, lastSubmitted, rounds);
+                round = new Round(roundSize);
+            }
+        }
+        dispatch(round, pending, lastSubmitted, rounds);
+
+        // Check if the last command was not Z_REPORT
+        if (!prevLine.equals("Z_REPORT")) {
+            rounds.put(acrossShards(null, time, lastSubmitted));
+        }
+    }
+
+    /**
+     * Returns the shard that owns the voyage the parsed command refers to, or the first shard if there is none.
+     */
+    private int shardOf() {
+        int idToken;
+        if (parser.tokenEquals(0, "INIT_VOYAGE")) idToken = 2;
+        else if (parser.tokenEquals(0, "SELL_TICKET") || parser.tokenEquals(0, "REFUND_TICKET")
+                || parser.tokenEquals(0, "CANCEL_VOYAGE") || parser.tokenEquals(0, "PRINT_VOYAGE")
+                || parser.tokenEquals(0, "ALLOCATE_SEATS") || parser.tokenEquals(0, "AVAILABILITY")
+                || parser.tokenEquals(0, "HOLD_SEATS")) idToken = 1;
+        else return 0;
+
+        int id;
+        try {
+            id = parser.parseInt(idToken);
+        } catch (RuntimeException e) {
+            return 0;
+        }
+        return id > 0 ? id % shards.length : 0;
+    }
+
+    /**
+     * Submits the pending batches of a round to their shards and passes the round on to the writer.
+     */
+    private void dispatch(Round round, Batch[] pending, Future<?>[] lastSubmitted, BlockingQueue<Round> rounds) throws InterruptedException {
+        if (round.size == 0) return;
+        for (int i = 0; i < pending.length; i++) {
+            Batch batch = pending[i];
+            if (batch == null) continue;
+            Shard shard = shards[i];
+            batch.done = workers[i].submit(() -> shard.execute(batch));
+            lastSubmitted[i] = batch.done;
+            pending[i] = null;
+        }
+        rounds.put(round);
+    }
+
+    /**
+     * Waits until every shard is idle and then executes a command over all of them into a round of its own.
+     *
+     * @param command The Z_REPORT, FIND_VOYAGES, AVAILABILITY or BATCH command in the parser, or null for the closing Z report.
+     * @param time The number of the command in the input, to which the hold clock of every shard is advanced first.
+     */
+    private Round acrossShards(String command, long time, Future<?>[] lastSubmitted) throws InterruptedException {
+        for (Future<?> future : lastSubmitted) {
+            if (future != null) await(future);
+        }
+        VoyageManager[] managers = new VoyageManager[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            managers[i] = shards[i].executer.transportManager;
+            managers[i].advanceClock(time);
+        }
+
+        Batch batch = new Batch(1);
+        reportSink.target = batch.output;
+        if (command != null) reportOut.println(InfoMessages.appendCommandMessage(reportOut.line(), command));
+        if (command != null && parser.tokenEquals(0, "FIND_VOYAGES")) {
+            VoyageManager.findVoyages(reportOut, parser.getToken(1), parser.getToken(2), managers);
+        } else if (command != null && parser.tokenEquals(0, "AVAILABILITY")) {
+            VoyageManager.availability(reportOut, managers);
+        } else if (command != null && parser.tokenEquals(0, "BATCH")) {
+            boolean parsed = false;
+            try {
+                ticketBatch.parse(parser, 1);
+                parsed = true;
+            } catch (RuntimeException e) {
+                reportOut.println(ErrorMessages.appendErrorgousUsage(reportOut.line(), "BATCH"));
+            }
+            if (parsed) VoyageManager.commitBatch(reportOut, ticketBatch, managers);
+        } else {
+            VoyageManager.zReport(reportOut, managers);
+        }
+        reportOut.flush();
+        batch.count = 1;
+        batch.ends[0] = batch.output.length();
+        batch.done = CompletableFuture.completedFuture(null);
+
+        Round round = new Round(1);
+        round.batches[round.size++] = batch;
+        return round;
+    }
+
+    /**
+     * Writes the output of every round in command order. Runs on the calling thread.
+     */
+    private void writeRounds(BlockingQueue<Round> rounds) throws InterruptedException {
+        Round round;
+        while ((round = rounds.take()) != END) {
+            int i = 0;
+            while (i < round.size) {
+                Batch batch = round.batches[i];
+                await(batch.done);
+                int start = batch.emitted == 0 ? 0 : batch.ends[batch.emitted - 1];
+                while (i < round.size && round.batches[i] == batch) {
+                    batch.emitted++;
+                    i++;
+                }
+                out.print(batch.output, start, batch.ends[batch.emitted - 1]);
+            }
+        }
+    }
+
+    /**
+     * Waits for a task, rethrowing its failure unchecked.
+     */
+    private static void await(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            if (cause instanceof IOException) throw new UncheckedIOException((IOException) cause);
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One partition of the voyages, with the executer that owns it. Only ever used by one thread at a time.
+     */
+    private static final class Shard {
+        private final BatchWriter sink = new BatchWriter();
+        private final CommandExecuter executer = new CommandExecuter(new ReportWriter(sink, 8192));
+
+        /**
+         * Executes the commands of a batch, recording where the output of each one ends.
+         */
+        private void execute(Batch batch) {
+            sink.target = batch.output;
+            for (int i = 0; i < batch.count; i++) {
+                executer.executeCommand(batch.commands[i], batch.times[i]);
+                executer.out.flush();
+                batch.ends[i] = batch.output.length();
+            }
+        }
+    }
+
+    /**
+     * The commands of one round that belong to one shard, and their output once the shard has run them.
+     */
+    private static final class Batch {
+        private final String[] commands;
+        private final long[] times;
+        private final int[] ends;
+        private final StringBuilder output;
+        private int count;
+        private Future<?> done;
+        private int emitted;
+
+        private Batch(int capacity) {
+            this.commands = new String[capacity];
+            this.times = new long[capacity];
+            this.ends = new int[capacity];
+            this.output = new StringBuilder(Math.min(capacity, 64) * 64);
+        }
+    }
+
+    /**
+     * The batches holding the commands of one round, in command order.
+     */
+    private static final class Round {
+        private final Batch[] batches;
+        private int size;
+
+        private Round(int capacity) {
+            this.batches = new Batch[capacity];
+        }
+    }
+
+    /**
+     * Writer that appends everything to the output of the batch being executed.
+     */
+    private static final class BatchWriter extends Writer {
+        private StringBuilder target;
+
+        public void write(char[] chars, int offset, int length) {
+            target.append(chars, offset, length);
+        }
+
+        public void flush() {
+        }
+
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,181 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.zip.*;
+
+/**
+ * The {@code Snapshot} class writes the complete state of a {@link VoyageManager} to a compact binary file and
+ * restores it in a single pass, so that startup does not have to replay a long {@link Journal}.
+ * <p>
+ * The file is little-endian: a 24-byte header (magic, version, journal offset, voyage count), then every voyage in
+ * ID order as {@code [type][id][rows][seat price][refund cut][premium fee][revenue][departure][arrival][seat words]}
+ * with cities as length-prefixed UTF-8 and the seat bitmap as raw 64-bit words, and finally a CRC32C of
+ * everything before it. A snapshot is captured into memory between two commands and can then be written by any
+ * thread; it goes to a temporary file that is forced to disk and atomically renamed over the previous snapshot,
+ * so a crash never leaves a partial one behind. Loading memory-maps the file.
+ */
+public final class Snapshot {
+    private static final int MAGIC = 0x534D4242; // "BBMS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int VOYAGE_SIZE = 1 + 4 + 4 + 8 + 4 + 4 + 8 + 2 + 2;
+
+    private static final byte STANDARD = 1;
+    private static final byte PREMIUM = 2;
+    private static final byte MINIBUS = 3;
+
+    private final ByteBuffer data;
+    private final long journalOffset;
+
+    private Snapshot(ByteBuffer data, long journalOffset) {
+        this.data = data;
+        this.journalOffset = journalOffset;
+    }
+
+    public long getJournalOffset() { return this.journalOffset; }
+
+    /**
+     * Serializes every voyage of a manager into memory. Must be called on the thread that executes the commands.
+     *
+     * @param manager The manager to capture.
+     * @param journalOffset The journal's {@link Journal#getEndOffset() end offset} at this moment, or 0 without a journal.
+     * @return The captured snapshot.
+     */
+    public static Snapshot capture(VoyageManager manager, long journalOffset) {
+        VoyageMap voyages = manager.getVoyages();
+        Voyage[] ordered = voyages.inIdOrder();
+        int count = voyages.size();
+
+        byte[][] cities = new byte[count * 2][];
+        long size = HEADER_SIZE + 4;
+        for (int i = 0; i < count; i++) {
+            Voyage voyage = ordered[i];
+            cities[2 * i] = encode(voyage.getDeparture());
+            cities[2 * i + 1] = encode(voyage.getArrival());
+            size += VOYAGE_SIZE + cities[2 * i].length + cities[2 * i + 1].length
+                    + 8L * SeatMap.wordCount(voyage.getSeats().getCapacity());
+        }
+        if (size > Integer.MAX_VALUE) throw new IllegalStateException("Snapshot of " + size + " bytes is too large");
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(journalOffset).putInt(count).putInt(0);
+        for (int i = 0; i < count; i++) {
+            Voyage voyage = ordered[i];
+            int refundCut = 0;
+            int premiumFee = 0;
+            byte type;
+            if (voyage instanceof PremiumBus) {
+                type = PREMIUM;
+                refundCut = ((PremiumBus) voyage).getRefundCut();
+                premiumFee = ((PremiumBus) voyage).getPremiumFee();
+            } else if (voyage instanceof StandardBus) {
+                type = STANDARD;
+                refundCut = ((StandardBus) voyage).getRefundCut();
+            } else {
+                type = MINIBUS;
+            }
+            buffer.put(type).putInt(voyage.getId()).putInt(voyage.getRowCount()).putLong(voyage.getSeatPrice())
+                    .putInt(refundCut).putInt(premiumFee).putLong(voyage.getRevenue());
+            byte[] departure = cities[2 * i];
+            byte[] arrival = cities[2 * i + 1];
+            buffer.putShort((short) departure.length).put(departure);
+            buffer.putShort((short) arrival.length).put(arrival);
+
+            LongBuffer words = buffer.asLongBuffer();
+            voyage.getSeats().writeWords(words);
+            buffer.position(buffer.position() + 8 * words.position());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return new Snapshot(buffer, journalOffset);
+    }
+
+    /**
+     * Writes the snapshot to a temporary file next to the target, forces it to disk and renames it over the target.
+     *
+     * @param path The snapshot file.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public void writeTo(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer source = data.duplicate();
+            while (source.hasRemaining()) channel.write(source);
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores every voyage of a snapshot file into an empty manager.
+     *
+     * @param path The snapshot file.
+     * @param manager The manager that receives the voyages. It should be empty and have no journal yet.
+     * @return The journal offset stored in the snapshot, from which the journal has to be replayed.
+     * @throws IOException if the file cannot be read or is not an intact snapshot.
+     */
+    public static long load(Path path, VoyageManager manager) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Snapshot " + path + " is too large");
+            if (size < HEADER_SIZE + 4) throw new IOException("Snapshot " + path + " is truncated");
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(buffer.limit() - 4));
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) throw new IOException("Snapshot " + path + " is corrupt");
+        if (buffer.getInt() != MAGIC) throw new IOException("Not a booking snapshot: " + path);
+        int version = buffer.getInt();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+        long journalOffset = buffer.getLong();
+        int count = buffer.getInt();
+        buffer.getInt();
+
+        manager.getVoyages().ensureCapacity(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                byte type = buffer.get();
+                int id = buffer.getInt();
+                int rows = buffer.getInt();
+                long price = buffer.getLong();
+                int refundCut = buffer.getInt();
+                int premiumFee = buffer.getInt();
+                long revenue = buffer.getLong();
+                RouteDictionary.Route route = manager.getRoutes().intern(getCity(buffer), getCity(buffer));
+
+                Voyage voyage;
+                switch (type) {
+                    case STANDARD: voyage = new StandardBus(id, rows, route, price, refundCut); break;
+                    case PREMIUM: voyage = new PremiumBus(id, rows, route, price, refundCut, premiumFee); break;
+                    case MINIBUS: voyage = new MiniBus(id, rows, route, price); break;
+                    default: throw new IOException("Unknown voyage type " + type + " in snapshot " + path);
+                }
+                LongBuffer words = buffer.asLongBuffer();
+                voyage.restoreSeats(words);
+                buffer.position(buffer.position() + 8 * words.position());
+                voyage.increaseRevenue(revenue);
+                manager.restoreVoyage(voyage);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Snapshot " + path + " is inconsistent", e);
+        }
+        return journalOffset;
+    }
+
+    private static byte[] encode(String city) {
+        byte[] bytes = city.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) throw new IllegalArgumentException("City name is too long for a snapshot");
+        return bytes;
+    }
+
+    private static String getCity(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
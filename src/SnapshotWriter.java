@@ -0,0 +1,90 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+/**
+ * The {@code SnapshotWriter} class takes {@link Snapshot}s of a {@link VoyageManager} and writes them to a file on
+ * a background thread. Capturing the state happens on the calling thread, between two commands; only the
+ * serialized copy is handed over, so commands continue while the file is written. If a {@link Journal} is given,
+ * its records up to the snapshot are made durable first, so the snapshot never points past the end of the journal.
+ */
+public class SnapshotWriter implements Closeable {
+    private final Path path;
+    private final Journal journal;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "booking-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> pending;
+
+    /**
+     * Constructs a snapshot writer.
+     *
+     * @param path The snapshot file, replaced atomically by every snapshot.
+     * @param journal The journal the manager writes to, or null if there is none.
+     */
+    public SnapshotWriter(Path path, Journal journal) {
+        this.path = path;
+        this.journal = journal;
+    }
+
+    /**
+     * Starts a snapshot unless the previous one is still being written.
+     *
+     * @param manager The manager to capture.
+     * @return true if a snapshot was started, false if it was skipped.
+     * @throws IOException if the previous snapshot could not be written.
+     */
+    public boolean trySnapshot(VoyageManager manager) throws IOException {
+        if (pending != null && !pending.isDone()) return false;
+        snapshot(manager);
+        return true;
+    }
+
+    /**
+     * Starts a snapshot, first waiting for the previous one to be written.
+     *
+     * @param manager The manager to capture.
+     * @throws IOException if the previous snapshot could not be written.
+     */
+    public void snapshot(VoyageManager manager) throws IOException {
+        awaitPending();
+        Snapshot snapshot = Snapshot.capture(manager, journal == null ? 0 : journal.getEndOffset());
+        pending = executor.submit(() -> {
+            if (journal != null) journal.sync();
+            snapshot.writeTo(path);
+            return null;
+        });
+    }
+
+    /**
+     * Waits for the last snapshot to be written and stops the background thread.
+     *
+     * @throws IOException if the last snapshot could not be written.
+     */
+    public void close() throws IOException {
+        try {
+            awaitPending();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void awaitPending() throws IOException {
+        if (pending == null) return;
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing snapshot " + path);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            pending = null;
+        }
+    }
+}
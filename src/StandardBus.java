@@ -0,0 +1,49 @@
+/**
+ * Represents a standard bus voyage, extending the Voyage class.
+ * It has additional properties and methods specific to standard bus voyages.
+ */
+class StandardBus extends Voyage {
+    private int refundCut;
+    private long refundAmount;
+
+    /**
+     * Constructs a StandardBus object with the provided parameters.
+     *
+     * @param id         The ID of the voyage.
+     * @param row_count  The number of rows in the bus.
+     * @param route      The route of the voyage.
+     * @param seat_price The price of each seat.
+     * @param refundCut  The percentage cut for refunds.
+     */
+    public StandardBus(int id, int row_count, RouteDictionary.Route route, long seat_price, int refundCut) {
+        super(id, row_count, route, 4, seat_price);
+        this.refundCut = refundCut;
+        refundAmount = Money.percentOf(seat_price, 100 - refundCut);
+    }
+
+    public int getRefundCut() { return this.refundCut; }
+
+    /**
+     * Returns the refund amount for this standard bus voyage.
+     *
+     * @return The refund amount.
+     */
+    public long getRefundAmount() {
+        return this.refundAmount;
+    }
+
+    public long getTicketRefund(int seatNumber) {
+        return this.refundAmount;
+    }
+
+    /**
+     * Refunds a ticket for the specified seat number.
+     * Changes the seat status and decreases the revenue by the refund amount.
+     *
+     * @param seatNumber The seat number for which to refund the ticket.
+     */
+    public void refundTicket(int seatNumber) {
+        changeSeatStatus(seatNumber);
+        increaseRevenue(-this.getRefundAmount());
+    }
+}
@@ -0,0 +1,171 @@
+import java.util.*;
+
+/**
+ * The {@code TicketBatch} class holds the ticket sales and refunds of one {@code BATCH} command, which
+ * {@link VoyageManager#commitBatch(TicketBatch)} validates together and applies all or nothing. The seats of every
+ * operation are stored one after another in a single array, so a batch can be reused for the next command without
+ * allocating.
+ * <p>
+ * While a batch is validated, the seats its earlier operations would change are marked in an open-addressing hash
+ * table on primitive {@code long} keys (the voyage ID in the high half, the seat in the low half), which the batch
+ * also reuses. Key 0 marks an empty slot, which is safe because voyage IDs are always positive. A seat changed
+ * twice is changed back, so every slot holds a parity bit instead of being removed, and the occupied slots are
+ * listed so that clearing the marks costs as much as setting them.
+ */
+public class TicketBatch {
+    public static final byte SELL = 0;
+    public static final byte REFUND = 1;
+
+    private byte[] kinds = new byte[8];
+    private int[] voyageIds = new int[8];
+    private int[] seatEnds = new int[8];
+    private int[] seats = new int[32];
+    private int size;
+
+    private long[] changedKeys = new long[64];
+    private boolean[] changedParity = new boolean[64];
+    private int[] changedSlots = new int[32];
+    private int changedCount;
+
+    /**
+     * Removes every operation.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Parses the operations of a {@code BATCH} command, each written as three tokens like a ticket command:
+     * {@code SELL_TICKET} or {@code REFUND_TICKET}, the voyage ID and the seats joined by underscores.
+     *
+     * @param parser The parser holding the command.
+     * @param from Index of the first token of the first operation.
+     * @throws IllegalArgumentException if there is no operation, a token is missing or an operation is unknown.
+     */
+    public void parse(CommandParser parser, int from) {
+        clear();
+        int tokenCount = parser.getTokenCount();
+        if (tokenCount <= from || (tokenCount - from) % 3 != 0) throw new IllegalArgumentException("Invalid number of arguments");
+        for (int token = from; token < tokenCount; token += 3) {
+            byte kind;
+            if (parser.tokenEquals(token, "SELL_TICKET")) kind = SELL;
+            else if (parser.tokenEquals(token, "REFUND_TICKET")) kind = REFUND;
+            else throw new IllegalArgumentException("Unknown batch operation " + parser.getToken(token));
+            int voyageId = parser.parseInt(token + 1);
+            int seatCount = parser.parseSeats(token + 2);
+            add(kind, voyageId, parser.getSeatBuffer(), seatCount);
+        }
+    }
+
+    /**
+     * Appends an operation.
+     *
+     * @param kind {@link #SELL} or {@link #REFUND}.
+     * @param voyageId The voyage ID.
+     * @param seatBuffer An array whose first entries are the zero-based seats; they are copied.
+     * @param seatCount The number of seats in {@code seatBuffer}.
+     */
+    public void add(byte kind, int voyageId, int[] seatBuffer, int seatCount) {
+        if (size == kinds.length) {
+            kinds = Arrays.copyOf(kinds, size * 2);
+            voyageIds = Arrays.copyOf(voyageIds, size * 2);
+            seatEnds = Arrays.copyOf(seatEnds, size * 2);
+        }
+        int start = getSeatStart(size);
+        if (start + seatCount > seats.length) seats = Arrays.copyOf(seats, Math.max(start + seatCount, seats.length * 2));
+        System.arraycopy(seatBuffer, 0, seats, start, seatCount);
+        kinds[size] = kind;
+        voyageIds[size] = voyageId;
+        seatEnds[size] = start + seatCount;
+        size++;
+    }
+
+    public int size() { return this.size; }
+    public byte getKind(int operation) { return this.kinds[operation]; }
+    public int getVoyageId(int operation) { return this.voyageIds[operation]; }
+
+    /**
+     * Returns the array holding the seats of all operations; operation {@code i} owns the entries from
+     * {@link #getSeatStart(int)} up to {@link #getSeatEnd(int)}.
+     *
+     * @return The seat array, which must not be modified.
+     */
+    public int[] getSeats() { return this.seats; }
+
+    public int getSeatStart(int operation) { return operation == 0 ? 0 : this.seatEnds[operation - 1]; }
+    public int getSeatEnd(int operation) { return this.seatEnds[operation]; }
+
+    /**
+     * Checks if the earlier operations of the batch change a seat an odd number of times.
+     *
+     * @param voyageId The voyage ID, which must be positive.
+     * @param seat The zero-based seat.
+     * @return true if the seat is marked as changed.
+     */
+    public boolean isChanged(int voyageId, int seat) {
+        long key = changedKey(voyageId, seat);
+        int slot = changedSlot(key);
+        return changedKeys[slot] == key && changedParity[slot];
+    }
+
+    /**
+     * Marks a seat as changed once more by the batch, which unmarks it if it was marked.
+     *
+     * @param voyageId The voyage ID, which must be positive.
+     * @param seat The zero-based seat.
+     */
+    public void flipChanged(int voyageId, int seat) {
+        long key = changedKey(voyageId, seat);
+        int slot = changedSlot(key);
+        if (changedKeys[slot] == 0) {
+            if ((changedCount + 1) * 4 > changedKeys.length * 3) {
+                resizeChanged(changedKeys.length * 2);
+                slot = changedSlot(key);
+            }
+            if (changedCount == changedSlots.length) changedSlots = Arrays.copyOf(changedSlots, changedCount * 2);
+            changedKeys[slot] = key;
+            changedSlots[changedCount++] = slot;
+        }
+        changedParity[slot] = !changedParity[slot];
+    }
+
+    /**
+     * Removes every mark set by {@link #flipChanged(int, int)}.
+     */
+    public void clearChanged() {
+        for (int i = 0; i < changedCount; i++) {
+            changedKeys[changedSlots[i]] = 0;
+            changedParity[changedSlots[i]] = false;
+        }
+        changedCount = 0;
+    }
+
+    private static long changedKey(int voyageId, int seat) {
+        return ((long) voyageId << 32) | seat;
+    }
+
+    /**
+     * Returns the slot that holds the key, or the empty slot where it belongs.
+     */
+    private int changedSlot(long key) {
+        int mask = changedKeys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (changedKeys[slot] != 0 && changedKeys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void resizeChanged(int capacity) {
+        long[] oldKeys = changedKeys;
+        boolean[] oldParity = changedParity;
+        changedKeys = new long[capacity];
+        changedParity = new boolean[capacity];
+        for (int i = 0; i < changedCount; i++) {
+            int oldSlot = changedSlots[i];
+            int slot = changedSlot(oldKeys[oldSlot]);
+            changedKeys[slot] = oldKeys[oldSlot];
+            changedParity[slot] = oldParity[oldSlot];
+            changedSlots[i] = slot;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+import java.nio.*;
+
+/**
+ * Represents a voyage with a specific route, seat layout, and pricing.
+ * This class manages the details of a voyage including its identification,
+ * seat arrangements, ticketing, and revenue calculations.
+ * <p>
+ * The route is interned in the {@link RouteDictionary} of the voyage's manager, which also holds the rendered route line.
+ * The number of sold seats, and of sold premium seats, is counted as seats change, so availability is known
+ * without scanning the seats. Seats on hold are neither sold nor available; they are kept in a second seat map
+ * that is only created when the first seat of the voyage is held, and counted the same way.
+ * The rendered layout block is cached and only rendered again after a seat or the revenue has changed,
+ * so a Z report re-renders just the voyages touched since the previous report.
+ */
+class Voyage {
+    private int id;
+    private int row_count;
+    private RouteDictionary.Route route;
+    private int column_count;
+    private long seat_price;
+    private SeatMap seats;
+    private long revenue;
+    private int soldCount;
+    private int premiumSoldCount;
+    private SeatMap held;
+    private int heldCount;
+    private int premiumHeldCount;
+    private StringBuilder layout;
+    private boolean layoutDirty = true;
+    private SeatAllocator allocator;
+
+    /**
+     * Constructs a new Voyage with the specified details and initializes the seat matrix.
+     *
+     * @param id Unique identifier for the voyage.
+     * @param row_count Number of rows of seats.
+     * @param route The route of the voyage, interned in the dictionary of its manager.
+     * @param column_count Number of columns of seats.
+     * @param seat_price Price of a single seat, in millionths of a lira (see {@link Money}).
+     */
+    public Voyage(int id, int row_count, RouteDictionary.Route route, int column_count, long seat_price){
+        this.id = id;
+        this.row_count = row_count;
+        this.route = route;
+        this.column_count = column_count;
+        this.seat_price = seat_price;
+        this.seats = new SeatMap(row_count * column_count);
+    }
+
+    public int getId() { return this.id; }
+    public int getRowCount() { return this.row_count; }
+    public int getRouteId() { return this.route.getId(); }
+    public RouteDictionary.Route getRoute() { return this.route; }
+    public String getDeparture() { return getRoute().getDeparture(); }
+    public String getArrival() { return getRoute().getArrival(); }
+    public int getColumnCount() { return this.column_count; }
+    public long getSeatPrice() { return this.seat_price; }
+    public SeatMap getSeats() { return this.seats; }
+    public long getRevenue() { return this.revenue; }
+    public int getSeatCount() { return this.seats.getCapacity(); }
+    public int getSoldSeatCount() { return this.soldCount; }
+    public int getAvailableSeatCount() { return this.seats.getCapacity() - this.soldCount - this.heldCount; }
+    public int getPremiumSoldCount() { return this.premiumSoldCount; }
+    public int getHeldSeatCount() { return this.heldCount; }
+    public int getPremiumHeldCount() { return this.premiumHeldCount; }
+
+    /**
+     * Returns the number of premium seats. Voyages have none unless a subclass says otherwise.
+     * @return The number of seats for which {@link #isPremiumSeat(int)} holds.
+     */
+    public int getPremiumSeatCount() {
+        return 0;
+    }
+
+    /**
+     * Increases the total revenue by the specified amount.
+     * @param amount Amount to increase the revenue by, in millionths of a lira.
+     */
+    public void increaseRevenue(long amount) {
+        this.revenue += amount;
+        this.layoutDirty = true;
+    }
+
+    /**
+     * Returns the price charged for a seat.
+     * @param seatNumber Linear index of the seat.
+     * @return The price in millionths of a lira.
+     */
+    public long getTicketPrice(int seatNumber) {
+        return this.seat_price;
+    }
+
+    /**
+     * Returns the amount paid back when a seat is refunded. Voyages pay nothing back unless a subclass says otherwise.
+     * @param seatNumber Linear index of the seat.
+     * @return The refund in millionths of a lira.
+     */
+    public long getTicketRefund(int seatNumber) {
+        return 0;
+    }
+
+    /**
+     * Processes a seat ticket sale by changing the seat status and increasing the revenue.
+     * @param seatNumber Linear index of the seat to sell.
+     */
+    public void sellTicket(int seatNumber) {
+        changeSeatStatus(seatNumber);
+        increaseRevenue(this.getSeatPrice());
+    }
+
+    /**
+     * Processes a seat ticket refund by changing the seat status and decreasing the revenue by the refund amount.
+     * @param seatNumber Linear index of the seat to refund.
+     */
+    public void refundTicket(int seatNumber) {
+        changeSeatStatus(seatNumber);
+        increaseRevenue(-this.getTicketRefund(seatNumber));
+    }
+
+    /**
+     * Changes the status of a seat from occupied to unoccupied or vice versa.
+     * @param seatNumber Linear index of the seat to change the status of.
+     */
+    protected void changeSeatStatus(int seatNumber) {
+        this.seats.flip(seatNumber);
+        this.layoutDirty = true;
+        int change = this.seats.isOccupied(seatNumber) ? 1 : -1;
+        this.soldCount += change;
+        if (isPremiumSeat(seatNumber)) this.premiumSoldCount += change;
+        if (this.allocator != null) this.allocator.update(seatNumber);
+    }
+
+    /**
+     * Checks if a seat is on hold.
+     * @param seatNumber Linear index of the seat to check.
+     * @return true if the seat is held, false otherwise.
+     */
+    public boolean isSeatHeld(int seatNumber) {
+        return this.held != null && this.held.isOccupied(seatNumber);
+    }
+
+    /**
+     * Puts an empty seat on hold, so that it can be neither sold nor allocated until it is released.
+     * @param seatNumber Linear index of the seat to hold.
+     */
+    public void holdSeat(int seatNumber) {
+        if (this.held == null) {
+            this.held = new SeatMap(this.seats.getCapacity());
+            this.allocator = null;
+        }
+        this.held.set(seatNumber);
+        this.heldCount++;
+        if (isPremiumSeat(seatNumber)) this.premiumHeldCount++;
+        if (this.allocator != null) this.allocator.update(seatNumber);
+    }
+
+    /**
+     * Releases a seat that is on hold.
+     * @param seatNumber Linear index of the seat to release.
+     */
+    public void releaseSeat(int seatNumber) {
+        this.held.clear(seatNumber);
+        this.heldCount--;
+        if (isPremiumSeat(seatNumber)) this.premiumHeldCount--;
+        if (this.allocator != null) this.allocator.update(seatNumber);
+    }
+
+    /**
+     * Replaces the occupancy of every seat with words written by {@link SeatMap#writeWords(LongBuffer)}
+     * and counts the sold seats again. Used when a voyage is restored from a snapshot.
+     * @param words Buffer holding the words of the seat map.
+     */
+    public void restoreSeats(LongBuffer words) {
+        this.seats.readWords(words);
+        this.soldCount = 0;
+        this.premiumSoldCount = 0;
+        for (int seat = this.seats.nextOccupiedSeat(0); seat >= 0; seat = this.seats.nextOccupiedSeat(seat + 1)) {
+            this.soldCount++;
+            if (isPremiumSeat(seat)) this.premiumSoldCount++;
+        }
+        this.layoutDirty = true;
+        this.allocator = null;
+    }
+
+    /**
+     * Checks if a seat is sold at the premium price. Voyages have no premium seats unless a subclass says otherwise.
+     * @param seatNumber Linear index of the seat.
+     * @return true if the seat is a premium seat, false otherwise.
+     */
+    public boolean isPremiumSeat(int seatNumber) {
+        return false;
+    }
+
+    /**
+     * Returns the seat allocator of the voyage, creating it the first time seats are allocated,
+     * so that voyages that never see {@code ALLOCATE_SEATS} do not pay for its summaries.
+     * @return The allocator, kept up to date with every later seat change.
+     */
+    public SeatAllocator getAllocator() {
+        if (this.allocator == null) {
+            int premiumColumns = 0;
+            for (int column = 0; column < this.column_count; column++) {
+                if (isPremiumSeat(column)) premiumColumns |= 1 << column;
+            }
+            this.allocator = new SeatAllocator(this.seats, this.held, this.row_count, this.column_count, premiumColumns);
+        }
+        return this.allocator;
+    }
+
+    /**
+     * Checks if the given seat number is valid within the current layout.
+     * @param seatNumber Linear index of the seat to check.
+     * @return true if the seat number is valid, false otherwise.
+     */
+    public boolean isSeatNumberValid(int seatNumber) {
+        return this.seats.contains(seatNumber);
+    }
+
+    /**
+     * Checks if a specific seat is empty.
+     * @param seatNumber Linear index of the seat to check.
+     * @return true if the seat is empty, false if it is occupied.
+     */
+    public boolean isSeatEmpty(int seatNumber) {
+        return !this.seats.isOccupied(seatNumber);
+    }
+
+    /**
+     * Prints the layout of the voyage's seats, rendering it again only if it changed since it was last printed.
+     * @param out Report writer that receives the layout.
+     */
+    public void printLayout(ReportWriter out) {
+        if (this.layoutDirty) {
+            if (this.layout == null) this.layout = new StringBuilder(64 + this.row_count * (this.column_count * 2 + 2));
+            this.layout.setLength(0);
+            appendLayout(this.layout);
+            this.layoutDirty = false;
+        }
+        out.print(this.layout);
+    }
+
+    /**
+     * Renders the layout of the voyage's seats, followed by its revenue.
+     * @param sb Builder that receives the layout, one line break after every line.
+     * @return The same builder.
+     */
+    private StringBuilder appendLayout(StringBuilder sb) {
+        InfoMessages.appendVoyage(sb, this.id).append('\n');
+        sb.append(getRoute().getLine()).append('\n');
+        int seat = 0;
+        for (int i = 0; i < this.row_count; i++) {
+            for (int j = 0; j < this.column_count; j++) {
+                sb.append(this.seats.isOccupied(seat++) ? 'X' : '*');
+                if (column_count == 3 && j == 0) sb.append(" |");
+                if (column_count == 4 && j == 1) sb.append(" |");
+                if (j != column_count - 1) sb.append(' ');
+            }
+            sb.append('\n');
+        }
+        return InfoMessages.appendRevenueMessage(sb, this.revenue).append('\n');
+    }
+
+    /**
+     * Processes the cancellation of the voyage and resets revenue to zero.
+     * @param out Report writer that receives the cancellation details.
+     */
+    public void processVoyageCancelling(ReportWriter out) {
+        out.println(InfoMessages.appendVoyageSuccesfullyCancelled(out.line(), this.id));
+        out.println(InfoMessages.VOYAGE_DETAILS);
+        out.println(InfoMessages.appendVoyage(out.line(), this.id));
+        out.println(getRoute().getLine());
+
+        for (int seat = this.seats.nextOccupiedSeat(0); seat >= 0; seat = this.seats.nextOccupiedSeat(seat + 1)) {
+            this.increaseRevenue(-this.seat_price);
+        }
+        int seat = 0;
+        for (int i = 0; i < this.row_count; i++) {
+            for (int j = 0; j < this.column_count; j++) {
+                out.print(this.seats.isOccupied(seat++) ? 'X' : '*');
+                // if (column_count == 3 && j == 0) out.print(" |");
+                if (column_count == 4 && j == 1) out.print(" |");
+                if (j != column_count - 1) out.print(' ');
+            }
+            out.println();
+        }
+        out.println(InfoMessages.appendRevenueMessage(out.line(), this.revenue));
+    }
+}
@@ -1,431 +1,394 @@
 import java.util.*;
+import java.util.function.*;
 
 /**
- * Represents a voyage with a specific route, seat layout, and pricing.
- * This class manages the details of a voyage including its identification,
- * seat arrangements, ticketing, and revenue calculations.
+ * The {@code VoyageManager} class manages voyages and their associated operations
+ * such as selling tickets, refunding tickets, and adding new voyages.
  */
-class Voyage {
-    private int id;
-    private int row_count;
-    private String departure;
-    private String arrival;
-    private int column_count;
-    private float seat_price;
-    private boolean[][] seats;
-    private float revenue;
+public class VoyageManager {
+    private VoyageMap voyages = new VoyageMap();
+    private final RouteDictionary routes = new RouteDictionary();
+    private final ReportWriter out;
+    private Journal journal;
+    private int[] allocation = new int[16];
+    private final HoldWheel holds = new HoldWheel();
 
     /**
-     * Constructs a new Voyage with the specified details and initializes the seat matrix.
-     *
-     * @param id Unique identifier for the voyage.
-     * @param row_count Number of rows of seats.
-     * @param departure Starting point of the voyage.
-     * @param arrival Destination point of the voyage.
-     * @param column_count Number of columns of seats.
-     * @param seat_price Price of a single seat.
+     * Constructs a voyage manager that reports every outcome to the given writer.
+     * @param out the report writer that receives all messages
      */
-    public Voyage(int id, int row_count, String departure, String arrival, int column_count, float seat_price){
-        this.id = id;
-        this.row_count = row_count;
-        this.departure = departure;
-        this.arrival = arrival;
-        this.column_count = column_count;
-        this.seat_price = seat_price;
-        this.seats = new boolean[row_count][column_count];
+    public VoyageManager(ReportWriter out){
+        this.out = out;
     }
 
-    public int getId() { return this.id; }
-    public int getRowCount() { return this.row_count; }
-    public String getDeparture() { return this.departure; }
-    public String getArrival() { return this.arrival; }
-    public int getColumnCount() { return this.column_count; }
-    public float getSeatPrice() { return this.seat_price; }
-    public boolean[][] getSeats() { return this.seats; }
-    public float getRevenue() { return this.revenue; }
-
     /**
-     * Increases the total revenue by the specified amount.
-     * @param amount Amount to increase the revenue by.
+     * Attaches a journal that records every successful change from now on.
+     * @param journal the journal, or {@code null} to stop journaling
      */
-    public void increaseRevenue(float amount) {
-        this.revenue += amount;
+    public void setJournal(Journal journal){
+        this.journal = journal;
     }
 
     /**
-     * Processes a seat ticket sale by changing the seat status and increasing the revenue.
-     * @param seatNumber Linear index of the seat to sell.
+     * Returns the voyage with the given ID without reporting anything.
+     * @param id the voyage ID
+     * @return the voyage, or {@code null} if there is none
      */
-    public void sellTicket(int seatNumber) {
-        changeSeatStatus(seatNumber);
-        increaseRevenue(this.getSeatPrice());
+    Voyage getVoyage(int id){
+        return voyages.get(id);
     }
 
     /**
-     * Changes the status of a seat from occupied to unoccupied or vice versa.
-     * @param seatNumber Linear index of the seat to change the status of.
+     * Adds a voyage restored from a journal or snapshot, without reporting or journaling it.
+     * @param voyage the voyage to add
+     * @throws IllegalArgumentException if its ID is not positive or already in use
      */
-    protected void changeSeatStatus(int seatNumber) {
-        int row = seatNumber / this.column_count;
-        int column = seatNumber % this.column_count;
-        this.seats[row][column] = !this.seats[row][column];
+    void restoreVoyage(Voyage voyage){
+        voyages.put(voyage);
     }
 
     /**
-     * Checks if the given seat number is valid within the current layout.
-     * @param seatNumber Linear index of the seat to check.
-     * @return true if the seat number is valid, false otherwise.
+     * Removes a voyage without reporting or journaling it.
+     * @param id the voyage ID
+     * @return the removed voyage, or {@code null} if there was none
      */
-    public boolean isSeatNumberValid(int seatNumber) {
-        int row = seatNumber / this.column_count;
-        int column = seatNumber % this.column_count;
-        return row >= 0 && row < this.row_count && column >= 0 && column < this.column_count;
+    Voyage removeVoyage(int id){
+        return voyages.remove(id);
     }
 
     /**
-     * Checks if a specific seat is empty.
-     * @param seatNumber Linear index of the seat to check.
-     * @return true if the seat is empty, false if it is occupied.
+     * Returns the voyage index itself, for taking snapshots. Callers must not modify it.
+     * @return the voyages of this manager
      */
-    public boolean isSeatEmpty(int seatNumber) {
-        int row = seatNumber / this.column_count;
-        int column = seatNumber % this.column_count;
-        return !this.seats[row][column];
+    VoyageMap getVoyages(){
+        return voyages;
     }
 
     /**
-     * Prints the layout of the voyage's seats.
+     * Returns the dictionary that interns the routes of this manager's voyages, for restoring voyages.
+     * @return the route dictionary of this manager
      */
-    public void printLayout() {
-        System.out.println(InfoMessages.getVoyageString(this.id));
-        System.out.println(InfoMessages.getVoyageRouteString(this.departure, this.arrival));
-        for (int i = 0; i < this.row_count; i++) {
-            for (int j = 0; j < this.column_count; j++) {
-                System.out.print(this.seats[i][j] ? "X" : "*");
-                if (column_count == 3 && j == 0) System.out.print(" |");
-                if (column_count == 4 && j == 1) System.out.print(" |");
-                if (j != column_count - 1) System.out.print(" ");
-            }
-            System.out.println();
-        }
-        System.out.println(InfoMessages.getRevenueMessageString(this.revenue));
+    RouteDictionary getRoutes(){
+        return routes;
     }
 
     /**
-     * Processes the cancellation of the voyage and resets revenue to zero.
+     * Checks if a new voyage ID is valid, i.e., not already used and positive.
+     * @param id the voyage ID to check
+     * @return {@code true} if the ID is valid, {@code false} otherwise
      */
-    public void processVoyageCancelling() {
-        System.out.println(InfoMessages.getVoyageSuccesfullyCancelledString(this.id));
-        System.out.println(InfoMessages.VOYAGE_DETAILS);
-        System.out.println(InfoMessages.getVoyageString(this.id));
-        System.out.println(InfoMessages.getVoyageRouteString(this.departure, this.arrival));
-      
-        for (int i = 0; i < this.row_count; i++) {
-            for (int j = 0; j < this.column_count; j++) {
-                if(this.seats[i][j]) this.increaseRevenue(-this.seat_price);
-                System.out.print(this.seats[i][j] ? "X" : "*");
-                // if (column_count == 3 && j == 0) System.out.print(" |");
-                if (column_count == 4 && j == 1) System.out.print(" |");
-                if (j != column_count - 1) System.out.print(" ");
-            }
-            System.out.println();
+    private boolean isNewVoyageIdValid(int id){
+        if (id <= 0){
+            out.println(ErrorMessages.appendVoyageIdMustPositive(out.line(), id));
+            return false;
         }
-        System.out.println(InfoMessages.getRevenueMessageString(this.revenue));
-    }
-}
-
 
-/**
- * Represents a standard bus voyage, extending the Voyage class.
- * It has additional properties and methods specific to standard bus voyages.
- */
-class StandardBus extends Voyage {
-    private float refundAmount;
-
-    /**
-     * Constructs a StandardBus object with the provided parameters.
-     *
-     * @param id         The ID of the voyage.
-     * @param row_count  The number of rows in the bus.
-     * @param departure  The departure location.
-     * @param arrival    The arrival location.
-     * @param seat_price The price of each seat.
-     * @param refundCut  The percentage cut for refunds.
-     */
-    public StandardBus(int id, int row_count, String departure, String arrival, float seat_price, int refundCut) {
-        super(id, row_count, departure, arrival, 4, seat_price);
-        refundAmount = ((100.f - (float) refundCut) / 100.f) * seat_price;
+        if (voyages.containsKey(id)){
+            out.println(ErrorMessages.appendVoyageIdAlreadyUsing(out.line(), id));
+            return false;
+        }
+        return true;
     }
 
     /**
-     * Returns the refund amount for this standard bus voyage.
-     *
-     * @return The refund amount.
+     * Resolves a voyage ID, reporting an error if it is not positive or there is no such voyage.
+     * @param id the ID of the voyage to look up
+     * @return the voyage, or {@code null} if the ID is invalid
      */
-    public float getRefundAmount() {
-        return this.refundAmount;
+    private Voyage findVoyage(int id){
+        if (id <= 0){
+            out.println(ErrorMessages.appendVoyageIdMustPositive(out.line(), id));
+            return null;
+        }
+
+        Voyage voyage = voyages.get(id);
+        if (voyage == null){
+            out.println(ErrorMessages.appendNoVoyageWithId(out.line(), id));
+        }
+        return voyage;
     }
 
     /**
-     * Refunds a ticket for the specified seat number.
-     * Changes the seat status and decreases the revenue by the refund amount.
-     *
-     * @param seatNumber The seat number for which to refund the ticket.
+     * Determines if a seat can be sold.
+     * @param voyage the voyage
+     * @param seat the seat number to check
+     * @return {@code true} if the seat can be sold, {@code false} if it cannot be sold
      */
-    public void refundTicket(int seatNumber) {
-        changeSeatStatus(seatNumber);
-        increaseRevenue(-this.getRefundAmount());
+    private boolean canSeatSold(Voyage voyage, int seat){
+        if(!voyage.isSeatNumberValid(seat)){
+            out.println(ErrorMessages.NO_SEAT);
+            return false;
+        }
+        if(!voyage.isSeatEmpty(seat)){
+            out.println(ErrorMessages.SEAT_ALREADY_SOLD);
+            return false;
+        }
+        if(voyage.isSeatHeld(seat)){
+            out.println(ErrorMessages.SEAT_ON_HOLD);
+            return false;
+        }
+        return true;
     }
-}
-
-
-/**
- * Represents a premium bus voyage, extending the Voyage class.
- * It has additional properties and methods specific to premium bus voyages.
- */
-class PremiumBus extends Voyage {
-    private float refundAmount;
-    private float premiumPrice;
-    private float premiumRefundAmount;
 
     /**
-     * Constructs a PremiumBus object with the provided parameters.
-     *
-     * @param id         The ID of the voyage.
-     * @param row_count  The number of rows in the bus.
-     * @param departure  The departure location.
-     * @param arrival    The arrival location.
-     * @param seat_price The price of each seat.
-     * @param refundCut  The percentage cut for refunds.
-     * @param premiumFee The additional fee for premium seats.
+     * Determines if a seat can be refunded.
+     * @param voyage the voyage
+     * @param seat the seat number to check
+     * @return {@code true} if the seat can be refunded, {@code false} if it cannot be refunded
      */
-    public PremiumBus(int id, int row_count, String departure, String arrival, float seat_price, int refundCut, int premiumFee) {
-        super(id, row_count, departure, arrival, 3, seat_price);
-        refundAmount = ((100.f - (float) refundCut) / 100.f) * seat_price;
-        premiumPrice = ((100.f + (float) premiumFee) / 100.f) * seat_price;
-        premiumRefundAmount = ((100.f - (float) refundCut) / 100.f) * premiumPrice;
+    private boolean canSeatRefunded(Voyage voyage, int seat){
+        if(!voyage.isSeatNumberValid(seat)){
+            out.println(ErrorMessages.NO_SEAT);
+            return false;
+        }
+        if(voyage.isSeatEmpty(seat)){
+            out.println(ErrorMessages.SEAT_ALREADY_EMPTY);
+            return false;
+        }
+        return true;
     }
 
+    
     /**
-     * Returns the refund amount for regular seats.
-     *
-     * @return The refund amount for regular seats.
+     * Sells tickets for a specific voyage if the voyage ID and seat are valid.
+     * @param id the voyage ID
+     * @param seats an array of seats to be sold
      */
-    public float getRefundAmount() {
-        return this.refundAmount;
+    public void sellTickets(int id, int[] seats){
+        sellTickets(id, seats, seats.length);
     }
 
     /**
-     * Returns the price of premium seats.
-     *
-     * @return The price of premium seats.
+     * Sells tickets for a specific voyage if the voyage ID and seat are valid.
+     * Only the first {@code seatCount} entries of {@code seats} are used, so callers can pass a reused buffer.
+     * @param id the voyage ID
+     * @param seats an array whose first entries are the seats to be sold
+     * @param seatCount the number of seats in {@code seats}
      */
-    public float getPremiumPrice() {
-        return this.premiumPrice;
+    public void sellTickets(int id, int[] seats, int seatCount){
+        Voyage voyage = findVoyage(id);
+        if(voyage == null) return;
+
+        for(int i = 0; i < seatCount; i++){
+            int seat = seats[i];
+            if(seat < 0){
+                out.println(ErrorMessages.appendSeatIdMustPositive(out.line(), seat));
+                return;
+            }
+            if(!canSeatSold(voyage, seat)) return;
+        }
+        sell(voyage, seats, seatCount);
     }
 
     /**
-     * Returns the refund amount for premium seats.
-     *
-     * @return The refund amount for premium seats.
+     * Puts seats of a voyage on hold for a number of commands, after which they are released without output.
+     * Held seats cannot be sold, held again or allocated, and do not count as available. Holds are not journaled
+     * or snapshotted, so they do not survive a restart.
+     * @param id the voyage ID
+     * @param seats an array whose first entries are the seats to hold
+     * @param seatCount the number of seats in {@code seats}
+     * @param ttl the number of commands after this one during which the seats stay held
      */
-    public float getPremiumRefundAmount() {
-        return this.premiumRefundAmount;
+    public void holdSeats(int id, int[] seats, int seatCount, int ttl){
+        Voyage voyage = findVoyage(id);
+        if(voyage == null) return;
+
+        if(ttl <= 0){
+            out.println(ErrorMessages.appendHoldTimeMustPositive(out.line(), ttl));
+            return;
+        }
+        for(int i = 0; i < seatCount; i++){
+            int seat = seats[i];
+            if(seat < 0){
+                out.println(ErrorMessages.appendSeatIdMustPositive(out.line(), seat));
+                return;
+            }
+            if(!canSeatSold(voyage, seat)) return;
+        }
+        int[] held = new int[seatCount];
+        int heldCount = 0;
+        for(int i = 0; i < seatCount; i++){
+            if(voyage.isSeatHeld(seats[i])) continue;
+            voyage.holdSeat(seats[i]);
+            held[heldCount++] = seats[i];
+        }
+        holds.add(voyage, heldCount == seatCount ? held : Arrays.copyOf(held, heldCount), holds.getTime() + ttl + 1);
+        RouteDictionary.Route route = voyage.getRoute();
+        out.println(InfoMessages.appendSeatsHeld(out.line(), seats, seatCount, id, route.getDeparture(), route.getArrival(), ttl));
     }
 
     /**
-     * Checks if the given seat number is a premium seat.
-     *
-     * @param seatNumber The seat number to check.
-     * @return true if the seat is a premium seat, false otherwise.
+     * Validates the sales and refunds of a batch together and applies them all, or none of them if any one fails.
+     * Reports one combined result and journals the batch as one record.
+     * @param batch the operations, in order; later operations see the seats changed by earlier ones
      */
-    private boolean isPremiumSeat(int seatNumber) {
-        return seatNumber % this.getColumnCount() == 0;
+    public void commitBatch(TicketBatch batch){
+        commitBatch(out, batch, journal, voyages::get);
     }
 
     /**
-     * Sells a ticket for the specified seat number.
-     * If the seat is a premium seat, the premium price is charged.
-     * Otherwise, the regular seat price is charged.
-     *
-     * @param seatNumber The seat number for which to sell the ticket.
+     * Commits a batch whose voyages may belong to several managers, such as the shards of a
+     * {@link ShardedCommandExecuter}. The managers must not be modified while the batch is committed.
+     * @param out the report writer that receives the result
+     * @param batch the operations, in order
+     * @param managers the managers whose voyages the batch may change
      */
-    public void sellTicket(int seatNumber) {
-        if (isPremiumSeat(seatNumber)) {
-            changeSeatStatus(seatNumber);
-            increaseRevenue(this.getPremiumPrice());
-        } else {
-            changeSeatStatus(seatNumber);
-            increaseRevenue(this.getSeatPrice());
-        }
+    public static void commitBatch(ReportWriter out, TicketBatch batch, VoyageManager... managers){
+        commitBatch(out, batch, null, id -> {
+            for (VoyageManager manager : managers){
+                Voyage voyage = manager.voyages.get(id);
+                if (voyage != null) return voyage;
+            }
+            return null;
+        });
     }
 
     /**
-     * Refunds a ticket for the specified seat number.
-     * If the seat is a premium seat, the premium refund amount is deducted.
-     * Otherwise, the regular refund amount is deducted.
-     *
-     * @param seatNumber The seat number for which to refund the ticket.
+     * Validates every operation of a batch against the seats as the earlier operations would leave them, tracking
+     * the seats those operations change instead of changing them, then applies the batch if nothing failed.
+     * The changed seats are marked in the batch itself and cleared once validation ends either way.
+     * Each voyage is looked up once per operation and kept for the second pass.
      */
-    public void refundTicket(int seatNumber) {
-        if (isPremiumSeat(seatNumber)) {
-            changeSeatStatus(seatNumber);
-            increaseRevenue(-this.getPremiumRefundAmount());
-        } else {
-            changeSeatStatus(seatNumber);
-            increaseRevenue(-this.getRefundAmount());
-        }
-    }
-
-    public void processVoyageCancelling() {
-        System.out.println(InfoMessages.getVoyageSuccesfullyCancelledString(this.getId()));
-        System.out.println(InfoMessages.VOYAGE_DETAILS);
-        System.out.println(InfoMessages.getVoyageString(this.getId()));
-        System.out.println(InfoMessages.getVoyageRouteString(this.getDeparture(), this.getArrival()));
-        
-        boolean[][] seats = getSeats();
-        int column_count = getColumnCount();
+    private static void commitBatch(ReportWriter out, TicketBatch batch, Journal journal, IntFunction<Voyage> lookup){
+        int size = batch.size();
+        int[] seats = batch.getSeats();
+        Voyage[] resolved = new Voyage[size];
+        int voyageCount = 0;
+        for (int operation = 0; operation < size; operation++){
+            int id = batch.getVoyageId(operation);
+            Voyage voyage = null;
+            for (int earlier = 0; earlier < operation && voyage == null; earlier++){
+                if (resolved[earlier].getId() == id) voyage = resolved[earlier];
+            }
+            if (voyage == null){
+                if (id <= 0){
+                    out.println(ErrorMessages.appendVoyageIdMustPositive(out.line(), id));
+                    rejectBatch(out, batch, operation);
+                    return;
+                }
+                voyage = lookup.apply(id);
+                if (voyage == null){
+                    out.println(ErrorMessages.appendNoVoyageWithId(out.line(), id));
+                    rejectBatch(out, batch, operation);
+                    return;
+                }
+                voyageCount++;
+            }
+            resolved[operation] = voyage;
 
-        for (int i = 0; i < this.getRowCount(); i++) {
-            for (int j = 0; j < this.getColumnCount(); j++) {
-                if(seats[i][j]){
-                    if(j % column_count == 0) increaseRevenue(-this.getPremiumPrice());
-                    else increaseRevenue(-this.getSeatPrice());
+            boolean sell = batch.getKind(operation) == TicketBatch.SELL;
+            if (!sell && voyage instanceof MiniBus){
+                out.println(ErrorMessages.MINIBUS_TICKETS_NOT_REFUNDABLE);
+                rejectBatch(out, batch, operation);
+                return;
+            }
+            for (int i = batch.getSeatStart(operation); i < batch.getSeatEnd(operation); i++){
+                int seat = seats[i];
+                if (seat < 0){
+                    out.println(ErrorMessages.appendSeatIdMustPositive(out.line(), seat));
+                    rejectBatch(out, batch, operation);
+                    return;
+                }
+                String error = null;
+                boolean changed = batch.isChanged(id, seat);
+                if (!voyage.isSeatNumberValid(seat)) error = ErrorMessages.NO_SEAT;
+                else if (sell && voyage.isSeatEmpty(seat) == changed) error = ErrorMessages.SEAT_ALREADY_SOLD;
+                else if (sell && voyage.isSeatHeld(seat)) error = ErrorMessages.SEAT_ON_HOLD;
+                else if (!sell && voyage.isSeatEmpty(seat) != changed) error = ErrorMessages.SEAT_ALREADY_EMPTY;
+                if (error != null){
+                    out.println(error);
+                    rejectBatch(out, batch, operation);
+                    return;
                 }
-                System.out.print(seats[i][j] ? "X" : "*");
-                if (column_count == 3 && j == 0) System.out.print(" |");
-                // if (column_count == 4 && j == 1) System.out.print(" |");
-                if (j != column_count - 1) System.out.print(" ");
+                batch.flipChanged(id, seat);
             }
-            System.out.println();
         }
-        System.out.println(InfoMessages.getRevenueMessageString(this.getRevenue()));
+        batch.clearChanged();
+
+        long sold = 0;
+        long refunded = 0;
+        for (int operation = 0; operation < size; operation++){
+            Voyage voyage = resolved[operation];
+            boolean sell = batch.getKind(operation) == TicketBatch.SELL;
+            long before = voyage.getRevenue();
+            for (int i = batch.getSeatStart(operation); i < batch.getSeatEnd(operation); i++){
+                if (sell) voyage.sellTicket(seats[i]);
+                else voyage.refundTicket(seats[i]);
+            }
+            if (sell) sold += voyage.getRevenue() - before;
+            else refunded += before - voyage.getRevenue();
+        }
+        if (journal != null) journal.logBatch(batch);
+        out.println(InfoMessages.appendBatchCommitted(out.line(), size, voyageCount, sold, refunded));
     }
-}
 
-
-/**
- * Represents a mini bus voyage, extending the Voyage class.
- * It has no additional properties or methods specific to mini bus voyages.
- */
-class MiniBus extends Voyage {
     /**
-     * Constructs a MiniBus object with the provided parameters.
-     *
-     * @param id         The ID of the voyage.
-     * @param row_count  The number of rows in the mini bus.
-     * @param departure  The departure location.
-     * @param arrival    The arrival location.
-     * @param seat_price The price of each seat.
+     * Reports that a batch was rejected at the given operation and nothing was applied, and clears its marks.
      */
-    public MiniBus(int id, int row_count, String departure, String arrival, float seat_price) {
-        super(id, row_count, departure, arrival, 2, seat_price);
+    private static void rejectBatch(ReportWriter out, TicketBatch batch, int operation){
+        batch.clearChanged();
+        out.println(ErrorMessages.appendBatchRejected(out.line(), operation + 1));
     }
-}
-
-
-/**
- * The {@code VoyageManager} class manages voyages and their associated operations
- * such as selling tickets, refunding tickets, and adding new voyages.
- */
-public class VoyageManager {
-    private Map<Integer, Voyage> voyages = new TreeMap<>();
 
     /**
-     * Checks if a new voyage ID is valid, i.e., not already used and positive.
-     * @param id the voyage ID to check
-     * @return {@code true} if the ID is valid, {@code false} otherwise
+     * Advances the hold clock by one command, releasing the holds that expire.
      */
-    private boolean isNewVoyageIdValid(int id){
-        if (id <= 0){
-            System.out.println(ErrorMessages.getVoyageIdMustPositiveString(id));
-            return false;
-        }
-
-        if (voyages.containsKey(id)){
-            System.out.println(ErrorMessages.getVoyageIdAlreadyUsingString(id));
-            return false;
-        }
-        return true;
+    public void tick(){
+        holds.advance(holds.getTime() + 1);
     }
 
     /**
-     * Validates whether a given voyage ID exists in the system and is positive.
-     * @param id the ID of the voyage to validate
-     * @return {@code true} if the ID is valid, {@code false} otherwise
+     * Advances the hold clock to the given command number, releasing the holds that expire on the way.
+     * Used by a {@link ShardedCommandExecuter}, whose shards only see some of the commands.
+     * @param time the number of the command about to run, counted from 1
      */
-    private boolean isVoyageIdValid(int id){
-        if (id <= 0){
-            System.out.println(ErrorMessages.getVoyageIdMustPositiveString(id));
-            return false;
-        }
-
-        if (!voyages.containsKey(id)){
-            System.out.println(ErrorMessages.getNoVoyageWithIdString(id));
-            return false;
-        }
-        return true;
+    public void advanceClock(long time){
+        holds.advance(time);
     }
 
     /**
-     * Determines if a seat can be sold.
-     * @param id the ID of the voyage
-     * @param seat the seat number to check
-     * @return {@code true} if the seat can be sold, {@code false} if it cannot be sold
+     * Finds free seats on a voyage and sells them, preferring seats next to each other in one row.
+     * The seats are sold and journaled exactly like a {@code SELL_TICKET} of the same seats.
+     * @param id the voyage ID
+     * @param count the number of seats to sell
+     * @param preferences the seat preferences, see {@link SeatAllocator#parsePreferences(String)}
      */
-    private boolean canSeatSold(int id, int seat){
-        if(!voyages.get(id).isSeatNumberValid(seat)){
-            System.out.println(ErrorMessages.NO_SEAT);
-            return false;
+    public void allocateSeats(int id, int count, int preferences){
+        Voyage voyage = findVoyage(id);
+        if(voyage == null) return;
+
+        if(count <= 0){
+            out.println(ErrorMessages.appendSeatCountMustPositive(out.line(), count));
+            return;
         }
-        if(!voyages.get(id).isSeatEmpty(seat)){
-            System.out.println(ErrorMessages.SEAT_ALREADY_SOLD);
-            return false;
+        if(count > voyage.getSeats().getCapacity() || !allocate(voyage, count, preferences)){
+            out.println(ErrorMessages.appendNotEnoughSeats(out.line(), id, count));
+            return;
         }
-        return true;
+        sell(voyage, allocation, count);
     }
 
     /**
-     * Determines if a seat can be refunded.
-     * @param id the ID of the voyage
-     * @param seat the seat number to check
-     * @return {@code true} if the seat can be refunded, {@code false} if it cannot be refunded
+     * Lets the allocator of a voyage pick seats into the reused allocation buffer.
      */
-    private boolean canSeatRefunded(int id, int seat){
-        if(!voyages.get(id).isSeatNumberValid(seat)){
-            System.out.println(ErrorMessages.NO_SEAT);
-            return false;
-        }
-        if(voyages.get(id).isSeatEmpty(seat)){
-            System.out.println(ErrorMessages.SEAT_ALREADY_EMPTY);
-            return false;
-        }
-        return true;
+    private boolean allocate(Voyage voyage, int count, int preferences){
+        if(count > allocation.length) allocation = new int[Math.max(count, allocation.length * 2)];
+        return voyage.getAllocator().allocate(count, preferences, allocation);
     }
 
-    
     /**
-     * Sells tickets for a specific voyage if the voyage ID and seat are valid.
-     * @param id the voyage ID
-     * @param seats an array of seats to be sold
+     * Sells seats that were already checked, journals the sale and reports the amount charged.
      */
-    public void sellTickets(int id, int[] seats){
-        if(!isVoyageIdValid(id)) return;
-
-        for(int seat : seats){
-            if(seat < 0){
-                System.out.println(ErrorMessages.getSeatIdMustPositiveString(seat));
-                return;
-            }
-            if(!canSeatSold(id, seat)) return;
+    private void sell(Voyage voyage, int[] seats, int seatCount){
+        int id = voyage.getId();
+        long beforeSell = voyage.getRevenue();
+        for(int i = 0; i < seatCount; i++){
+            voyage.sellTicket(seats[i]);
         }
-        float beforeSell = voyages.get(id).getRevenue();
-        for(int seat : seats){
-            voyages.get(id).sellTicket(seat);
-        }
-        float afterSell = voyages.get(id).getRevenue();
-        float amount = afterSell - beforeSell;
-        System.out.println(InfoMessages.getSeatsSoldString(seats, id, voyages.get(id).getDeparture(), voyages.get(id).getArrival(), afterSell - beforeSell));
+        long afterSell = voyage.getRevenue();
+        if(journal != null) journal.logSell(id, seats, seatCount);
+        RouteDictionary.Route route = voyage.getRoute();
+        out.println(InfoMessages.appendSeatsSold(out.line(), seats, seatCount, id, route.getDeparture(), route.getArrival(), afterSell - beforeSell));
     }
 
     /**
@@ -434,30 +397,47 @@ public class VoyageManager {
      * @param seats an array of seats to be refunded
      */
     public void refundTickets(int id, int[] seats){
-        if(!isVoyageIdValid(id)) return;
-        if(voyages.get(id) instanceof MiniBus){
-            System.out.println(ErrorMessages.MINIBUS_TICKETS_NOT_REFUNDABLE);
+        refundTickets(id, seats, seats.length);
+    }
+
+    /**
+     * Refunds tickets for a specific voyage, taking into account different rules for different bus types.
+     * Only the first {@code seatCount} entries of {@code seats} are used, so callers can pass a reused buffer.
+     * @param id the voyage ID
+     * @param seats an array whose first entries are the seats to be refunded
+     * @param seatCount the number of seats in {@code seats}
+     */
+    public void refundTickets(int id, int[] seats, int seatCount){
+        Voyage voyage = findVoyage(id);
+        if(voyage == null) return;
+        if(voyage instanceof MiniBus){
+            out.println(ErrorMessages.MINIBUS_TICKETS_NOT_REFUNDABLE);
             return;
         }
-        for(int seat : seats){
+        for(int i = 0; i < seatCount; i++){
+            int seat = seats[i];
             if(seat < 0){
-                System.out.println(ErrorMessages.getSeatIdMustPositiveString(seat));
+                out.println(ErrorMessages.appendSeatIdMustPositive(out.line(), seat));
                 return;
             }
-            if(!canSeatRefunded(id, seat)) return;
+            if(!canSeatRefunded(voyage, seat)) return;
         }
-        float beforeRefund = voyages.get(id).getRevenue();
-        if(voyages.get(id) instanceof StandardBus){
-            for(int seat : seats){
-                ((StandardBus) voyages.get(id)).refundTicket(seat);
+        long beforeRefund = voyage.getRevenue();
+        if(voyage instanceof StandardBus){
+            StandardBus standardBus = (StandardBus) voyage;
+            for(int i = 0; i < seatCount; i++){
+                standardBus.refundTicket(seats[i]);
             }
         }
-        else if(voyages.get(id) instanceof PremiumBus){
-            for(int seat : seats){
-                ((PremiumBus) voyages.get(id)).refundTicket(seat);
+        else if(voyage instanceof PremiumBus){
+            PremiumBus premiumBus = (PremiumBus) voyage;
+            for(int i = 0; i < seatCount; i++){
+                premiumBus.refundTicket(seats[i]);
             }
         }
-        System.out.println(InfoMessages.getSeatsRefundedString(seats, id, voyages.get(id).getDeparture(), voyages.get(id).getArrival(), beforeRefund - voyages.get(id).getRevenue()));
+        if(journal != null) journal.logRefund(id, seats, seatCount);
+        RouteDictionary.Route route = voyage.getRoute();
+        out.println(InfoMessages.appendSeatsRefunded(out.line(), seats, seatCount, id, route.getDeparture(), route.getArrival(), beforeRefund - voyage.getRevenue()));
     }
 
     /**
@@ -469,22 +449,23 @@ public class VoyageManager {
      * @param seat_price the price per seat
      * @param refundCut the percentage cut for refunds
      */
-    public void addStandardVoyage(int id, String departure, String arrival, int row_count, float seat_price, int refundCut){
+    public void addStandardVoyage(int id, String departure, String arrival, int row_count, long seat_price, int refundCut){
         if (!isNewVoyageIdValid(id)) return;
         if (row_count < 1){
-            System.out.println(ErrorMessages.getSeatRowMustPositiveString(row_count));
+            out.println(ErrorMessages.appendSeatRowMustPositive(out.line(), row_count));
             return;
         }
         if (seat_price <= 0){
-            System.out.println(ErrorMessages.getPriceMustPositiveString(seat_price));
+            out.println(ErrorMessages.appendPriceMustPositive(out.line(), seat_price));
             return;
         }
         if (refundCut < 0 || refundCut > 100){
-            System.out.println(ErrorMessages.getRefundCutMustInRangeString(refundCut));
+            out.println(ErrorMessages.appendRefundCutMustInRange(out.line(), refundCut));
             return;
         }
-        voyages.put(id, new StandardBus(id, row_count, departure, arrival, seat_price, refundCut));
-        System.out.println(InfoMessages.getStandardVoyageInitializedString(id, departure, arrival, seat_price, row_count, refundCut));
+        voyages.put(new StandardBus(id, row_count, routes.intern(departure, arrival), seat_price, refundCut));
+        if (journal != null) journal.logStandardVoyage(id, departure, arrival, row_count, seat_price, refundCut);
+        out.println(InfoMessages.appendStandardVoyageInitialized(out.line(), id, departure, arrival, seat_price, row_count, refundCut));
     }
 
     /**
@@ -497,27 +478,28 @@ public class VoyageManager {
      * @param refundCut the percentage cut for refunds
      * @param premiumFee additional fee for premium seats
      */
-    public void addPremiumVoyage(int id, String departure, String arrival, int row_count, float seat_price, int refundCut, int premiumFee){
+    public void addPremiumVoyage(int id, String departure, String arrival, int row_count, long seat_price, int refundCut, int premiumFee){
         if (!isNewVoyageIdValid(id)) return;
         if (row_count < 1){
-            System.out.println(ErrorMessages.getSeatRowMustPositiveString(row_count));
+            out.println(ErrorMessages.appendSeatRowMustPositive(out.line(), row_count));
             return;
         }
         if (seat_price <= 0){
-            System.out.println(ErrorMessages.getPriceMustPositiveString(seat_price));
+            out.println(ErrorMessages.appendPriceMustPositive(out.line(), seat_price));
             return;
         }
         if (refundCut < 0 || refundCut > 100){
-            System.out.println(ErrorMessages.getRefundCutMustInRangeString(refundCut));
+            out.println(ErrorMessages.appendRefundCutMustInRange(out.line(), refundCut));
             return;
         }
         if (premiumFee < 0){
-            System.out.println(ErrorMessages.getPremiumFeeMustNonNegativeString(premiumFee));
+            out.println(ErrorMessages.appendPremiumFeeMustNonNegative(out.line(), premiumFee));
             return;
         }
-        PremiumBus premiumBus = new PremiumBus(id, row_count, departure, arrival, seat_price, refundCut, premiumFee);
-        voyages.put(id, premiumBus);
-        System.out.println(InfoMessages.getPremiumVoyageInitializedString(id, departure, arrival, seat_price, row_count, premiumBus.getPremiumPrice(), refundCut));
+        PremiumBus premiumBus = new PremiumBus(id, row_count, routes.intern(departure, arrival), seat_price, refundCut, premiumFee);
+        voyages.put(premiumBus);
+        if (journal != null) journal.logPremiumVoyage(id, departure, arrival, row_count, seat_price, refundCut, premiumFee);
+        out.println(InfoMessages.appendPremiumVoyageInitialized(out.line(), id, departure, arrival, seat_price, row_count, premiumBus.getPremiumPrice(), refundCut));
     }
 
     /**
@@ -528,18 +510,19 @@ public class VoyageManager {
      * @param row_count the number of rows in the minibus
      * @param seat_price the price per seat
      */
-    public void addMinibusVoyage(int id, String departure, String arrival, int row_count, float seat_price){
+    public void addMinibusVoyage(int id, String departure, String arrival, int row_count, long seat_price){
         if (!isNewVoyageIdValid(id)) return;
         if (row_count < 1){
-            System.out.println(ErrorMessages.getSeatRowMustPositiveString(row_count));
+            out.println(ErrorMessages.appendSeatRowMustPositive(out.line(), row_count));
             return;
         }
         if (seat_price <= 0){
-            System.out.println(ErrorMessages.getPriceMustPositiveString(seat_price));
+            out.println(ErrorMessages.appendPriceMustPositive(out.line(), seat_price));
             return;
         }
-        voyages.put(id, new MiniBus(id, row_count, departure, arrival, seat_price));
-        System.out.println(InfoMessages.getMinibusVoyageInitializedString(id, departure, arrival, seat_price, row_count));
+        voyages.put(new MiniBus(id, row_count, routes.intern(departure, arrival), seat_price));
+        if (journal != null) journal.logMinibusVoyage(id, departure, arrival, row_count, seat_price);
+        out.println(InfoMessages.appendMinibusVoyageInitialized(out.line(), id, departure, arrival, seat_price, row_count));
     }
 
     /**
@@ -547,10 +530,11 @@ public class VoyageManager {
      * @param id the voyage ID
      */
     public void cancelVoyage(int id){
-        if (!isVoyageIdValid(id)) return;
-        Voyage t = voyages.get(id);
-        t.processVoyageCancelling();
+        Voyage t = findVoyage(id);
+        if (t == null) return;
+        t.processVoyageCancelling(out);
         voyages.remove(id);
+        if (journal != null) journal.logCancel(id);
     }
 
     /**
@@ -558,26 +542,147 @@ public class VoyageManager {
      * @param id the voyage ID
      */
     public void printVoyage(int id){
-        if (!isVoyageIdValid(id)) return;
-        voyages.get(id).printLayout();
+        Voyage voyage = findVoyage(id);
+        if (voyage == null) return;
+        voyage.printLayout(out);
     }
 
     /**
      * Generates a "Z Report" showing details and layout of all voyages.
      */
     public void zReport(){
-        System.out.println(InfoMessages.Z_REPORT);
-        System.out.println(InfoMessages.LINE);
+        zReport(out, this);
+    }
+
+    /**
+     * Lists the voyages from one city to another in ID order, with the number of seats still available on each.
+     * Uses the route index, so the cost depends on the number of matches, not on the size of the fleet.
+     * @param departure the departure city
+     * @param arrival the arrival city
+     */
+    public void findVoyages(String departure, String arrival){
+        findVoyages(out, departure, arrival, this);
+    }
+
+    /**
+     * Reports how many seats of a voyage are still available, split into premium and regular seats for premium voyages.
+     * Reads the counters the voyage keeps, so the cost does not depend on the size of the voyage.
+     * @param id the voyage ID
+     */
+    public void availability(int id){
+        Voyage voyage = findVoyage(id);
+        if(voyage == null) return;
+
+        RouteDictionary.Route route = voyage.getRoute();
+        out.println(InfoMessages.appendSeatsAvailable(out.line(), id, route.getDeparture(), route.getArrival(), voyage.getAvailableSeatCount(), voyage.getSeatCount()));
+        int premiumSeats = voyage.getPremiumSeatCount();
+        if(premiumSeats > 0){
+            int regularSeats = voyage.getSeatCount() - premiumSeats;
+            int availablePremium = premiumSeats - voyage.getPremiumSoldCount() - voyage.getPremiumHeldCount();
+            out.println(InfoMessages.appendPremiumSeatsAvailable(out.line(), availablePremium, premiumSeats, voyage.getAvailableSeatCount() - availablePremium, regularSeats));
+        }
+    }
 
-        if (voyages.isEmpty()){
-            System.out.println(InfoMessages.NO_VOYAGES_AVAILABLE);
-            System.out.println(InfoMessages.LINE);
+    /**
+     * Reports how many seats are still available over all voyages.
+     */
+    public void availability(){
+        availability(out, this);
+    }
+
+    /**
+     * Reports how many seats are still available over the voyages of several managers, such as the shards of a
+     * {@link ShardedCommandExecuter}. Costs one read of the counters of every voyage.
+     * The managers must not be modified while the seats are counted.
+     * @param out the report writer that receives the summary
+     * @param managers the managers whose voyages are counted
+     */
+    public static void availability(ReportWriter out, VoyageManager... managers){
+        int voyageCount = 0;
+        long seats = 0;
+        long available = 0;
+        for (VoyageManager manager : managers){
+            Voyage[] ordered = manager.voyages.inIdOrder();
+            int size = manager.voyages.size();
+            for (int i = 0; i < size; i++){
+                seats += ordered[i].getSeatCount();
+                available += ordered[i].getAvailableSeatCount();
+            }
+            voyageCount += size;
+        }
+        if (voyageCount == 0){
+            out.println(InfoMessages.NO_VOYAGES_AVAILABLE);
             return;
         }
+        out.println(InfoMessages.appendFleetSeatsAvailable(out.line(), available, seats, voyageCount));
+    }
 
-        for(Voyage t : voyages.values()){
-            t.printLayout();
-            System.out.println(InfoMessages.LINE);
+    /**
+     * Lists the voyages from one city to another over several managers, such as the shards of a
+     * {@link ShardedCommandExecuter}, merging their matches into one ID order.
+     * The managers must not be modified while the voyages are listed.
+     * @param out the report writer that receives the list
+     * @param departure the departure city
+     * @param arrival the arrival city
+     * @param managers the managers whose voyages are searched
+     */
+    public static void findVoyages(ReportWriter out, String departure, String arrival, VoyageManager... managers){
+        Voyage[][] matches = new Voyage[managers.length][];
+        int[] counts = new int[managers.length];
+        int[] next = new int[managers.length];
+        int total = 0;
+        for (int i = 0; i < managers.length; i++){
+            int route = managers[i].routes.find(departure, arrival);
+            RouteIndex index = managers[i].voyages.byRoute();
+            matches[i] = index.voyagesOn(route);
+            counts[i] = index.count(route);
+            total += counts[i];
+        }
+        if (total == 0){
+            out.println(InfoMessages.appendNoVoyagesFound(out.line(), departure, arrival));
+            return;
+        }
+        for (int printed = 0; printed < total; printed++){
+            int first = -1;
+            for (int i = 0; i < managers.length; i++){
+                if (next[i] == counts[i]) continue;
+                if (first < 0 || matches[i][next[i]].getId() < matches[first][next[first]].getId()) first = i;
+            }
+            Voyage voyage = matches[first][next[first]++];
+            out.println(InfoMessages.appendVoyageFound(out.line(), voyage.getId(), departure, arrival, voyage.getAvailableSeatCount()));
+        }
+    }
+
+    /**
+     * Generates a single "Z Report" over the voyages of several managers, such as the shards of a
+     * {@link ShardedCommandExecuter}, merging their voyages into one ID order.
+     * The managers must not be modified while the report is generated.
+     * @param out the report writer that receives the report
+     * @param managers the managers whose voyages are reported
+     */
+    public static void zReport(ReportWriter out, VoyageManager... managers){
+        out.println(InfoMessages.Z_REPORT);
+        out.println(InfoMessages.LINE);
+
+        int total = 0;
+        for (VoyageManager manager : managers) total += manager.voyages.size();
+        if (total == 0){
+            out.println(InfoMessages.NO_VOYAGES_AVAILABLE);
+            out.println(InfoMessages.LINE);
+            return;
+        }
+
+        Voyage[][] ordered = new Voyage[managers.length][];
+        int[] next = new int[managers.length];
+        for (int i = 0; i < managers.length; i++) ordered[i] = managers[i].voyages.inIdOrder();
+        for (int printed = 0; printed < total; printed++){
+            int first = -1;
+            for (int i = 0; i < managers.length; i++){
+                if (next[i] == managers[i].voyages.size()) continue;
+                if (first < 0 || ordered[i][next[i]].getId() < ordered[first][next[first]].getId()) first = i;
+            }
+            ordered[first][next[first]++].printLayout(out);
+            out.println(InfoMessages.LINE);
         }
     }
 }
@@ -0,0 +1,193 @@
+import java.util.*;
+
+/**
+ * The {@code VoyageMap} class maps positive voyage IDs to voyages with an open-addressing hash table on primitive
+ * {@code int} keys, so lookups neither box the ID nor walk a tree. Key 0 marks an empty slot, which is safe
+ * because voyage IDs are always positive. Removal uses backward-shift deletion, so the table never fills up
+ * with tombstones.
+ * <p>
+ * Next to the table, the map keeps the voyages in an array sorted by ID for {@link #inIdOrder()}, which the
+ * Z report needs. New IDs are usually larger than all existing ones and are simply appended; otherwise the
+ * array is re-sorted lazily the next time it is read. A {@link RouteIndex} lists the voyages of every route.
+ */
+public class VoyageMap {
+    private static final int MIN_CAPACITY = 16;
+    private static final Comparator<Voyage> BY_ID = Comparator.comparingInt(Voyage::getId);
+
+    private int[] keys;
+    private Voyage[] values;
+    private int mask;
+    private int size;
+
+    private Voyage[] ordered = new Voyage[MIN_CAPACITY];
+    private boolean orderedSorted = true;
+    private final RouteIndex routes = new RouteIndex();
+
+    public VoyageMap() {
+        keys = new int[MIN_CAPACITY];
+        values = new Voyage[MIN_CAPACITY];
+        mask = MIN_CAPACITY - 1;
+    }
+
+    /**
+     * Grows the table so that the given number of voyages fits without further resizing.
+     *
+     * @param expectedSize Number of voyages the map is about to hold.
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = keys.length;
+        while (expectedSize * 4 > capacity * 3) capacity *= 2;
+        if (capacity > keys.length) resize(capacity);
+        if (expectedSize > ordered.length) ordered = Arrays.copyOf(ordered, expectedSize);
+    }
+
+    public int size() { return this.size; }
+    public boolean isEmpty() { return this.size == 0; }
+
+    /**
+     * Returns the voyage with the given ID.
+     *
+     * @param id The voyage ID.
+     * @return The voyage, or null if there is none.
+     */
+    public Voyage get(int id) {
+        if (id <= 0) return null;
+        for (int slot = slot(id); ; slot = (slot + 1) & mask) {
+            int key = keys[slot];
+            if (key == id) return values[slot];
+            if (key == 0) return null;
+        }
+    }
+
+    /**
+     * Checks if there is a voyage with the given ID.
+     *
+     * @param id The voyage ID.
+     * @return true if the ID is in use, false otherwise.
+     */
+    public boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Adds a voyage under its own ID.
+     *
+     * @param voyage The voyage to add.
+     * @throws IllegalArgumentException if the ID is not positive or already in use.
+     */
+    public void put(Voyage voyage) {
+        int id = voyage.getId();
+        if (id <= 0) throw new IllegalArgumentException("Voyage ID must be positive: " + id);
+        if ((size + 1) * 4 > keys.length * 3) resize(keys.length * 2);
+        int slot = slot(id);
+        while (keys[slot] != 0) {
+            if (keys[slot] == id) throw new IllegalArgumentException("Voyage ID already in use: " + id);
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        values[slot] = voyage;
+
+        if (size == ordered.length) ordered = Arrays.copyOf(ordered, size * 2);
+        if (size > 0 && ordered[size - 1].getId() > id) orderedSorted = false;
+        ordered[size] = voyage;
+        size++;
+        routes.add(voyage);
+    }
+
+    /**
+     * Removes the voyage with the given ID.
+     *
+     * @param id The voyage ID.
+     * @return The removed voyage, or null if there was none.
+     */
+    public Voyage remove(int id) {
+        if (id <= 0) return null;
+        int slot = slot(id);
+        while (keys[slot] != id) {
+            if (keys[slot] == 0) return null;
+            slot = (slot + 1) & mask;
+        }
+        Voyage removed = values[slot];
+        deleteSlot(slot);
+        routes.remove(removed);
+
+        sortOrdered();
+        int index = Arrays.binarySearch(ordered, 0, size, removed, BY_ID);
+        System.arraycopy(ordered, index + 1, ordered, index, size - index - 1);
+        size--;
+        ordered[size] = null;
+        return removed;
+    }
+
+    /**
+     * Returns the voyages sorted by ID. Only the first {@link #size()} entries are valid,
+     * and the array must not be modified.
+     *
+     * @return The voyages in ascending ID order.
+     */
+    public Voyage[] inIdOrder() {
+        sortOrdered();
+        return ordered;
+    }
+
+    /**
+     * Returns the index of the voyages by route. It must not be modified.
+     *
+     * @return The route index.
+     */
+    public RouteIndex byRoute() {
+        return routes;
+    }
+
+    /**
+     * Sorts the ordered view if an ID was added out of order.
+     */
+    private void sortOrdered() {
+        if (orderedSorted) return;
+        Arrays.sort(ordered, 0, size, BY_ID);
+        orderedSorted = true;
+    }
+
+    /**
+     * Empties a slot and shifts later entries of the same probe run back, so lookups never stop early.
+     */
+    private void deleteSlot(int slot) {
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+    }
+
+    /**
+     * Rehashes every entry into a table of the given power-of-two capacity.
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Voyage[] oldValues = values;
+        keys = new int[capacity];
+        values = new Voyage[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int slot = slot(oldKeys[i]);
+            while (keys[slot] != 0) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Returns the home slot of an ID using multiplicative (Fibonacci) hashing.
+     */
+    private int slot(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}